@@ -2,6 +2,7 @@ package com.crafthub.backend.config;
 
 import com.crafthub.backend.model.*;
 import com.crafthub.backend.repository.*;
+import com.crafthub.backend.service.ProductCardService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
@@ -39,6 +40,7 @@ public class DataInitializer implements CommandLineRunner {
     private final ProductImageRepository productImageRepository;
     private final PasswordEncoder passwordEncoder;
     private final JdbcTemplate jdbcTemplate;
+    private final ProductCardService productCardService;
 
     @Value("${upload.path}")
     private String uploadPath;
@@ -238,6 +240,8 @@ public class DataInitializer implements CommandLineRunner {
             }
 
             recalculateAllRatings();
+            // Данные писались в обход сервисов, поэтому карточки товаров собираем в конце
+            productCardService.rebuildAll();
             System.out.println("Генерация завершена.");
 
         } catch (Exception e) {
@@ -1,6 +1,11 @@
 package com.crafthub.backend.config;
 
+import com.crafthub.backend.service.FileStreamingService;
+import com.crafthub.backend.service.SignedUrlService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.security.autoconfigure.web.servlet.SecurityFilterProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -55,6 +60,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/users/*").permitAll()
                         .requestMatchers("/uploads/products/**").permitAll()
                         .requestMatchers("/uploads/avatars/**").permitAll()
+                        // Документы верификации - только по подписанным ссылкам (SignedFileFilter)
+                        .requestMatchers("/uploads/documents/**").denyAll()
                         .requestMatchers("/api/verification/**").permitAll()
                         .requestMatchers("/api/stats/seller").hasRole("SELLER")
                         .requestMatchers("/api/stats/admin").hasRole("ADMIN")
@@ -70,4 +77,16 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    // Подписанные ссылки на документы проверяются до цепочки Spring Security
+    @Bean
+    public FilterRegistrationBean<SignedFileFilter> signedFileFilter(SignedUrlService signedUrlService,
+                                                                     FileStreamingService fileStreamingService,
+                                                                     @Value("${upload.path}") String uploadPath) {
+        FilterRegistrationBean<SignedFileFilter> registration = new FilterRegistrationBean<>(
+                new SignedFileFilter(signedUrlService, fileStreamingService, uploadPath));
+        registration.addUrlPatterns(SignedUrlService.FILES_PREFIX + "*");
+        registration.setOrder(SecurityFilterProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.crafthub.backend.config;
+
+import com.crafthub.backend.service.FileStreamingService;
+import com.crafthub.backend.service.SignedUrlService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+/**
+ * Отдача документов верификации по подписанным ссылкам ({@link SignedUrlService}).
+ * Стоит перед цепочкой Spring Security и сам отвечает на запрос: проверка подписи - одно вычисление HMAC,
+ * без JWT и поиска пользователя в БД, поэтому страница модерации грузит десятки сканов параллельно.
+ */
+public class SignedFileFilter extends OncePerRequestFilter {
+
+    private static final String DOCUMENTS_DIR = "documents";
+
+    private final SignedUrlService signedUrlService;
+    private final FileStreamingService fileStreamingService;
+    private final Path root;
+
+    public SignedFileFilter(SignedUrlService signedUrlService, FileStreamingService fileStreamingService,
+                            String uploadPath) {
+        this.signedUrlService = signedUrlService;
+        this.fileStreamingService = fileStreamingService;
+        this.root = Paths.get(uploadPath).toAbsolutePath().normalize();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws IOException {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        String relativePath = UriUtils.decode(request.getRequestURI()
+                .substring(request.getContextPath().length() + SignedUrlService.FILES_PREFIX.length()),
+                StandardCharsets.UTF_8);
+        long expires;
+        try {
+            expires = Long.parseLong(request.getParameter("expires"));
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        if (!signedUrlService.verify(relativePath, expires, request.getParameter("signature"))) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        Path file = root.resolve(relativePath).normalize();
+        if (!file.startsWith(root.resolve(DOCUMENTS_DIR))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Ответ можно кешировать только в браузере и только пока ссылка действует
+        long maxAge = Math.max(0, expires - Instant.now().getEpochSecond());
+        fileStreamingService.stream(file, fileStreamingService.etag(file, relativePath),
+                "private, max-age=" + maxAge, request, response);
+    }
+}
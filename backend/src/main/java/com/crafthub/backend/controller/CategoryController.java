@@ -1,12 +1,15 @@
 package com.crafthub.backend.controller;
 
+import com.crafthub.backend.dto.response.DataVersion;
 import com.crafthub.backend.model.Category;
 import com.crafthub.backend.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,7 +24,11 @@ public class CategoryController {
     private final CategoryRepository categoryRepository;
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryRepository.findAll());
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest webRequest) {
+        DataVersion version = categoryRepository.getVersion();
+        if (webRequest.checkNotModified(version.etag("categories"))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categoryRepository.findAll());
     }
 }
\ No newline at end of file
@@ -1,17 +1,52 @@
 package com.crafthub.backend.controller;
 
+import com.crafthub.backend.dto.request.AdminProductFilter;
+import com.crafthub.backend.dto.request.BulkModerationRequest;
+import com.crafthub.backend.dto.request.CatalogFilter;
+import com.crafthub.backend.dto.request.CatalogSort;
 import com.crafthub.backend.dto.request.ProductRequest;
+import com.crafthub.backend.dto.response.BulkModerationResponse;
+import com.crafthub.backend.dto.response.CacheStatsResponse;
+import com.crafthub.backend.dto.response.CatalogPageResponse;
+import com.crafthub.backend.dto.response.DataVersion;
+import com.crafthub.backend.dto.response.ImageProcessingStatsResponse;
+import com.crafthub.backend.dto.response.ImportReport;
+import com.crafthub.backend.dto.response.ProductDetailsResponse;
+import com.crafthub.backend.dto.response.ProductPageResponse;
 import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.dto.response.SellerInventoryResponse;
+import com.crafthub.backend.dto.response.SuggestionResponse;
+import com.crafthub.backend.dto.stats.PricePoint;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.service.FileStorageService;
+import com.crafthub.backend.service.ImageProcessingService;
+import com.crafthub.backend.service.PriceHistoryService;
+import com.crafthub.backend.service.ProductCacheService;
+import com.crafthub.backend.service.ProductImportService;
+import com.crafthub.backend.service.ProductSearchService;
+import com.crafthub.backend.service.RelatedProductsService;
+import com.crafthub.backend.service.SimilarProductsService;
+import com.crafthub.backend.service.SuggestService;
+import com.crafthub.backend.service.TrendingService;
 import com.crafthub.backend.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.MediaType;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Контроллер для управления товарами
@@ -21,7 +56,19 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductCacheService productCacheService;
+    private final TrendingService trendingService;
+    private final RelatedProductsService relatedProductsService;
+    private final SimilarProductsService similarProductsService;
+    private final PriceHistoryService priceHistoryService;
+    private final SuggestService suggestService;
+    private final ProductImportService productImportService;
+    private final FileStorageService fileStorageService;
+    private final ImageProcessingService imageProcessingService;
 
     @PostMapping(consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
     @PreAuthorize("hasRole('SELLER')")
@@ -29,12 +76,79 @@ public class ProductController {
             @RequestPart("product") @Valid ProductRequest request,
             @RequestPart("images") List<MultipartFile> images
     ) {
-        return ResponseEntity.ok(productService.createProduct(request, images));
+        // Фото пишутся на диск параллельно и проверяются до начала транзакции
+        List<FileStorageService.StagedFile> staged = fileStorageService.stageAll(images, "products");
+        try {
+            staged = imageProcessingService.process(staged, false);
+            return ResponseEntity.ok(productService.createProduct(request, staged));
+        } finally {
+            fileStorageService.discard(staged);
+        }
+    }
+
+    // Массовый импорт товаров из CSV или NDJSON (все товары уходят на модерацию).
+    // Файл приходит телом запроса, а не multipart: общий лимит загрузок его не касается, у импорта свой лимит
+    @PostMapping(value = "/import", consumes = {"text/csv", NDJSON, MediaType.TEXT_PLAIN_VALUE,
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("hasRole('SELLER')")
+    public ResponseEntity<ImportReport> importProducts(@RequestParam(required = false) String fileName,
+                                                       @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                       HttpServletRequest request) throws IOException {
+        if (fileName == null) {
+            fileName = contentType.startsWith(NDJSON) ? "products.ndjson" : "products.csv";
+        }
+        return ResponseEntity.ok(productImportService.importProducts(
+                request.getInputStream(), request.getContentLengthLong(), fileName));
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllActiveProducts());
+    public ResponseEntity<List<ProductResponse>> getAllProducts(WebRequest webRequest) {
+        // ETag из агрегатной версии списка: при совпадении отвечаем 304, список не читаем
+        DataVersion version = productService.getActiveProductsVersion();
+        if (webRequest.checkNotModified(version.etag("products"), version.lastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productService.getAllActiveProducts());
+    }
+
+    // Постраничный каталог с фильтрами. Следующая страница запрашивается по nextCursor
+    @GetMapping("/catalog")
+    public ResponseEntity<CatalogPageResponse> getCatalog(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(defaultValue = "NEWEST") CatalogSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int size
+    ) {
+        CatalogFilter filter = new CatalogFilter(categoryId, minPrice, maxPrice, minRating, sellerId);
+        return ResponseEntity.ok(productService.getCatalogPage(filter, sort, cursor, size));
+    }
+
+    // Полнотекстовый поиск по названию, описанию и категории
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponse>> search(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(productSearchService.search(query, limit));
+    }
+
+    // Подсказки при вводе в поисковую строку (товары, категории, мастера)
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        return ResponseEntity.ok(suggestService.suggest(query, limit));
+    }
+
+    // Сейчас в тренде: продажи и просмотры за последние часы
+    @GetMapping("/trending")
+    public ResponseEntity<List<ProductResponse>> getTrending(@RequestParam(defaultValue = "12") int limit) {
+        return ResponseEntity.ok(trendingService.getTrending(limit));
     }
 
     @GetMapping("/my")
@@ -43,12 +157,66 @@ public class ProductController {
         return ResponseEntity.ok(productService.getMyProducts());
     }
 
+    // "Мои товары" постранично, с фильтром по статусу и счетчиками для вкладок
+    @GetMapping("/my/page")
+    @PreAuthorize("hasRole('ROLE_SELLER')")
+    public ResponseEntity<SellerInventoryResponse> getMyInventory(
+            @RequestParam(required = false) ProductStatus status,
+            @RequestParam(defaultValue = "NEWEST") CatalogSort sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "24") int size
+    ) {
+        return ResponseEntity.ok(productService.getMyInventory(status, sort, page, size));
+    }
+
     @GetMapping("/pending")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<ProductResponse>> getPendingProducts() {
         return ResponseEntity.ok(productService.getPendingProducts());
     }
 
+    // Очередь модерации постранично, сначала самые давние заявки
+    @GetMapping("/pending/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CatalogPageResponse> getPendingPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(productService.getPendingPage(cursor, size));
+    }
+
+    @PostMapping("/bulk/approve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkModerationResponse> approveProducts(@RequestBody @Valid BulkModerationRequest request) {
+        return ResponseEntity.ok(productService.approveProducts(request.ids()));
+    }
+
+    @PostMapping("/bulk/reject")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkModerationResponse> rejectProducts(@RequestBody @Valid BulkModerationRequest request) {
+        return ResponseEntity.ok(productService.rejectProducts(request.ids(), request.reason()));
+    }
+
+    @PostMapping("/bulk/suspend")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkModerationResponse> suspendProducts(@RequestBody @Valid BulkModerationRequest request) {
+        return ResponseEntity.ok(productService.suspendProducts(request.ids(), request.reason()));
+    }
+
+    // Метрики кеша карточек (попадания, промахи, вытеснения)
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(productCacheService.getStats());
+    }
+
+    // Метрики пула проверки загружаемых картинок
+    @GetMapping("/image-processing/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImageProcessingStatsResponse> getImageProcessingStats() {
+        return ResponseEntity.ok(imageProcessingService.getStats());
+    }
+
     @PostMapping("/{id}/approve")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> approveProduct(@PathVariable Long id) {
@@ -63,9 +231,42 @@ public class ProductController {
         return ResponseEntity.ok().build();
     }
 
+    // expand=priceHistory добавляет дневной график цены за historyDays дней
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProduct(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductDetailsResponse> getProduct(@PathVariable Long id,
+                                                             @RequestParam(required = false) List<String> expand,
+                                                             @RequestParam(defaultValue = "90") int historyDays,
+                                                             WebRequest webRequest) {
+        Optional<DataVersion> version = productService.getProductVersion(id);
+        if (version.isPresent()
+                && webRequest.checkNotModified(version.get().etag("product-" + id), version.get().lastModifiedMillis())) {
+            productService.registerView(id);
+            return null;
+        }
+        boolean withPriceHistory = expand != null && expand.contains("priceHistory");
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(productService.getProductDetails(id, withPriceHistory, historyDays));
+    }
+
+    // История цены товара: дневные min/max/последняя цена
+    @GetMapping("/{id}/price-history")
+    public ResponseEntity<List<PricePoint>> getPriceHistory(@PathVariable Long id,
+                                                            @RequestParam(defaultValue = "90") int days) {
+        return ResponseEntity.ok(priceHistoryService.getDailySeries(id, days));
+    }
+
+    // С этим товаром часто покупают
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductResponse>> getRelated(@PathVariable Long id,
+                                                            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(relatedProductsService.getRelated(id, limit));
+    }
+
+    // Похожие товары по названию, описанию и категории
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<ProductResponse>> getSimilar(@PathVariable Long id,
+                                                            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(similarProductsService.getSimilar(id, limit));
     }
 
     @DeleteMapping("/{id}")
@@ -81,7 +282,13 @@ public class ProductController {
             @RequestPart("product") @Valid ProductRequest request,
             @RequestPart(value = "images", required = false) List<MultipartFile> images
     ) {
-        return ResponseEntity.ok(productService.updateProduct(id, request, images));
+        List<FileStorageService.StagedFile> staged = fileStorageService.stageAll(images, "products");
+        try {
+            staged = imageProcessingService.process(staged, false);
+            return ResponseEntity.ok(productService.updateProduct(id, request, staged));
+        } finally {
+            fileStorageService.discard(staged);
+        }
     }
 
     @GetMapping("/all")
@@ -90,6 +297,23 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProductsForAdmin());
     }
 
+    // Таблица товаров в админке: фильтры, сортировка и страницы на стороне БД
+    @GetMapping("/admin")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductPageResponse> getAdminProductsPage(
+            @RequestParam(required = false) ProductStatus status,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @RequestParam(defaultValue = "NEWEST") CatalogSort sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        AdminProductFilter filter = new AdminProductFilter(status, sellerId, categoryId, createdFrom, createdTo);
+        return ResponseEntity.ok(productService.getAdminProductsPage(filter, sort, page, size));
+    }
+
     @PostMapping("/{id}/suspend")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> suspendProduct(@PathVariable Long id, @RequestBody String reason) {
@@ -0,0 +1,71 @@
+package com.crafthub.backend.controller;
+
+import com.crafthub.backend.service.FileStreamingService;
+import com.crafthub.backend.service.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Раздача загруженных файлов (/uploads/**).
+ * Пути файлов уникальны и не меняются, поэтому ответы кешируются браузером и прокси на год,
+ * а ETag берется из SHA-256 в имени файла. ?size=<ширина> отдает уменьшенную копию картинки, если она готова.
+ */
+@Controller
+@RequestMapping("/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private static final String PREFIX = "/uploads/";
+
+    // Пока превью не готово, вместо него отдается оригинал - такой ответ кешируем ненадолго
+    private static final String CACHE_PENDING_VARIANT = "public, max-age=60";
+
+    private final FileStreamingService fileStreamingService;
+
+    @Value("${upload.path}")
+    private String uploadPath;
+
+    @RequestMapping(value = "/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(@RequestParam(required = false) Integer size,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relativePath = UriUtils.decode(
+                request.getRequestURI().substring(request.getContextPath().length() + PREFIX.length()),
+                StandardCharsets.UTF_8);
+        Path root = Paths.get(uploadPath).toAbsolutePath().normalize();
+        Path file = root.resolve(relativePath).normalize();
+        // Выход за пределы папки загрузок и недописанные файлы не отдаем
+        if (!file.startsWith(root) || file.startsWith(root.resolve("tmp"))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = fileStreamingService.etag(file, relativePath);
+        String cacheControl = FileStreamingService.CACHE_IMMUTABLE;
+
+        int width = size != null ? ImageVariantService.pickWidth(size) : 0;
+        if (width > 0) {
+            Path variant = root.resolve(ImageVariantService.variantPath(relativePath, width)).normalize();
+            if (Files.isRegularFile(variant)) {
+                file = variant;
+                etag = etag.substring(0, etag.length() - 1) + "-w" + width + "\"";
+            } else {
+                cacheControl = CACHE_PENDING_VARIANT;
+            }
+        }
+
+        fileStreamingService.stream(file, etag, cacheControl, request, response);
+    }
+}
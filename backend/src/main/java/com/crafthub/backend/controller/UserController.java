@@ -2,14 +2,21 @@ package com.crafthub.backend.controller;
 
 import com.crafthub.backend.dto.request.ChangePasswordRequest;
 import com.crafthub.backend.dto.request.UpdateProfileRequest;
+import com.crafthub.backend.dto.response.DataVersion;
 import com.crafthub.backend.dto.response.UserProfileResponse;
+import com.crafthub.backend.service.FileStorageService;
+import com.crafthub.backend.service.ImageProcessingService;
 import com.crafthub.backend.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 /**
  * Контроллер для управления профилем
  */
@@ -19,10 +26,17 @@ import org.springframework.web.multipart.MultipartFile;
 public class UserController {
 
     private final UserService userService;
+    private final FileStorageService fileStorageService;
+    private final ImageProcessingService imageProcessingService;
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserProfileResponse> getProfile(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserProfile(id));
+    public ResponseEntity<UserProfileResponse> getProfile(@PathVariable Long id, WebRequest webRequest) {
+        // Профиль не менялся - 304 без сборки ответа
+        DataVersion version = userService.getProfileVersion(id);
+        if (webRequest.checkNotModified(version.etag("user-" + id), version.lastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(userService.getUserProfile(id));
     }
 
     @GetMapping("/me")
@@ -38,7 +52,13 @@ public class UserController {
 
     @PostMapping("/me/avatar")
     public ResponseEntity<String> updateAvatar(@RequestParam("file") MultipartFile file) {
-        return ResponseEntity.ok(userService.updateAvatar(file));
+        List<FileStorageService.StagedFile> staged = fileStorageService.stageAll(List.of(file), "avatars");
+        try {
+            staged = imageProcessingService.process(staged, false);
+            return ResponseEntity.ok(userService.updateAvatar(staged.get(0)));
+        } finally {
+            fileStorageService.discard(staged);
+        }
     }
 
     @PostMapping("/me/password")
@@ -3,22 +3,14 @@ package com.crafthub.backend.controller;
 import com.crafthub.backend.dto.request.VerificationDecisionRequest;
 import com.crafthub.backend.model.VerificationRequest;
 import com.crafthub.backend.model.VerificationStatus;
+import com.crafthub.backend.service.FileStorageService;
+import com.crafthub.backend.service.ImageProcessingService;
 import com.crafthub.backend.service.VerificationService;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.MediaType;
-
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
-import org.springframework.beans.factory.annotation.Value;
 
 import java.util.List;
 
@@ -31,37 +23,21 @@ import java.util.List;
 public class VerificationController {
 
     private final VerificationService verificationService;
-
-    @Value("${upload.path}")
-    private String uploadPath;
-
-    @GetMapping("/files/**")
-    @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Resource> getFile(HttpServletRequest request) {
-        try {
-            String fullPath = request.getRequestURI().split("/api/verification/files/")[1];
-
-            Path filePath = Paths.get(uploadPath).resolve(fullPath).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() || resource.isReadable()) {
-                return ResponseEntity.ok()
-                        .contentType(MediaType.IMAGE_JPEG)
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
-    }
+    private final FileStorageService fileStorageService;
+    private final ImageProcessingService imageProcessingService;
 
     @PostMapping("/apply")
     public ResponseEntity<String> apply(
             @RequestParam("legalInfo") String legalInfo,
             @RequestPart("files") List<MultipartFile> files
     ) {
-        verificationService.applyForVerification(legalInfo, files);
+        List<FileStorageService.StagedFile> staged = fileStorageService.stageAll(files, "documents");
+        try {
+            staged = imageProcessingService.process(staged, true);
+            verificationService.applyForVerification(legalInfo, staged);
+        } finally {
+            fileStorageService.discard(staged);
+        }
         return ResponseEntity.ok("Заявка успешно подана и находится на рассмотрении");
     }
 
@@ -0,0 +1,18 @@
+package com.crafthub.backend.dto.request;
+
+import com.crafthub.backend.model.ProductStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Фильтры таблицы товаров в админке. Любое поле может быть null - тогда фильтр не применяется;
+ * без статуса показываются все товары, кроме удаленных.
+ */
+public record AdminProductFilter(
+        ProductStatus status,
+        Long sellerId,
+        Long categoryId,
+        LocalDate createdFrom, // включительно
+        LocalDate createdTo // включительно
+) {
+}
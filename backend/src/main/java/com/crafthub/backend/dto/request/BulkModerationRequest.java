@@ -0,0 +1,18 @@
+package com.crafthub.backend.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Массовая модерация: id товаров и причина (обязательна для отклонения и снятия с публикации)
+ */
+public record BulkModerationRequest(
+        @NotEmpty(message = "Не выбраны товары")
+        @Size(max = 1000, message = "Не больше 1000 товаров за раз")
+        List<Long> ids,
+
+        String reason
+) {
+}
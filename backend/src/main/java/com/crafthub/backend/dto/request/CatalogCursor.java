@@ -0,0 +1,42 @@
+package com.crafthub.backend.dto.request;
+
+import com.crafthub.backend.model.ProductCard;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Курсор keyset-пагинации: ключ сортировки и id последнего товара на странице.
+ * Наружу отдается как непрозрачная base64url-строка вида "SORT|key|id".
+ */
+public record CatalogCursor(CatalogSort sort, Comparable<?> key, Long id) {
+
+    public static CatalogCursor after(CatalogSort sort, ProductCard last) {
+        return new CatalogCursor(sort, sort.keyOf(last), last.getProductId());
+    }
+
+    public String encode() {
+        String rawKey = key instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(key);
+        String raw = sort.name() + "|" + rawKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор, полученный от клиента.
+     * Курсор от другой сортировки считается невалидным.
+     */
+    public static CatalogCursor decode(String token, CatalogSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            CatalogSort sort = CatalogSort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new IllegalArgumentException();
+            }
+            return new CatalogCursor(sort, sort.parseKey(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+}
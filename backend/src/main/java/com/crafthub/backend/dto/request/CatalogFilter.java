@@ -0,0 +1,15 @@
+package com.crafthub.backend.dto.request;
+
+import java.math.BigDecimal;
+
+/**
+ * Серверные фильтры каталога. Любое поле может быть null - тогда фильтр не применяется.
+ */
+public record CatalogFilter(
+        Long categoryId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Double minRating,
+        Long sellerId
+) {
+}
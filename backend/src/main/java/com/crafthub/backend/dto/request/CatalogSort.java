@@ -0,0 +1,57 @@
+package com.crafthub.backend.dto.request;
+
+import com.crafthub.backend.model.ProductCard;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Варианты сортировки каталога.
+ * Каждая сортировка дополняется id, чтобы порядок был строгим и курсор однозначным.
+ */
+public enum CatalogSort {
+    NEWEST("createdAt", Sort.Direction.DESC),
+    OLDEST("createdAt", Sort.Direction.ASC), // очередь модерации: сначала давно ждущие
+    PRICE_ASC("price", Sort.Direction.ASC),
+    PRICE_DESC("price", Sort.Direction.DESC),
+    RATING("averageRating", Sort.Direction.DESC);
+
+    private final String field;
+    private final Sort.Direction direction;
+
+    CatalogSort(String field, Sort.Direction direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public boolean isDescending() {
+        return direction == Sort.Direction.DESC;
+    }
+
+    public Sort toSort() {
+        return Sort.by(direction, field).and(Sort.by(direction, "productId"));
+    }
+
+    // Значение ключа сортировки у товара (последнего на странице)
+    public Comparable<?> keyOf(ProductCard product) {
+        return switch (this) {
+            case NEWEST, OLDEST -> product.getCreatedAt();
+            case PRICE_ASC, PRICE_DESC -> product.getPrice();
+            case RATING -> product.getAverageRating();
+        };
+    }
+
+    // Обратное преобразование ключа из строки курсора
+    public Comparable<?> parseKey(String raw) {
+        return switch (this) {
+            case NEWEST, OLDEST -> LocalDateTime.parse(raw);
+            case PRICE_ASC, PRICE_DESC -> new BigDecimal(raw);
+            case RATING -> Double.valueOf(raw);
+        };
+    }
+}
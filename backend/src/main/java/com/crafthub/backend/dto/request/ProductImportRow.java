@@ -0,0 +1,21 @@
+package com.crafthub.backend.dto.request;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Строка файла массового импорта товаров (CSV или NDJSON).
+ * Категория задается id, системным именем ("CERAMICS") или отображаемым именем ("Керамика"),
+ * картинки - ссылками http(s); в CSV ссылки разделяются символом '|'.
+ */
+public record ProductImportRow(
+        String name,
+        String description,
+        BigDecimal price,
+        Integer stockQuantity,
+        String category,
+        String youtubeVideoId,
+        List<String> images,
+        Integer mainImageIndex
+) {
+}
@@ -0,0 +1,13 @@
+package com.crafthub.backend.dto.response;
+
+import java.util.List;
+
+/**
+ * Итог массовой модерации: сколько товаров сменили статус и какие id пропущены
+ * (нет такого товара или он уже не в подходящем статусе)
+ */
+public record BulkModerationResponse(
+        int updated,
+        List<Long> skipped
+) {
+}
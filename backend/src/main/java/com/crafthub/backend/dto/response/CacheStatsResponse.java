@@ -0,0 +1,16 @@
+package com.crafthub.backend.dto.response;
+
+/**
+ * Метрики in-memory кеша (для админки)
+ */
+public record CacheStatsResponse(
+        long size,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long loadCount,
+        long loadFailureCount,
+        double averageLoadPenaltyMillis,
+        long evictionCount
+) {
+}
@@ -1,6 +1,7 @@
 package com.crafthub.backend.dto.response;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public record CartResponse(
@@ -12,7 +13,8 @@ public record CartResponse(
             String productName,
             BigDecimal price,
             Integer quantity,
-            String imageUrl
+            String imageUrl,
+            LocalDateTime reservedUntil // до какого времени товар удерживается за покупателем; null - брони нет
     ) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.crafthub.backend.dto.response;
+
+import java.util.List;
+
+/**
+ * Фасетные счетчики каталога для текущего набора фильтров.
+ */
+public record CatalogFacetsResponse(
+        long total,
+        List<FacetValue> categories,
+        List<FacetValue> prices,
+        List<FacetValue> ratings,
+        List<FacetValue> availability
+) {
+    public record FacetValue(
+            String value, // значение для фильтра (id категории, код диапазона)
+            String label, // подпись для пользователя
+            long count
+    ) {
+    }
+}
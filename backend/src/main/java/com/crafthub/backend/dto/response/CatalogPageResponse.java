@@ -0,0 +1,15 @@
+package com.crafthub.backend.dto.response;
+
+import java.util.List;
+
+/**
+ * Страница каталога. nextCursor передается в следующий запрос, null - страниц больше нет.
+ * Фасеты считаются только для первой страницы - при листании фильтры не меняются.
+ */
+public record CatalogPageResponse(
+        List<ProductResponse> items,
+        String nextCursor,
+        boolean hasMore,
+        CatalogFacetsResponse facets
+) {
+}
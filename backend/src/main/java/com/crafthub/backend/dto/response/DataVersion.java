@@ -0,0 +1,51 @@
+package com.crafthub.backend.dto.response;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Версия данных ресурса для условных GET-запросов.
+ * Из нее строятся ETag и Last-Modified, поэтому 304 отдается без загрузки и сериализации самих данных.
+ *
+ * @param tag          строка, которая меняется при любом изменении данных ресурса
+ * @param lastModified время последнего изменения (null, если неизвестно)
+ */
+public record DataVersion(String tag, LocalDateTime lastModified) {
+
+    // Одна строка: время последнего изменения и версия
+    public DataVersion(Long count, LocalDateTime lastModified, Long version) {
+        this(count + "." + toMillis(lastModified) + "." + version, lastModified);
+    }
+
+    // Агрегат по набору строк. Одни количество и сумма версий совпадают, если одна строка ушла из набора,
+    // а другая с той же версией пришла; время последнего изменения и сумма id при этом меняются
+    public DataVersion(Long count, LocalDateTime lastModified, Long version, Long idSum) {
+        this(count + "." + toMillis(lastModified) + "." + version + "." + idSum, lastModified);
+    }
+
+    // Для справочников без отметок времени
+    public DataVersion(Long count, Long version) {
+        this(count + "." + version, null);
+    }
+
+    public String etag(String scope) {
+        return scope + "-" + tag;
+    }
+
+    public long lastModifiedMillis() {
+        return toMillis(lastModified);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+
+    // Версия составного ресурса: меняется, если изменилась любая из частей
+    public DataVersion combine(DataVersion other) {
+        LocalDateTime latest = lastModified;
+        if (other.lastModified != null && (latest == null || other.lastModified.isAfter(latest))) {
+            latest = other.lastModified;
+        }
+        return new DataVersion(tag + "." + other.tag, latest);
+    }
+}
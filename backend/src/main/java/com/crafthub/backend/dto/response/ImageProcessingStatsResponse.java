@@ -0,0 +1,17 @@
+package com.crafthub.backend.dto.response;
+
+/**
+ * Метрики пула проверки загружаемых картинок (для админки)
+ */
+public record ImageProcessingStatsResponse(
+        int queueDepth,
+        int queueCapacity,
+        int activeWorkers,
+        long succeededCount, // запросы, все картинки которых прошли проверку
+        long failedCount, // запросы, отклоненные из-за картинки (формат, размер, повреждение)
+        long rejectedCount,
+        long timedOutCount,
+        double averageProcessingMillis,
+        double maxProcessingMillis
+) {
+}
@@ -0,0 +1,18 @@
+package com.crafthub.backend.dto.response;
+
+import java.util.List;
+
+/**
+ * Итог массового импорта товаров: сколько строк прочитано, сколько товаров создано
+ * и ошибки по строкам (номер строки файла и причина)
+ */
+public record ImportReport(
+        int totalRows,
+        int imported,
+        int failed,
+        List<RowError> errors
+) {
+
+    public record RowError(long line, String message) {
+    }
+}
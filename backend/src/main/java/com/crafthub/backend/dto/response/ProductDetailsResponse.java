@@ -0,0 +1,17 @@
+package com.crafthub.backend.dto.response;
+
+import com.crafthub.backend.dto.stats.PricePoint;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+/**
+ * Страница товара: поля карточки плюс необязательные расширения (?expand=...).
+ * Незапрошенные расширения в ответ не попадают, так что без expand ответ совпадает с ProductResponse.
+ */
+public record ProductDetailsResponse(
+        @JsonUnwrapped ProductResponse product,
+        @JsonInclude(JsonInclude.Include.NON_NULL) List<PricePoint> priceHistory
+) {
+}
@@ -0,0 +1,22 @@
+package com.crafthub.backend.dto.response;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Страница таблицы товаров с общим количеством (номер страницы начинается с 0)
+ */
+public record ProductPageResponse(
+        List<ProductResponse> items,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages
+) {
+
+    public static ProductPageResponse of(Page<ProductResponse> page) {
+        return new ProductPageResponse(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
+    }
+}
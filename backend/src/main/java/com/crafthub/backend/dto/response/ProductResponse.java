@@ -11,7 +11,8 @@ public record ProductResponse(
         String name,
         String description,
         BigDecimal price,
-        Integer stockQuantity,
+        Integer stockQuantity, // свободный остаток
+        Integer reservedQuantity, // удержано в корзинах покупателей
         String youtubeVideoId,
         String status,
         String categoryDisplayName,
@@ -0,0 +1,14 @@
+package com.crafthub.backend.dto.response;
+
+import com.crafthub.backend.model.ProductStatus;
+
+import java.util.Map;
+
+/**
+ * Страница "Мои товары" и счетчики для вкладок по статусам (все статусы, кроме удаленных, включая нулевые)
+ */
+public record SellerInventoryResponse(
+        ProductPageResponse page,
+        Map<ProductStatus, Long> statusCounts
+) {
+}
@@ -0,0 +1,11 @@
+package com.crafthub.backend.dto.response;
+
+/**
+ * Подсказка поисковой строки: товар, категория или мастер
+ */
+public record SuggestionResponse(
+        String type,
+        Long id,
+        String text
+) {
+}
@@ -0,0 +1,10 @@
+package com.crafthub.backend.dto.stats;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Изменение цены (строка истории без лишних колонок)
+ */
+public record PriceChange(LocalDateTime changedAt, BigDecimal price) {
+}
@@ -0,0 +1,10 @@
+package com.crafthub.backend.dto.stats;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Точка дневного графика цены: минимум, максимум и последняя цена за день
+ */
+public record PricePoint(LocalDate date, BigDecimal min, BigDecimal max, BigDecimal last) {
+}
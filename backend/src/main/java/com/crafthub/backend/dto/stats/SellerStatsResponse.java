@@ -11,6 +11,8 @@ public record SellerStatsResponse(
         long totalSales, // кол-во продаж
         Double averageRating, // рейтинг мастера
         List<ChartPoint> salesHistory, // данные для графика
-        List<TopProductStats> topProducts // самые популярные товары
+        List<TopProductStats> topProducts, // самые популярные товары
+        long totalViews, // просмотры страниц товаров
+        double conversionRate // продажи на 100 просмотров, %
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.crafthub.backend.dto.stats;
+
+import com.crafthub.backend.model.ProductStatus;
+
+/**
+ * Количество товаров в статусе (строка сгруппированного запроса).
+ */
+public record StatusCount(ProductStatus status, long count) {
+}
@@ -0,0 +1,9 @@
+package com.crafthub.backend.event;
+
+import java.util.List;
+
+/**
+ * Сохранены новые картинки товаров (относительные пути в хранилище).
+ */
+public record ImagesStoredEvent(List<String> paths) {
+}
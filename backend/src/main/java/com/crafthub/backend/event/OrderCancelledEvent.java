@@ -0,0 +1,13 @@
+package com.crafthub.backend.event;
+
+import java.util.List;
+
+/**
+ * Заказ отменен, товары вернулись на склад.
+ */
+public record OrderCancelledEvent(Long orderId, List<OrderPlacedEvent.Item> items) {
+
+    public long[] productIds() {
+        return items.stream().mapToLong(OrderPlacedEvent.Item::productId).toArray();
+    }
+}
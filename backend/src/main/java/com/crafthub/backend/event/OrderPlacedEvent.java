@@ -0,0 +1,16 @@
+package com.crafthub.backend.event;
+
+import java.util.List;
+
+/**
+ * Оформлен заказ (при оформлении корзина разбивается на заказы по продавцам - событие на каждый).
+ */
+public record OrderPlacedEvent(Long orderId, Long buyerId, List<Item> items) {
+
+    public record Item(Long productId, int quantity) {
+    }
+
+    public long[] productIds() {
+        return items.stream().mapToLong(Item::productId).toArray();
+    }
+}
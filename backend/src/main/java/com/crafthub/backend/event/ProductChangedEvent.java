@@ -0,0 +1,10 @@
+package com.crafthub.backend.event;
+
+import com.crafthub.backend.index.ProductSnapshot;
+
+/**
+ * Событие изменения товара (создание, редактирование, модерация, удаление).
+ * Публикуется внутри транзакции, слушатели обрабатывают его после коммита.
+ */
+public record ProductChangedEvent(ProductSnapshot product) {
+}
@@ -0,0 +1,7 @@
+package com.crafthub.backend.event;
+
+/**
+ * Просмотр страницы товара.
+ */
+public record ProductViewedEvent(Long productId) {
+}
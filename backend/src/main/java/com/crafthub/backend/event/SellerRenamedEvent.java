@@ -0,0 +1,7 @@
+package com.crafthub.backend.event;
+
+/**
+ * Продавец сменил имя - оно продублировано во всех карточках его товаров.
+ */
+public record SellerRenamedEvent(Long sellerId) {
+}
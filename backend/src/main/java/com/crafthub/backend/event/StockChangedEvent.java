@@ -0,0 +1,8 @@
+package com.crafthub.backend.event;
+
+/**
+ * Изменился свободный остаток товара (бронь в корзине, оформление или отмена заказа).
+ * stockQuantity - остаток за вычетом броней.
+ */
+public record StockChangedEvent(Long productId, int stockQuantity) {
+}
@@ -1,5 +1,6 @@
 package com.crafthub.backend.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -51,6 +52,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Обрабатывает некорректные параметры запроса (например, испорченный курсор страницы).
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Перегрузка при загрузке файлов: 429 или 503 с заголовком Retry-After.
+     */
+    @ExceptionHandler(UploadRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleUploadRejectedException(UploadRejectedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     /**
      * Обрабатывает ошибку неверного логина или пароля.
      * Возвращает статус 401 (Unauthorized) и понятное сообщение.
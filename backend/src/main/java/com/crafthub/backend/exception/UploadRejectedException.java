@@ -0,0 +1,21 @@
+package com.crafthub.backend.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Загрузка не принята из-за перегрузки: очередь обработки полна (429) или обработка не уложилась
+ * во время ожидания (503). Клиент может повторить запрос через retryAfterSeconds.
+ */
+@Getter
+public class UploadRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public UploadRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
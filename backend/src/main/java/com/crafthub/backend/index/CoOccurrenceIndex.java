@@ -0,0 +1,165 @@
+package com.crafthub.backend.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Разреженная матрица совместных покупок: для каждого товара - сколько заказов содержали его вместе с другим.
+ * Строка матрицы хранится в примитивной хеш-таблице, а top-N соседей пересчитывается при изменении строки,
+ * поэтому чтение рекомендаций - это просто выдача готового массива.
+ */
+public class CoOccurrenceIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private static final class Row {
+        final Long2IntOpenHashMap counts = new Long2IntOpenHashMap();
+        long[] top = EMPTY;
+    }
+
+    private final int topSize;
+    private final Map<Long, Row> rows = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public CoOccurrenceIndex(int topSize) {
+        this.topSize = topSize;
+    }
+
+    // Заказ с этими товарами оформлен
+    public void addBasket(long[] productIds) {
+        apply(productIds, 1);
+    }
+
+    // Заказ с этими товарами отменен
+    public void removeBasket(long[] productIds) {
+        apply(productIds, -1);
+    }
+
+    /**
+     * Добавляет пачку заказов без пересчета top-N после каждого (загрузка при старте).
+     * После загрузки нужно вызвать {@link #recomputeAll()}.
+     */
+    public void addBasketDeferred(long[] productIds) {
+        lock.writeLock().lock();
+        try {
+            forEachPair(distinct(productIds), (a, b) -> {
+                row(a).counts.addTo(b, 1);
+                row(b).counts.addTo(a, 1);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void recomputeAll() {
+        lock.writeLock().lock();
+        try {
+            rows.values().forEach(this::recomputeTop);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            rows.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Готовый top-N товаров, которые чаще всего покупали вместе с productId
+    public long[] related(long productId) {
+        lock.readLock().lock();
+        try {
+            Row row = rows.get(productId);
+            return row != null ? row.top : EMPTY;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Сколько заказов содержали оба товара
+    public int count(long productId, long otherId) {
+        lock.readLock().lock();
+        try {
+            Row row = rows.get(productId);
+            return row != null ? row.counts.get(otherId) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(long[] productIds, int delta) {
+        long[] ids = distinct(productIds);
+        if (ids.length < 2) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            forEachPair(ids, (a, b) -> {
+                // Отмена заказа, которого индекс не видел, не должна уводить счетчики в минус
+                if (delta < 0 && count(a, b) <= 0) {
+                    return;
+                }
+                row(a).counts.addTo(b, delta);
+                row(b).counts.addTo(a, delta);
+            });
+            for (long id : ids) {
+                Row row = rows.get(id);
+                if (row == null) {
+                    continue;
+                }
+                if (row.counts.isEmpty()) {
+                    rows.remove(id);
+                } else {
+                    recomputeTop(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Row row(long productId) {
+        return rows.computeIfAbsent(productId, id -> new Row());
+    }
+
+    // Top-N по убыванию числа совместных заказов, при равенстве - меньший id (стабильный порядок)
+    private void recomputeTop(Row row) {
+        PriorityQueue<long[]> heap = new PriorityQueue<>(topSize + 1, (x, y) ->
+                x[1] != y[1] ? Long.compare(x[1], y[1]) : Long.compare(y[0], x[0]));
+        row.counts.forEach((other, count) -> {
+            heap.add(new long[]{other, count});
+            if (heap.size() > topSize) {
+                heap.poll();
+            }
+        });
+        long[] top = new long[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = heap.poll()[0];
+        }
+        row.top = top;
+    }
+
+    private interface PairConsumer {
+        void accept(long a, long b);
+    }
+
+    private static void forEachPair(long[] ids, PairConsumer consumer) {
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = i + 1; j < ids.length; j++) {
+                consumer.accept(ids[i], ids[j]);
+            }
+        }
+    }
+
+    // Один товар может встречаться в заказе несколькими строками
+    private static long[] distinct(long[] productIds) {
+        return Arrays.stream(productIds).distinct().toArray();
+    }
+}
@@ -0,0 +1,119 @@
+package com.crafthub.backend.index;
+
+/**
+ * Облегченный английский стеммер (первые шаги алгоритма Портера).
+ * Снимает множественное число, -ed/-ing и частые словообразовательные суффиксы -
+ * этого достаточно для названий товаров, где английский встречается эпизодически.
+ */
+final class EnglishStemmer {
+
+    private static final String[][] SUFFIXES = {
+            {"ational", "ate"}, {"fulness", "ful"}, {"iveness", "ive"}, {"ousness", "ous"},
+            {"ization", "ize"}, {"ation", "ate"}, {"ness", ""}, {"ment", ""}, {"ful", ""}, {"ly", ""}
+    };
+
+    private EnglishStemmer() {
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+        String w = word;
+
+        // Шаг 1a: множественное число
+        if (w.endsWith("sses")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("ies")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us")) {
+            w = w.substring(0, w.length() - 1);
+        }
+
+        // Шаг 1b: -eed / -ed / -ing, если в основе остается гласная
+        if (w.endsWith("eed")) {
+            if (measure(w.substring(0, w.length() - 3)) > 0) {
+                w = w.substring(0, w.length() - 1);
+            }
+        } else if (w.endsWith("ed") && hasVowel(w.substring(0, w.length() - 2))) {
+            w = restoreEnding(w.substring(0, w.length() - 2));
+        } else if (w.endsWith("ing") && hasVowel(w.substring(0, w.length() - 3))) {
+            w = restoreEnding(w.substring(0, w.length() - 3));
+        }
+
+        // Шаг 1c: конечная y -> i
+        if (w.endsWith("y") && hasVowel(w.substring(0, w.length() - 1))) {
+            w = w.substring(0, w.length() - 1) + "i";
+        }
+
+        // Шаги 2-3 в упрощенном виде
+        for (String[] rule : SUFFIXES) {
+            if (w.endsWith(rule[0])) {
+                String base = w.substring(0, w.length() - rule[0].length());
+                if (measure(base) > 0) {
+                    w = base + rule[1];
+                }
+                break;
+            }
+        }
+
+        // Шаг 5a: конечная e
+        if (w.endsWith("e") && measure(w.substring(0, w.length() - 1)) > 1) {
+            w = w.substring(0, w.length() - 1);
+        }
+        return w;
+    }
+
+    // carv(ing) -> carve, hopp(ing) -> hop
+    private static String restoreEnding(String w) {
+        if (w.endsWith("at") || w.endsWith("bl") || w.endsWith("iz")) {
+            return w + "e";
+        }
+        int n = w.length();
+        if (n >= 2 && w.charAt(n - 1) == w.charAt(n - 2) && !isVowel(w, n - 1)
+                && "lsz".indexOf(w.charAt(n - 1)) < 0) {
+            return w.substring(0, n - 1);
+        }
+        if (measure(w) == 1 && endsCvc(w)) {
+            return w + "e";
+        }
+        return w;
+    }
+
+    private static boolean hasVowel(String w) {
+        for (int i = 0; i < w.length(); i++) {
+            if (isVowel(w, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Количество последовательностей "гласные-согласные" (m в терминах Портера)
+    private static int measure(String w) {
+        int m = 0;
+        boolean previousVowel = false;
+        for (int i = 0; i < w.length(); i++) {
+            boolean vowel = isVowel(w, i);
+            if (!vowel && previousVowel) {
+                m++;
+            }
+            previousVowel = vowel;
+        }
+        return m;
+    }
+
+    private static boolean endsCvc(String w) {
+        int n = w.length();
+        return n >= 3 && !isVowel(w, n - 3) && isVowel(w, n - 2) && !isVowel(w, n - 1)
+                && "wxy".indexOf(w.charAt(n - 1)) < 0;
+    }
+
+    private static boolean isVowel(String w, int i) {
+        char c = w.charAt(i);
+        if ("aeiou".indexOf(c) >= 0) {
+            return true;
+        }
+        return c == 'y' && i > 0 && !isVowel(w, i - 1);
+    }
+}
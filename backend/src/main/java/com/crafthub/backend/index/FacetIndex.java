@@ -0,0 +1,307 @@
+package com.crafthub.backend.index;
+
+import com.crafthub.backend.dto.request.CatalogFilter;
+import com.crafthub.backend.dto.response.CatalogFacetsResponse;
+import com.crafthub.backend.dto.response.CatalogFacetsResponse.FacetValue;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Битмап-индекс активных товаров для фасетных счетчиков каталога.
+ * На каждое значение фасета (категория, мастер, ценовой диапазон, рейтинг, наличие)
+ * хранится сжатый Roaring-битмап id товаров, поэтому счетчики считаются пересечениями
+ * битмапов за микросекунды вместо нескольких GROUP BY по таблице products.
+ */
+public class FacetIndex {
+
+    /**
+     * Ценовые диапазоны фасета: [from, to).
+     */
+    public enum PriceBucket {
+        UP_TO_50(null, "50", "до 50"),
+        FROM_50_TO_100("50", "100", "50 - 100"),
+        FROM_100_TO_200("100", "200", "100 - 200"),
+        FROM_200_TO_500("200", "500", "200 - 500"),
+        FROM_500("500", null, "от 500");
+
+        private final BigDecimal from;
+        private final BigDecimal to;
+        private final String label;
+
+        PriceBucket(String from, String to, String label) {
+            this.from = from != null ? new BigDecimal(from) : null;
+            this.to = to != null ? new BigDecimal(to) : null;
+            this.label = label;
+        }
+
+        static PriceBucket of(BigDecimal price) {
+            for (PriceBucket bucket : values()) {
+                if (bucket.to == null || price.compareTo(bucket.to) < 0) {
+                    return bucket;
+                }
+            }
+            return FROM_500;
+        }
+
+        // Диапазон целиком внутри [min, max]
+        boolean within(BigDecimal min, BigDecimal max) {
+            boolean lower = min == null || (from != null && from.compareTo(min) >= 0);
+            boolean upper = max == null || (to != null && to.compareTo(max) <= 0);
+            return lower && upper;
+        }
+
+        // Диапазон не пересекается с [min, max]
+        boolean disjoint(BigDecimal min, BigDecimal max) {
+            return (max != null && from != null && from.compareTo(max) > 0)
+                    || (min != null && to != null && to.compareTo(min) <= 0);
+        }
+    }
+
+    // Пороговые значения фасета рейтинга ("от 4 звезд" и т.д.)
+    private static final int[] RATING_THRESHOLDS = {4, 3, 2, 1};
+    private static final int MAX_RATING = 5;
+
+    private record Entry(long categoryId, long sellerId, BigDecimal price, PriceBucket priceBucket,
+                         double rating, int ratingFloor, boolean inStock) {
+    }
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> categories = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<Long, RoaringBitmap> sellers = new HashMap<>();
+    private final RoaringBitmap[] prices = newBitmaps(PriceBucket.values().length);
+    private final RoaringBitmap[] ratings = newBitmaps(MAX_RATING + 1); // по целой части рейтинга
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавляет активный товар или обновляет его фасеты.
+     */
+    public void put(ProductSnapshot product) {
+        int id = Math.toIntExact(product.id());
+        double rating = product.averageRating() != null ? product.averageRating() : 0.0;
+        Entry entry = new Entry(
+                product.categoryId(),
+                product.sellerId(),
+                product.price(),
+                PriceBucket.of(product.price()),
+                rating,
+                Math.clamp((int) Math.floor(rating), 0, MAX_RATING),
+                product.stockQuantity() != null && product.stockQuantity() > 0);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            entries.put(id, entry);
+            all.add(id);
+            categories.computeIfAbsent(entry.categoryId(), k -> new RoaringBitmap()).add(id);
+            if (product.categoryName() != null) {
+                categoryNames.put(entry.categoryId(), product.categoryName());
+            }
+            sellers.computeIfAbsent(entry.sellerId(), k -> new RoaringBitmap()).add(id);
+            prices[entry.priceBucket().ordinal()].add(id);
+            ratings[entry.ratingFloor()].add(id);
+            if (entry.inStock()) {
+                inStock.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(productId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Меняется только наличие - остальные битмапы не трогаем.
+     */
+    public void updateStock(long productId, int stockQuantity) {
+        int id = Math.toIntExact(productId);
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return;
+            }
+            boolean available = stockQuantity > 0;
+            entries.put(id, new Entry(entry.categoryId(), entry.sellerId(), entry.price(), entry.priceBucket(),
+                    entry.rating(), entry.ratingFloor(), available));
+            if (available) {
+                inStock.add(id);
+            } else {
+                inStock.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            categories.clear();
+            categoryNames.clear();
+            sellers.clear();
+            for (RoaringBitmap bitmap : prices) {
+                bitmap.clear();
+            }
+            for (RoaringBitmap bitmap : ratings) {
+                bitmap.clear();
+            }
+            inStock.clear();
+            entries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Считает фасеты для выборки каталога.
+     * Счетчики каждого фасета учитывают все фильтры, кроме его собственного, -
+     * так пользователь видит, сколько товаров получит, переключив значение.
+     */
+    public CatalogFacetsResponse facets(CatalogFilter filter) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap byCategory = filter.categoryId() != null ? bitmapOrEmpty(categories, filter.categoryId()) : null;
+            RoaringBitmap bySeller = filter.sellerId() != null ? bitmapOrEmpty(sellers, filter.sellerId()) : null;
+            RoaringBitmap byPrice = priceFilter(filter.minPrice(), filter.maxPrice());
+            RoaringBitmap byRating = filter.minRating() != null ? ratingFilter(filter.minRating()) : null;
+
+            RoaringBitmap matching = intersect(byCategory, bySeller, byPrice, byRating);
+
+            List<FacetValue> categoryFacet = new ArrayList<>();
+            RoaringBitmap exceptCategory = intersect(bySeller, byPrice, byRating);
+            categories.forEach((categoryId, bitmap) -> {
+                long count = RoaringBitmap.andCardinality(exceptCategory, bitmap);
+                if (count > 0) {
+                    categoryFacet.add(new FacetValue(String.valueOf(categoryId), categoryNames.get(categoryId), count));
+                }
+            });
+
+            List<FacetValue> priceFacet = new ArrayList<>();
+            RoaringBitmap exceptPrice = intersect(byCategory, bySeller, byRating);
+            for (PriceBucket bucket : PriceBucket.values()) {
+                priceFacet.add(new FacetValue(bucket.name(), bucket.label,
+                        RoaringBitmap.andCardinality(exceptPrice, prices[bucket.ordinal()])));
+            }
+
+            List<FacetValue> ratingFacet = new ArrayList<>();
+            RoaringBitmap exceptRating = intersect(byCategory, bySeller, byPrice);
+            for (int threshold : RATING_THRESHOLDS) {
+                ratingFacet.add(new FacetValue(String.valueOf(threshold), "от " + threshold,
+                        RoaringBitmap.andCardinality(exceptRating, ratingFilter(threshold))));
+            }
+
+            long total = matching.getLongCardinality();
+            long available = RoaringBitmap.andCardinality(matching, inStock);
+            List<FacetValue> availabilityFacet = List.of(
+                    new FacetValue("IN_STOCK", "В наличии", available),
+                    new FacetValue("OUT_OF_STOCK", "Нет в наличии", total - available));
+
+            return new CatalogFacetsResponse(total, categoryFacet, priceFacet, ratingFacet, availabilityFacet);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Полностью покрытые диапазоны объединяются целиком, у граничных проверяется точная цена
+    private RoaringBitmap priceFilter(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        for (PriceBucket bucket : PriceBucket.values()) {
+            RoaringBitmap bitmap = prices[bucket.ordinal()];
+            if (bucket.within(min, max)) {
+                result.or(bitmap);
+            } else if (!bucket.disjoint(min, max)) {
+                bitmap.forEach((int id) -> {
+                    BigDecimal price = entries.get(id).price();
+                    if ((min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0)) {
+                        result.add(id);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    private RoaringBitmap ratingFilter(double minRating) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (int floor = 0; floor <= MAX_RATING; floor++) {
+            if (floor >= minRating) {
+                result.or(ratings[floor]);
+            } else if (floor + 1 > minRating) {
+                ratings[floor].forEach((int id) -> {
+                    if (entries.get(id).rating() >= minRating) {
+                        result.add(id);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    // Пересечение заданных фильтров; null означает "фильтр не задан"
+    private RoaringBitmap intersect(RoaringBitmap... filters) {
+        RoaringBitmap result = all.clone();
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static RoaringBitmap bitmapOrEmpty(Map<Long, RoaringBitmap> bitmaps, Long key) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    private void removeInternal(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        all.remove(id);
+        removeFrom(categories, entry.categoryId(), id);
+        removeFrom(sellers, entry.sellerId(), id);
+        prices[entry.priceBucket().ordinal()].remove(id);
+        ratings[entry.ratingFloor()].remove(id);
+        inStock.remove(id);
+    }
+
+    private static void removeFrom(Map<Long, RoaringBitmap> bitmaps, long key, int id) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static RoaringBitmap[] newBitmaps(int size) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[size];
+        for (int i = 0; i < size; i++) {
+            bitmaps[i] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+}
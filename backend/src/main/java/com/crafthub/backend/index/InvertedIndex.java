@@ -0,0 +1,194 @@
+package com.crafthub.backend.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс товаров с ранжированием BM25.
+ * Поля взвешиваются по-разному (название важнее описания), последнее слово запроса
+ * дополнительно ищется как префикс - пользователь обычно еще допечатывает его.
+ * Потокобезопасен: чтения идут параллельно, изменения под эксклюзивной блокировкой.
+ */
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_WEIGHT = 0.8f;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+
+    // терм -> (id товара -> взвешенная частота терма)
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    // исходное слово -> в скольких товарах встречается (словарь для префиксного поиска)
+    private final NavigableMap<String, Integer> words = new TreeMap<>();
+    private double totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record IndexedDocument(float length, Map<String, Float> terms, Set<String> words) {
+    }
+
+    /**
+     * Добавляет товар или заменяет его предыдущую версию.
+     */
+    public void put(long id, String name, String categoryName, String description) {
+        Map<String, Float> terms = new HashMap<>();
+        Set<String> docWords = new HashSet<>();
+        float length = collect(name, NAME_WEIGHT, terms, docWords)
+                + collect(categoryName, CATEGORY_WEIGHT, terms, docWords)
+                + collect(description, DESCRIPTION_WEIGHT, terms, docWords);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            IndexedDocument document = new IndexedDocument(length, terms, docWords);
+            documents.put(id, document);
+            totalLength += length;
+            terms.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, tf));
+            docWords.forEach(word -> words.merge(word, 1, Integer::sum));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            words.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет товары по запросу и возвращает их id по убыванию релевантности.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            double avgLength = totalLength / documents.size();
+            Map<Long, Float> scores = new HashMap<>();
+
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean last = i == tokens.size() - 1;
+                Map<String, Float> group = last ? expandPrefix(tokens.get(i)) : Map.of(TextAnalyzer.stem(tokens.get(i)), 1f);
+
+                // Внутри одного слова запроса берем лучшее совпадение, чтобы префикс не накручивал счет
+                Map<Long, Float> best = new HashMap<>();
+                group.forEach((term, queryWeight) -> {
+                    Map<Long, Float> docs = postings.get(term);
+                    if (docs == null) {
+                        return;
+                    }
+                    double idf = Math.log(1 + (documents.size() - docs.size() + 0.5) / (docs.size() + 0.5));
+                    docs.forEach((docId, tf) -> {
+                        float length = documents.get(docId).length();
+                        double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+                        best.merge(docId, (float) (queryWeight * idf * norm), Math::max);
+                    });
+                });
+                best.forEach((docId, score) -> scores.merge(docId, score, Float::sum));
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Последнее слово: точная основа + основы слов словаря, начинающихся с него
+    private Map<String, Float> expandPrefix(String token) {
+        Map<String, Float> group = new LinkedHashMap<>();
+        group.put(TextAnalyzer.stem(token), 1f);
+        int expansions = 0;
+        for (String word : words.subMap(token, true, token + Character.MAX_VALUE, false).keySet()) {
+            if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            group.putIfAbsent(TextAnalyzer.stem(word), PREFIX_WEIGHT);
+        }
+        return group;
+    }
+
+    private static List<Long> topK(Map<Long, Float> scores, int limit) {
+        PriorityQueue<Map.Entry<Long, Float>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Long> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().getKey());
+        }
+        return result.reversed();
+    }
+
+    private static float collect(String text, float weight, Map<String, Float> terms, Set<String> docWords) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        for (String token : tokens) {
+            docWords.add(token);
+            terms.merge(TextAnalyzer.stem(token), weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private void removeInternal(long id) {
+        IndexedDocument previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length();
+        previous.terms().keySet().forEach(term -> {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        });
+        previous.words().forEach(word -> words.computeIfPresent(word, (w, count) -> count > 1 ? count - 1 : null));
+    }
+}
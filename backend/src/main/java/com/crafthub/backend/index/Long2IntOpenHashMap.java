@@ -0,0 +1,162 @@
+package com.crafthub.backend.index;
+
+/**
+ * Хеш-таблица long -> int с открытой адресацией (линейное пробирование) на примитивных массивах.
+ * Без упаковки ключей и значений и без объекта на каждую запись: около 12 байт на элемент
+ * вместо ~80 у HashMap&lt;Long, Integer&gt;. Ключ 0 зарезервирован под пустую ячейку (id товаров > 0).
+ * Не потокобезопасна - синхронизацию обеспечивает владелец.
+ */
+public final class Long2IntOpenHashMap {
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    public Long2IntOpenHashMap() {
+        this(4);
+    }
+
+    public Long2IntOpenHashMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(2, expectedSize) / LOAD_FACTOR)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Значение по ключу или 0, если ключа нет
+    public int get(long key) {
+        checkKey(key);
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Прибавляет delta к значению ключа (отсутствующий ключ считается равным 0).
+     * Если значение стало 0, ключ удаляется. Возвращает новое значение.
+     */
+    public int addTo(long key, int delta) {
+        checkKey(key);
+        int i = slot(key);
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int value = values[i] + delta;
+                if (value == 0) {
+                    removeAt(i);
+                } else {
+                    values[i] = value;
+                }
+                return value;
+            }
+        }
+        if (delta == 0) {
+            return 0;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        if (++size > threshold) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    public void remove(long key) {
+        checkKey(key);
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                removeAt(i);
+                return;
+            }
+        }
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    // Удаление без "надгробий": сдвигаем назад элементы цепочки, которые могут занять освободившуюся ячейку
+    private void removeAt(int pos) {
+        size--;
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            long current;
+            while (true) {
+                current = keys[pos];
+                if (current == 0) {
+                    keys[last] = 0;
+                    values[last] = 0;
+                    return;
+                }
+                int ideal = slot(current);
+                // Элемент можно перенести в last, если его идеальная ячейка не лежит циклически в (last, pos]
+                if (last <= pos ? (last >= ideal || ideal > pos) : (last >= ideal && ideal > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = slot(oldKeys[i]);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // Перемешивание битов: id идут подряд, без него линейное пробирование собирало бы длинные цепочки
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Math.max(4, Integer.highestOneBit(capacity - 1) << 1);
+    }
+
+    private static void checkKey(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Ключ 0 зарезервирован");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.crafthub.backend.index;
+
+import com.crafthub.backend.model.Product;
+import com.crafthub.backend.model.ProductStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Плоский снимок товара для in-memory индексов.
+ * Не держит ссылок на JPA-сущности, поэтому безопасно передается после коммита транзакции.
+ */
+public record ProductSnapshot(
+        Long id,
+        String name,
+        String description,
+        Long categoryId,
+        String categoryName,
+        Long sellerId,
+        String sellerName,
+        BigDecimal price,
+        Double averageRating,
+        Integer stockQuantity,
+        ProductStatus status
+) {
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getCategory() != null ? product.getCategory().getDisplayName() : null,
+                product.getSeller() != null ? product.getSeller().getId() : null,
+                product.getSeller() != null ? product.getSeller().getFullName() : null,
+                product.getPrice(),
+                product.getAverageRating(),
+                product.getAvailableQuantity(),
+                product.getStatus()
+        );
+    }
+
+    // Тот же товар после смены статуса (массовая модерация меняет статус без загрузки сущностей)
+    public ProductSnapshot withStatus(ProductStatus newStatus) {
+        return new ProductSnapshot(id, name, description, categoryId, categoryName, sellerId, sellerName,
+                price, averageRating, stockQuantity, newStatus);
+    }
+
+    // Попадает ли товар в публичный каталог
+    public boolean isActive() {
+        return status == ProductStatus.ACTIVE;
+    }
+}
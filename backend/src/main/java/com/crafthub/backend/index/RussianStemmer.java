@@ -0,0 +1,169 @@
+package com.crafthub.backend.index;
+
+/**
+ * Стеммер русского языка по алгоритму Snowball (Портер).
+ * Отрезает окончания в пределах области RV, чтобы "кружка", "кружки" и "кружкой" давали одну основу.
+ * Ожидает слово в нижнем регистре с уже замененной "ё" на "е".
+ */
+final class RussianStemmer {
+
+    private static final String VOWELS = "аеиоуыэюя";
+
+    private static final String[] PERFECTIVE_GERUND_1 = {"вшись", "вши", "в"};
+    private static final String[] PERFECTIVE_GERUND_2 = {"ившись", "ывшись", "ивши", "ывши", "ив", "ыв"};
+    private static final String[] ADJECTIVE = {
+            "ими", "ыми", "его", "ого", "ему", "ому",
+            "ее", "ие", "ые", "ое", "ей", "ий", "ый", "ой", "ем", "им", "ым", "ом",
+            "их", "ых", "ую", "юю", "ая", "яя", "ою", "ею"};
+    private static final String[] PARTICIPLE_1 = {"ем", "нн", "вш", "ющ", "щ"};
+    private static final String[] PARTICIPLE_2 = {"ивш", "ывш", "ующ"};
+    private static final String[] REFLEXIVE = {"ся", "сь"};
+    private static final String[] VERB_1 = {
+            "ете", "йте", "ешь", "нно", "ла", "на", "ли", "ем", "ло", "но", "ет", "ют", "ны", "ть", "й", "л", "н"};
+    private static final String[] VERB_2 = {
+            "ейте", "уйте", "ила", "ыла", "ена", "ите", "или", "ыли", "ило", "ыло", "ено", "ует", "уют",
+            "ены", "ить", "ыть", "ишь", "ей", "уй", "ил", "ыл", "им", "ым", "ен", "ят", "ит", "ыт", "ую", "ю"};
+    private static final String[] NOUN = {
+            "иями", "ями", "ами", "ией", "иям", "ием", "иях",
+            "ев", "ов", "ие", "ье", "еи", "ии", "ей", "ой", "ий", "ям", "ем", "ам", "ом", "ах", "ях",
+            "ию", "ью", "ия", "ья",
+            "а", "е", "и", "й", "о", "у", "ы", "ь", "ю", "я"};
+    private static final String[] DERIVATIONAL = {"ость", "ост"};
+    private static final String[] SUPERLATIVE = {"ейше", "ейш"};
+
+    private RussianStemmer() {
+    }
+
+    static String stem(String word) {
+        int rv = regionRv(word);
+        if (rv >= word.length()) {
+            return word;
+        }
+        String prefix = word.substring(0, rv);
+        String region = word.substring(rv);
+
+        // Шаг 1: деепричастие, иначе возвратная частица + прилагательное / глагол / существительное
+        String cut = removeGrouped(region, PERFECTIVE_GERUND_1, PERFECTIVE_GERUND_2);
+        if (cut != null) {
+            region = cut;
+        } else {
+            String withoutReflexive = removeSuffix(region, REFLEXIVE);
+            if (withoutReflexive != null) {
+                region = withoutReflexive;
+            }
+            cut = removeAdjectival(region);
+            if (cut == null) {
+                cut = removeGrouped(region, VERB_1, VERB_2);
+            }
+            if (cut == null) {
+                cut = removeSuffix(region, NOUN);
+            }
+            if (cut != null) {
+                region = cut;
+            }
+        }
+
+        // Шаг 2: конечная "и"
+        if (region.endsWith("и")) {
+            region = region.substring(0, region.length() - 1);
+        }
+
+        // Шаг 3: словообразовательный суффикс в области R2
+        int r2 = regionR2(word) - rv;
+        for (String suffix : DERIVATIONAL) {
+            if (region.endsWith(suffix) && region.length() - suffix.length() >= r2) {
+                region = region.substring(0, region.length() - suffix.length());
+                break;
+            }
+        }
+
+        // Шаг 4: двойная "н", превосходная степень, мягкий знак
+        if (region.endsWith("нн")) {
+            region = region.substring(0, region.length() - 1);
+        } else {
+            String withoutSuperlative = removeSuffix(region, SUPERLATIVE);
+            if (withoutSuperlative != null) {
+                region = withoutSuperlative;
+                if (region.endsWith("нн")) {
+                    region = region.substring(0, region.length() - 1);
+                }
+            } else if (region.endsWith("ь")) {
+                region = region.substring(0, region.length() - 1);
+            }
+        }
+
+        return prefix + region;
+    }
+
+    private static String removeAdjectival(String region) {
+        String withoutAdjective = removeSuffix(region, ADJECTIVE);
+        if (withoutAdjective == null) {
+            return null;
+        }
+        String withoutParticiple = removeGrouped(withoutAdjective, PARTICIPLE_1, PARTICIPLE_2);
+        return withoutParticiple != null ? withoutParticiple : withoutAdjective;
+    }
+
+    /**
+     * Окончания первой группы допустимы только после "а" или "я", второй - без условий.
+     * Выбирается самое длинное подходящее окончание.
+     */
+    private static String removeGrouped(String region, String[] afterAYa, String[] plain) {
+        int best = -1;
+        for (String suffix : afterAYa) {
+            int cut = region.length() - suffix.length();
+            if (cut > 0 && region.endsWith(suffix) && isAYa(region.charAt(cut - 1)) && suffix.length() > best) {
+                best = suffix.length();
+            }
+        }
+        for (String suffix : plain) {
+            if (region.endsWith(suffix) && suffix.length() > best) {
+                best = suffix.length();
+            }
+        }
+        return best < 0 ? null : region.substring(0, region.length() - best);
+    }
+
+    private static String removeSuffix(String region, String[] suffixes) {
+        int best = -1;
+        for (String suffix : suffixes) {
+            if (region.endsWith(suffix) && suffix.length() > best) {
+                best = suffix.length();
+            }
+        }
+        return best < 0 ? null : region.substring(0, region.length() - best);
+    }
+
+    private static boolean isAYa(char c) {
+        return c == 'а' || c == 'я';
+    }
+
+    private static boolean isVowel(char c) {
+        return VOWELS.indexOf(c) >= 0;
+    }
+
+    // RV - часть слова после первой гласной
+    private static int regionRv(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (isVowel(word.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return word.length();
+    }
+
+    // R1 - после первой согласной, идущей за гласной; R2 - то же внутри R1
+    private static int regionR2(String word) {
+        int r1 = nextRegion(word, 0);
+        return nextRegion(word, r1);
+    }
+
+    private static int nextRegion(String word, int from) {
+        for (int i = from + 1; i < word.length(); i++) {
+            if (!isVowel(word.charAt(i)) && isVowel(word.charAt(i - 1))) {
+                return i + 1;
+            }
+        }
+        return word.length();
+    }
+}
@@ -0,0 +1,337 @@
+package com.crafthub.backend.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс похожих товаров: TF-IDF векторы и приближенный поиск ближайших соседей по косинусу.
+ * Вектор товара хранится разреженно - отсортированные id термов и их частоты (int[] + float[]),
+ * IDF берется из текущих частот термов в момент запроса, поэтому добавление товара не требует
+ * пересчета остальных векторов.
+ * Кандидаты ищутся через LSH на случайных гиперплоскостях (SimHash): TABLES таблиц по BITS бит сигнатуры,
+ * при нехватке кандидатов - еще и соседние корзины (сигнатура с одним измененным битом).
+ * Сигнатура считается по сублинейному TF без IDF: она не зависит от размера каталога, поэтому товары,
+ * добавленные в разное время, попадают в согласованные корзины. IDF учитывается только в точном косинусе.
+ * Кандидаты ранжируются точным косинусом. Потокобезопасен: чтения параллельно, изменения под блокировкой.
+ */
+public class SimilarityIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final int TABLES = 8;
+    private static final int BITS = 12;
+    private static final int MAX_CANDIDATES = 2000;
+
+    // Разреженный вектор: id термов по возрастанию, частоты и LSH-сигнатура для каждой таблицы
+    private record Vector(int[] terms, float[] tf, int[] signatures) {
+    }
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private int[] documentFrequency = new int[1024];
+    private final Map<Long, Vector> documents = new HashMap<>();
+    private final List<Map<Integer, Bucket>> tables = new ArrayList<>(TABLES);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SimilarityIndex() {
+        for (int i = 0; i < TABLES; i++) {
+            tables.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Добавляет товар или заменяет его предыдущую версию.
+     */
+    public void put(long id, String name, String categoryName, String description) {
+        Map<String, Float> weights = new HashMap<>();
+        collect(name, NAME_WEIGHT, weights);
+        collect(categoryName, CATEGORY_WEIGHT, weights);
+        collect(description, DESCRIPTION_WEIGHT, weights);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (weights.isEmpty()) {
+                return;
+            }
+
+            int size = weights.size();
+            long[] packed = new long[size]; // id терма в старших битах, индекс в weights - в младших
+            List<Float> values = new ArrayList<>(weights.values());
+            int i = 0;
+            for (String term : weights.keySet()) {
+                packed[i] = ((long) termId(term) << 32) | i;
+                i++;
+            }
+            Arrays.sort(packed);
+
+            int[] terms = new int[size];
+            float[] tf = new float[size];
+            for (int j = 0; j < size; j++) {
+                terms[j] = (int) (packed[j] >>> 32);
+                tf[j] = 1f + (float) Math.log(values.get((int) packed[j]));
+                documentFrequency[terms[j]]++;
+            }
+
+            Vector vector = new Vector(terms, tf, signatures(terms, tf));
+            documents.put(id, vector);
+            for (int t = 0; t < TABLES; t++) {
+                tables.get(t).computeIfAbsent(vector.signatures()[t], k -> new Bucket()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            termIds.clear();
+            documentFrequency = new int[1024];
+            documents.clear();
+            tables.forEach(Map::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Сигнатуры товара по таблицам (для тестов); null - товара нет
+    int[] signatures(long id) {
+        lock.readLock().lock();
+        try {
+            Vector vector = documents.get(id);
+            return vector == null ? null : vector.signatures().clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * До limit товаров, ближайших к товару id по косинусу TF-IDF векторов (сам товар не входит).
+     */
+    public List<Long> similar(long id, int limit) {
+        lock.readLock().lock();
+        try {
+            Vector query = documents.get(id);
+            if (query == null) {
+                return List.of();
+            }
+            int total = documents.size();
+            float[] queryWeights = weights(query, total);
+            float queryNorm = norm(queryWeights);
+
+            PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1);
+            for (long candidate : candidates(id, query)) {
+                Vector vector = documents.get(candidate);
+                float score = cosine(query.terms(), queryWeights, queryNorm, vector, total);
+                if (score <= 0f) {
+                    continue;
+                }
+                top.add(new Scored(candidate, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            Long[] result = new Long[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = top.poll().id();
+            }
+            return List.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Сначала точные корзины во всех таблицах, затем соседние по одному биту - пока кандидатов мало
+    private Set<Long> candidates(long id, Vector query) {
+        Set<Long> candidates = new HashSet<>();
+        for (int t = 0; t < TABLES; t++) {
+            collectBucket(tables.get(t).get(query.signatures()[t]), candidates);
+        }
+        for (int bit = 0; bit < BITS && candidates.size() < MAX_CANDIDATES; bit++) {
+            for (int t = 0; t < TABLES && candidates.size() < MAX_CANDIDATES; t++) {
+                collectBucket(tables.get(t).get(query.signatures()[t] ^ (1 << bit)), candidates);
+            }
+        }
+        candidates.remove(id);
+        return candidates;
+    }
+
+    private static void collectBucket(Bucket bucket, Set<Long> candidates) {
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.size && candidates.size() < MAX_CANDIDATES; i++) {
+            candidates.add(bucket.ids[i]);
+        }
+    }
+
+    // Косинус через слияние отсортированных списков термов
+    private float cosine(int[] queryTerms, float[] queryWeights, float queryNorm, Vector vector, int total) {
+        float[] weights = weights(vector, total);
+        int[] terms = vector.terms();
+        float dot = 0f;
+        int i = 0;
+        int j = 0;
+        while (i < queryTerms.length && j < terms.length) {
+            if (queryTerms[i] < terms[j]) {
+                i++;
+            } else if (queryTerms[i] > terms[j]) {
+                j++;
+            } else {
+                dot += queryWeights[i++] * weights[j++];
+            }
+        }
+        return dot == 0f ? 0f : dot / (queryNorm * norm(weights));
+    }
+
+    private float[] weights(Vector vector, int total) {
+        int[] terms = vector.terms();
+        float[] weights = new float[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            weights[i] = vector.tf()[i] * idf(terms[i], total);
+        }
+        return weights;
+    }
+
+    private float idf(int term, int total) {
+        return (float) Math.log((total + 1.0) / (documentFrequency[term] + 1.0)) + 1f;
+    }
+
+    private static float norm(float[] weights) {
+        double sum = 0;
+        for (float w : weights) {
+            sum += w * w;
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    /**
+     * SimHash-сигнатуры TF-вектора: бит = знак проекции вектора на случайную гиперплоскость.
+     * Гиперплоскости не хранятся - координата терма на плоскости (+1/-1) берется из хеша id терма.
+     */
+    private static int[] signatures(int[] terms, float[] tf) {
+        float[] projections = new float[TABLES * BITS];
+        for (int i = 0; i < terms.length; i++) {
+            float weight = tf[i];
+            long low = mix(terms[i]);
+            long high = mix(terms[i] + 0x9E3779B97F4A7C15L);
+            for (int h = 0; h < projections.length; h++) {
+                long bits = h < 64 ? low >>> h : high >>> (h - 64);
+                projections[h] += (bits & 1) == 0 ? weight : -weight;
+            }
+        }
+        int[] signatures = new int[TABLES];
+        for (int t = 0; t < TABLES; t++) {
+            int signature = 0;
+            for (int b = 0; b < BITS; b++) {
+                if (projections[t * BITS + b] >= 0f) {
+                    signature |= 1 << b;
+                }
+            }
+            signatures[t] = signature;
+        }
+        return signatures;
+    }
+
+    // Финализатор SplitMix64 - хорошее перемешивание бит
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private int termId(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) {
+            return existing;
+        }
+        int id = termIds.size();
+        termIds.put(term, id);
+        if (id == documentFrequency.length) {
+            documentFrequency = Arrays.copyOf(documentFrequency, id * 2);
+        }
+        return id;
+    }
+
+    private void removeInternal(long id) {
+        Vector vector = documents.remove(id);
+        if (vector == null) {
+            return;
+        }
+        for (int term : vector.terms()) {
+            documentFrequency[term]--;
+        }
+        for (int t = 0; t < TABLES; t++) {
+            Map<Integer, Bucket> table = tables.get(t);
+            Bucket bucket = table.get(vector.signatures()[t]);
+            if (bucket != null && bucket.remove(id) && bucket.size == 0) {
+                table.remove(vector.signatures()[t]);
+            }
+        }
+    }
+
+    private static void collect(String text, float weight, Map<String, Float> weights) {
+        for (String term : TextAnalyzer.analyze(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    private record Scored(long id, float score) implements Comparable<Scored> {
+        @Override
+        public int compareTo(Scored other) {
+            return Float.compare(score, other.score);
+        }
+    }
+
+    // Корзина LSH-таблицы: растущий массив id без упаковки в Long
+    private static final class Bucket {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.crafthub.backend.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * Неизменяемое префиксное дерево подсказок для поисковой строки.
+ * После построения дерево упаковано в плоские массивы (узлы в порядке обхода в ширину,
+ * дети узла лежат подряд и отсортированы по символу), а в каждом узле заранее сохранен top-K подсказок
+ * по весу. Поиск подсказок - это проход по символам префикса и выдача готового списка.
+ * Индексируются начала всех слов, поэтому "кружк" находит "Набор кружек ...".
+ */
+public class SuggestionTrie {
+
+    /**
+     * Подсказка: товар, категория или мастер.
+     */
+    public record Entry(String type, long id, String text, long weight) {
+    }
+
+    // Длиннее префиксы не набирают - хвосты ключей не храним, чтобы не раздувать дерево
+    private static final int MAX_KEY_LENGTH = 32;
+
+    private static final SuggestionTrie EMPTY = new Builder().build(1);
+
+    private final Entry[] entries;
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topOffset; // top узла i - tops[topOffset[i] .. topOffset[i + 1])
+    private final int[] tops;
+
+    private SuggestionTrie(Entry[] entries, char[] labels, int[] firstChild, int[] childCount,
+                           int[] topOffset, int[] tops) {
+        this.entries = entries;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topOffset = topOffset;
+        this.tops = tops;
+    }
+
+    public static SuggestionTrie empty() {
+        return EMPTY;
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    public List<Entry> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            node = child(node, key.charAt(i));
+            if (node < 0) {
+                return List.of();
+            }
+        }
+
+        int from = topOffset[node];
+        int to = Math.min(topOffset[node + 1], from + limit);
+        List<Entry> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(entries[tops[i]]);
+        }
+        return result;
+    }
+
+    // Двоичный поиск среди отсортированных детей узла
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Нижний регистр, ё -> е, все кроме букв и цифр - пробел
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int length = sb.length();
+        return (length > 0 && sb.charAt(length - 1) == ' ') ? sb.substring(0, length - 1) : sb.toString();
+    }
+
+    /**
+     * Сборщик дерева. Узлы промежуточного дерева живут только во время build().
+     */
+    public static final class Builder {
+
+        private static final class Node {
+            final TreeMap<Character, Node> children = new TreeMap<>();
+            final List<Integer> own = new ArrayList<>(1);
+            int[] top;
+        }
+
+        private final List<Entry> entries = new ArrayList<>();
+        private final Node root = new Node();
+
+        public Builder add(Entry entry) {
+            if (entry.text() == null) {
+                return this;
+            }
+            int index = entries.size();
+            entries.add(entry);
+
+            String text = normalize(entry.text());
+            for (int start = 0; start < text.length(); start++) {
+                if (start == 0 || text.charAt(start - 1) == ' ') {
+                    insert(text.substring(start, Math.min(text.length(), start + MAX_KEY_LENGTH)), index);
+                }
+            }
+            return this;
+        }
+
+        private void insert(String key, int entryIndex) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            }
+            node.own.add(entryIndex);
+        }
+
+        public SuggestionTrie build(int topK) {
+            Comparator<Integer> byWeight = Comparator.<Integer>comparingLong(i -> entries.get(i).weight()).reversed()
+                    .thenComparing(i -> entries.get(i).text());
+            computeTop(root, topK, byWeight);
+
+            // Раскладываем узлы по массивам в порядке обхода в ширину
+            List<Node> order = new ArrayList<>();
+            List<Character> nodeLabels = new ArrayList<>();
+            order.add(root);
+            nodeLabels.add('\0');
+            int[] first = new int[16];
+            int[] count = new int[16];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(0);
+            while (!queue.isEmpty()) {
+                int index = queue.poll();
+                Node node = order.get(index);
+                if (index >= first.length) {
+                    first = Arrays.copyOf(first, first.length * 2);
+                    count = Arrays.copyOf(count, count.length * 2);
+                }
+                first[index] = order.size();
+                count[index] = node.children.size();
+                node.children.forEach((c, child) -> {
+                    queue.add(order.size());
+                    order.add(child);
+                    nodeLabels.add(c);
+                });
+            }
+
+            int size = order.size();
+            char[] labels = new char[size];
+            int[] topOffset = new int[size + 1];
+            int totalTop = 0;
+            for (int i = 0; i < size; i++) {
+                labels[i] = nodeLabels.get(i);
+                topOffset[i] = totalTop;
+                totalTop += order.get(i).top.length;
+            }
+            topOffset[size] = totalTop;
+            int[] tops = new int[totalTop];
+            for (int i = 0; i < size; i++) {
+                int[] top = order.get(i).top;
+                System.arraycopy(top, 0, tops, topOffset[i], top.length);
+            }
+
+            return new SuggestionTrie(entries.toArray(Entry[]::new), labels,
+                    Arrays.copyOf(first, size), Arrays.copyOf(count, size), topOffset, tops);
+        }
+
+        // top-K узла = лучшие K из собственных подсказок и top-K детей (одна подсказка - один раз)
+        private void computeTop(Node node, int topK, Comparator<Integer> byWeight) {
+            List<Integer> candidates = new ArrayList<>(node.own);
+            for (Node child : node.children.values()) {
+                computeTop(child, topK, byWeight);
+                for (int index : child.top) {
+                    candidates.add(index);
+                }
+            }
+            node.top = candidates.stream().distinct().sorted(byWeight).limit(topK)
+                    .mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.crafthub.backend.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Разбор текста на термы для поисковых индексов:
+ * нижний регистр, "ё" -> "е", разбиение по небуквенным символам, стоп-слова и стемминг.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "на", "с", "со", "для", "из", "по", "от", "до", "за", "к", "о", "об", "а", "но",
+            "или", "не", "это", "как", "что", "у", "же", "при", "под", "над",
+            "the", "a", "an", "and", "or", "of", "for", "in", "on", "with", "to", "by");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Нормализованные слова текста без стемминга (нужны для префиксного поиска).
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Основа слова: кириллица идет в русский стеммер, латиница - в английский, числа как есть.
+     */
+    public static String stem(String token) {
+        if (token.length() < 3) {
+            return token;
+        }
+        char first = token.charAt(0);
+        if (Character.UnicodeBlock.of(first) == Character.UnicodeBlock.CYRILLIC) {
+            return RussianStemmer.stem(token);
+        }
+        if (first >= 'a' && first <= 'z') {
+            return EnglishStemmer.stem(token);
+        }
+        return token;
+    }
+
+    // Термы текста: токенизация + стемминг
+    public static List<String> analyze(String text) {
+        List<String> tokens = tokenize(text);
+        List<String> terms = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            terms.add(stem(token));
+        }
+        return terms;
+    }
+}
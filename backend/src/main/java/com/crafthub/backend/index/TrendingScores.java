@@ -0,0 +1,102 @@
+package com.crafthub.backend.index;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Экспоненциально затухающие счетчики популярности товаров.
+ * Используется прямое затухание (forward decay): вес события умножается на exp(lambda * (t - landmark)),
+ * поэтому старые значения никогда не пересчитываются, а запись - это одно сложение в DoubleAdder без блокировок.
+ * Текущий счет товара = сумма * exp(-lambda * (now - landmark)); множитель общий для всех,
+ * поэтому на порядок в рейтинге он не влияет.
+ */
+public class TrendingScores {
+
+    /**
+     * Товар и его счет, приведенный к моменту запроса.
+     */
+    public record Ranked(long productId, double score) {
+    }
+
+    private record Epoch(long landmarkMillis, ConcurrentHashMap<Long, DoubleAdder> sums) {
+    }
+
+    private final double lambda; // скорость затухания, 1/мс
+
+    private volatile Epoch epoch;
+
+    public TrendingScores(Duration halfLife, long nowMillis) {
+        this.lambda = Math.log(2) / halfLife.toMillis();
+        this.epoch = new Epoch(nowMillis, new ConcurrentHashMap<>());
+    }
+
+    public void add(long productId, double weight, long nowMillis) {
+        Epoch current = epoch;
+        current.sums().computeIfAbsent(productId, id -> new DoubleAdder())
+                .add(weight * Math.exp(lambda * (nowMillis - current.landmarkMillis())));
+    }
+
+    public void remove(long productId) {
+        epoch.sums().remove(productId);
+    }
+
+    public int size() {
+        return epoch.sums().size();
+    }
+
+    /**
+     * Top-K товаров по текущему счету (min-куча размера K, O(n log K)).
+     */
+    public List<Ranked> top(int k, long nowMillis) {
+        Epoch current = epoch;
+        double decay = Math.exp(-lambda * (nowMillis - current.landmarkMillis()));
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Ranked::score));
+        current.sums().forEach((id, sum) -> {
+            double score = sum.sum() * decay;
+            if (heap.size() < k) {
+                heap.add(new Ranked(id, score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new Ranked(id, score));
+            }
+        });
+        List<Ranked> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(Ranked::score).reversed());
+        return result;
+    }
+
+    /**
+     * Переносит точку отсчета на now, чтобы экспонента не переполнялась,
+     * и заодно выбрасывает затухшие товары. Возвращает текущие счета.
+     * События, пришедшие ровно в момент переключения в старую эпоху, теряются - для рейтинга это несущественно.
+     */
+    public Map<Long, Double> rescale(long nowMillis, double minScore) {
+        Epoch current = epoch;
+        double decay = Math.exp(-lambda * (nowMillis - current.landmarkMillis()));
+        ConcurrentHashMap<Long, DoubleAdder> rescaled = new ConcurrentHashMap<>();
+        Map<Long, Double> scores = new HashMap<>();
+        current.sums().forEach((id, sum) -> {
+            double score = sum.sum() * decay;
+            if (score >= minScore) {
+                DoubleAdder adder = new DoubleAdder();
+                adder.add(score);
+                rescaled.put(id, adder);
+                scores.put(id, score);
+            }
+        });
+        epoch = new Epoch(nowMillis, rescaled);
+        return scores;
+    }
+
+    // Значение счета через время age после снимка (для восстановления после рестарта)
+    public double decay(double score, Duration age) {
+        return score * Math.exp(-lambda * age.toMillis());
+    }
+}
@@ -0,0 +1,36 @@
+package com.crafthub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Файл в хранилище с адресацией по содержимому.
+ * Путь содержит SHA-256 содержимого, поэтому одинаковые файлы хранятся один раз,
+ * а refCount считает, сколько записей (картинок товаров, аватаров, документов) на него ссылается.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "file_blobs")
+public class FileBlob {
+
+    @Id
+    @Column(length = 500)
+    private String path; // относительный путь вида "products/ab/cd/<sha256>.jpg"
+
+    @Column(nullable = false)
+    private int refCount;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt; // последнее изменение счетчика - от него отсчитывается отсрочка удаления
+}
@@ -0,0 +1,33 @@
+package com.crafthub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Файл, ожидающий удаления с диска.
+ * Запись создается в той же транзакции, что и удаление ссылки на файл: при откате файл остается,
+ * после коммита его удалит фоновая очистка, даже если приложение перезапустится.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "file_deletion_queue")
+public class FileDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 600)
+    private String path; // относительный путь в папке загрузок
+
+    @Column(nullable = false)
+    private LocalDateTime enqueuedAt;
+
+    @Column(nullable = false)
+    private int attempts; // неудачные попытки удаления
+}
@@ -0,0 +1,44 @@
+package com.crafthub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Уменьшенная копия картинки товара (превью или веб-версия).
+ * Привязана к пути исходного файла, как и ProductImage.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "image_variants",
+        uniqueConstraints = @UniqueConstraint(name = "uk_variant_source_width", columnNames = {"source_path", "width"}))
+public class ImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 500)
+    private String sourcePath; // путь исходной картинки
+
+    @Column(nullable = false)
+    private int width; // номинальная ширина варианта (160, 480, 1080)
+
+    @Column(nullable = false, length = 600)
+    private String path; // путь файла варианта
+
+    @Column(nullable = false)
+    private int height;
+
+    @Column(nullable = false)
+    private long bytes;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -14,12 +15,16 @@ import java.util.List;
 
 /**
  * Сущность товара на маркетплейсе.
+ * Остаток и брони меняются только условными UPDATE (см. ProductRepository), поэтому UPDATE сущности пишет
+ * лишь измененные колонки (@DynamicUpdate) и не затирает остаток, списанный параллельным заказом.
+ * Купить можно stockQuantity - reservedQuantity: забронированное в корзинах остается на складе до заказа.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "products")
 public class Product {
 
@@ -37,7 +42,11 @@ public class Product {
     private BigDecimal price;
 
     @Column(nullable = false)
-    private Integer stockQuantity; // остаток на складе
+    private Integer stockQuantity; // остаток на складе, включая забронированное
+
+    @Builder.Default
+    @Column(name = "reserved_quantity", nullable = false)
+    private Integer reservedQuantity = 0; // удержано бронями в корзинах
 
     @Column(name = "youtube_video_id")
     private String youtubeVideoId;
@@ -77,4 +86,9 @@ public class Product {
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+    // Свободный остаток - сколько еще можно положить в корзину или купить
+    public Integer getAvailableQuantity() {
+        return stockQuantity == null ? null : stockQuantity - (reservedQuantity == null ? 0 : reservedQuantity);
+    }
+}
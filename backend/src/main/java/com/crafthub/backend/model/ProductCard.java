@@ -0,0 +1,146 @@
+package com.crafthub.backend.model;
+
+import com.crafthub.backend.dto.response.ProductResponse;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Денормализованная карточка товара (read-модель для списков).
+ * Хранит копию всех полей ProductResponse, включая название категории, данные продавца
+ * и картинки, поэтому список карточек читается одним запросом без ленивых связей.
+ * Обновляется в той же транзакции, что и сам товар (см. ProductCardService).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_cards")
+public class ProductCard {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Product product;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(nullable = false)
+    private BigDecimal price;
+
+    // Свободный остаток (за вычетом броней) - его видят покупатели, фасеты и поиск
+    @Column(nullable = false)
+    private Integer stockQuantity;
+
+    // Удержано бронями в корзинах; вместе со stockQuantity дает остаток на складе для формы продавца
+    @Builder.Default
+    @Column(name = "reserved_quantity", nullable = false)
+    private Integer reservedQuantity = 0;
+
+    @Column(name = "youtube_video_id")
+    private String youtubeVideoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProductStatus status;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "category_display_name", nullable = false)
+    private String categoryDisplayName;
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Column(name = "seller_name", nullable = false)
+    private String sellerName;
+
+    @Column(name = "seller_email", nullable = false)
+    private String sellerEmail;
+
+    @Column(name = "average_rating", columnDefinition = "DECIMAL(3,2)")
+    private Double averageRating;
+
+    @Column(name = "reviews_count")
+    private Integer reviewsCount;
+
+    // Картинки в виде JSON-массива [{imageUrl, isMain}]
+    @Convert(converter = ProductCardImagesConverter.class)
+    @Column(columnDefinition = "TEXT")
+    private List<ProductResponse.ImageResponse> images;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Версия данных карточки для ETag, растет при каждой пересборке
+    @Builder.Default
+    @Column(nullable = false)
+    private Long version = 0L;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Переносит в карточку актуальное состояние товара.
+     * Вызывается внутри транзакции, поэтому ленивые связи товара доступны.
+     */
+    public void copyFrom(Product source) {
+        this.product = source;
+        this.name = source.getName();
+        this.description = source.getDescription();
+        this.price = source.getPrice();
+        this.stockQuantity = source.getAvailableQuantity();
+        this.reservedQuantity = source.getReservedQuantity();
+        this.youtubeVideoId = source.getYoutubeVideoId();
+        this.status = source.getStatus();
+        this.categoryId = source.getCategory().getId();
+        this.categoryDisplayName = source.getCategory().getDisplayName();
+        this.sellerId = source.getSeller().getId();
+        this.sellerName = source.getSeller().getFullName();
+        this.sellerEmail = source.getSeller().getEmail();
+        this.averageRating = source.getAverageRating();
+        this.reviewsCount = source.getReviewsCount();
+        this.images = source.getImages() == null ? List.of() : source.getImages().stream()
+                .map(img -> new ProductResponse.ImageResponse(img.getImageUrl(), img.isMain()))
+                .toList();
+        this.createdAt = source.getCreatedAt();
+        this.version = version != null ? version + 1 : 0L;
+    }
+
+    public ProductResponse toResponse() {
+        return new ProductResponse(
+                productId,
+                name,
+                description,
+                price,
+                stockQuantity,
+                reservedQuantity,
+                youtubeVideoId,
+                status.name(),
+                categoryDisplayName,
+                sellerId,
+                sellerName,
+                sellerEmail,
+                averageRating,
+                reviewsCount,
+                images != null ? List.copyOf(images) : List.of()
+        );
+    }
+}
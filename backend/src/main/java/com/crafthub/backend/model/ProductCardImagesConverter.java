@@ -0,0 +1,30 @@
+package com.crafthub.backend.model;
+
+import com.crafthub.backend.dto.response.ProductResponse;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+/**
+ * Хранит список картинок карточки товара одной JSON-строкой.
+ */
+@Converter
+public class ProductCardImagesConverter implements AttributeConverter<List<ProductResponse.ImageResponse>, String> {
+
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+    private static final TypeReference<List<ProductResponse.ImageResponse>> TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<ProductResponse.ImageResponse> images) {
+        return images == null ? null : MAPPER.writeValueAsString(images);
+    }
+
+    @Override
+    public List<ProductResponse.ImageResponse> convertToEntityAttribute(String json) {
+        return json == null || json.isBlank() ? List.of() : MAPPER.readValue(json, TYPE);
+    }
+}
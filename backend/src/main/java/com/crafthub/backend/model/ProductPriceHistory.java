@@ -0,0 +1,33 @@
+package com.crafthub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Запись истории цены товара.
+ * Таблица только дополняется: новая строка при создании товара и при каждом изменении цены.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_price_history")
+public class ProductPriceHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private Long productId;
+
+    @Column(nullable = false, updatable = false, precision = 10, scale = 2)
+    private BigDecimal price; // цена, действующая с момента changedAt
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,38 @@
+package com.crafthub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронь остатка под товар в корзине покупателя.
+ * Забронированное количество учтено в products.reserved_quantity и снова становится свободным,
+ * если бронь истекла или товар убран из корзины. Таблица - журнал для восстановления
+ * сроков броней после перезапуска, сами сроки отслеживает {@code StockReservationService} в памяти.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stock_reservations",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "product_id"}))
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -22,6 +22,10 @@ public class VerificationDocument {
     @Column(name = "file_url", nullable = false)
     private String fileUrl;
 
+    // Короткоживущая ссылка для админки (см. SignedUrlService), в БД не хранится
+    @Transient
+    private String signedUrl;
+
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id", nullable = false)
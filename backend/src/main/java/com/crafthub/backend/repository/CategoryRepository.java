@@ -1,7 +1,9 @@
 package com.crafthub.backend.repository;
 
+import com.crafthub.backend.dto.response.DataVersion;
 import com.crafthub.backend.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,4 +15,8 @@ import java.util.Optional;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     // Найти категорию по системному имени (например, "WOODWORK")
     Optional<Category> findByName(String name);
+
+    // Версия справочника: категории меняются только миграциями, достаточно количества и последнего id
+    @Query("SELECT new com.crafthub.backend.dto.response.DataVersion(COUNT(c), COALESCE(MAX(c.id), 0L)) FROM Category c")
+    DataVersion getVersion();
 }
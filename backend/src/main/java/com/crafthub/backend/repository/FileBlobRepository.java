@@ -0,0 +1,47 @@
+package com.crafthub.backend.repository;
+
+import com.crafthub.backend.model.FileBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    // Счетчики меняются атомарно в БД, без чтения сущности - параллельные загрузки не теряют инкременты
+    @Modifying
+    @Transactional
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount + 1, b.updatedAt = :now WHERE b.path = :path")
+    int increment(@Param("path") String path, @Param("now") LocalDateTime now);
+
+    // Новая запись о файле с одной ссылкой; если параллельная загрузка того же файла успела ее вставить -
+    // +1 к ее счетчику. Одним запросом, поэтому гонка не дает ошибки дубликата ключа
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO file_blobs (path, ref_count, size, created_at, updated_at) " +
+            "VALUES (:path, 1, :size, :now, :now) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, updated_at = :now", nativeQuery = true)
+    int insertOrIncrement(@Param("path") String path, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - 1, b.updatedAt = :now WHERE b.path = :path AND b.refCount > 0")
+    int decrement(@Param("path") String path, @Param("now") LocalDateTime now);
+
+    // Файлы без ссылок, счетчик которых не менялся дольше отсрочки
+    @Query("SELECT b.path FROM FileBlob b WHERE b.refCount = 0 AND b.updatedAt <= :before ORDER BY b.updatedAt")
+    List<String> findUnreferenced(@Param("before") LocalDateTime before, Pageable pageable);
+
+    // Удаляет запись, только если на файл так и не появилось новых ссылок
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM FileBlob b WHERE b.path = :path AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("path") String path);
+}
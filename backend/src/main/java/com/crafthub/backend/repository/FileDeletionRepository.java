@@ -0,0 +1,15 @@
+package com.crafthub.backend.repository;
+
+import com.crafthub.backend.model.FileDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FileDeletionRepository extends JpaRepository<FileDeletion, Long> {
+
+    // Очередь разбирается пачками в порядке поступления
+    List<FileDeletion> findAllByOrderByIdAsc(Pageable pageable);
+}
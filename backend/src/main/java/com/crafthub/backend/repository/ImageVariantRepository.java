@@ -0,0 +1,17 @@
+package com.crafthub.backend.repository;
+
+import com.crafthub.backend.model.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Long> {
+
+    boolean existsBySourcePath(String sourcePath);
+
+    @Modifying
+    @Transactional
+    void deleteAllBySourcePath(String sourcePath);
+}
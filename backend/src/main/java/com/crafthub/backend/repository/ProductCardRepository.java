@@ -0,0 +1,80 @@
+package com.crafthub.backend.repository;
+
+import com.crafthub.backend.dto.response.DataVersion;
+import com.crafthub.backend.dto.stats.StatusCount;
+import com.crafthub.backend.model.ProductCard;
+import com.crafthub.backend.model.ProductStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductCardRepository extends JpaRepository<ProductCard, Long>, JpaSpecificationExecutor<ProductCard> {
+
+    // Карточки по статусу, новые сверху
+    List<ProductCard> findAllByStatusOrderByCreatedAtDesc(ProductStatus status);
+
+    // Карточки мастера в конкретном статусе (публичный профиль)
+    List<ProductCard> findAllBySellerIdAndStatusOrderByCreatedAtDesc(Long sellerId, ProductStatus status);
+
+    // Все карточки мастера, кроме удаленных (кабинет продавца)
+    List<ProductCard> findAllBySellerIdAndStatusNotOrderByCreatedAtDesc(Long sellerId, ProductStatus status);
+
+    // Все карточки, кроме удаленных (админка)
+    List<ProductCard> findAllByStatusNotOrderByCreatedAtDesc(ProductStatus status);
+
+    // Имя продавца продублировано во всех его карточках; версию поднимаем вручную, как и при refresh
+    @Modifying
+    @Query("UPDATE ProductCard c SET c.sellerName = :sellerName, c.version = c.version + 1, c.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE c.sellerId = :sellerId AND c.sellerName <> :sellerName")
+    int updateSellerName(@Param("sellerId") Long sellerId, @Param("sellerName") String sellerName);
+
+    // Свободный остаток и брони после списания, брони или возврата; версия растет, чтобы сбросился ETag карточки
+    @Modifying
+    @Query("UPDATE ProductCard c SET c.stockQuantity = :available, c.reservedQuantity = :reserved, " +
+            "c.version = c.version + 1, c.updatedAt = CURRENT_TIMESTAMP WHERE c.productId = :productId")
+    int updateStock(@Param("productId") Long productId, @Param("available") int available, @Param("reserved") int reserved);
+
+    // Страница товаров продавца в одном статусе / во всех, кроме указанного (COUNT строится по тем же условиям)
+    Page<ProductCard> findAllBySellerIdAndStatus(Long sellerId, ProductStatus status, Pageable pageable);
+
+    Page<ProductCard> findAllBySellerIdAndStatusNot(Long sellerId, ProductStatus status, Pageable pageable);
+
+    // Счетчики товаров продавца по статусам одним GROUP BY (по индексу idx_cards_seller_status_created)
+    @Query("SELECT new com.crafthub.backend.dto.stats.StatusCount(c.status, COUNT(c)) FROM ProductCard c " +
+            "WHERE c.sellerId = :sellerId AND c.status <> :excluded GROUP BY c.status")
+    List<StatusCount> countBySellerIdGroupByStatus(@Param("sellerId") Long sellerId,
+                                                   @Param("excluded") ProductStatus excluded);
+
+    // Статус после массовой модерации; версия растет, чтобы сбросились ETag списков и карточек
+    @Modifying
+    @Query("UPDATE ProductCard c SET c.status = :status, c.version = c.version + 1, c.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE c.productId IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") ProductStatus status);
+
+    // Версия одной карточки для ETag товара
+    @Query("SELECT new com.crafthub.backend.dto.response.DataVersion(1L, c.updatedAt, c.version) " +
+            "FROM ProductCard c WHERE c.productId = :productId")
+    Optional<DataVersion> findVersion(@Param("productId") Long productId);
+
+    // Агрегатная версия списка карточек в статусе (id карточки - ключ, он есть в любом индексе, чтение остается индексным)
+    @Query("SELECT new com.crafthub.backend.dto.response.DataVersion(COUNT(c), MAX(c.updatedAt), " +
+            "COALESCE(SUM(c.version), 0L), COALESCE(SUM(c.productId), 0L)) " +
+            "FROM ProductCard c WHERE c.status = :status")
+    DataVersion getVersionByStatus(@Param("status") ProductStatus status);
+
+    // Агрегатная версия карточек мастера в статусе (профиль)
+    @Query("SELECT new com.crafthub.backend.dto.response.DataVersion(COUNT(c), MAX(c.updatedAt), " +
+            "COALESCE(SUM(c.version), 0L), COALESCE(SUM(c.productId), 0L)) " +
+            "FROM ProductCard c WHERE c.sellerId = :sellerId AND c.status = :status")
+    DataVersion getVersionBySellerIdAndStatus(@Param("sellerId") Long sellerId, @Param("status") ProductStatus status);
+}
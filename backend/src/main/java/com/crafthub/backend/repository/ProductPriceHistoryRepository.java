@@ -0,0 +1,32 @@
+package com.crafthub.backend.repository;
+
+import com.crafthub.backend.dto.stats.PriceChange;
+import com.crafthub.backend.model.ProductPriceHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductPriceHistoryRepository extends JpaRepository<ProductPriceHistory, Long> {
+
+    // Изменения цены за период по возрастанию времени - один проход по индексу (product_id, changed_at, price)
+    @Query("SELECT new com.crafthub.backend.dto.stats.PriceChange(h.changedAt, h.price) FROM ProductPriceHistory h " +
+            "WHERE h.productId = :productId AND h.changedAt >= :from AND h.changedAt < :to " +
+            "ORDER BY h.changedAt, h.id")
+    List<PriceChange> findChanges(@Param("productId") Long productId,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+
+    // Цена, действовавшая на момент before: последнее изменение до него - один seek по тому же индексу в обратном порядке
+    @Query("SELECT new com.crafthub.backend.dto.stats.PriceChange(h.changedAt, h.price) FROM ProductPriceHistory h " +
+            "WHERE h.productId = :productId AND h.changedAt < :before " +
+            "ORDER BY h.changedAt DESC, h.id DESC")
+    List<PriceChange> findLatestBefore(@Param("productId") Long productId,
+                                       @Param("before") LocalDateTime before,
+                                       Pageable pageable);
+}
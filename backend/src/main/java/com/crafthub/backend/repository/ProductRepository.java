@@ -1,18 +1,22 @@
 package com.crafthub.backend.repository;
 
+import com.crafthub.backend.index.ProductSnapshot;
 import com.crafthub.backend.model.Product;
 import com.crafthub.backend.model.ProductStatus;
 import com.crafthub.backend.dto.stats.TopProductStats; // Импортируем новый рекорд
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     // Все товары конкретного мастера
     List<Product> findAllBySellerId(Long sellerId);
@@ -20,6 +24,90 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Фильтр товаров по статусу
     List<Product> findAllByStatus(ProductStatus status);
 
+    // Плоские снимки товаров для построения in-memory индексов одним запросом
+    @Query("SELECT new com.crafthub.backend.index.ProductSnapshot(p.id, p.name, p.description, c.id, c.displayName, " +
+            "s.id, s.fullName, p.price, p.averageRating, p.stockQuantity - p.reservedQuantity, p.status) " +
+            "FROM Product p JOIN p.category c JOIN p.seller s WHERE p.status = :status")
+    List<ProductSnapshot> findSnapshotsByStatus(@Param("status") ProductStatus status);
+
+    // Снимки выбранных товаров, находящихся в одном из статусов (для массовой модерации)
+    @Query("SELECT new com.crafthub.backend.index.ProductSnapshot(p.id, p.name, p.description, c.id, c.displayName, " +
+            "s.id, s.fullName, p.price, p.averageRating, p.stockQuantity - p.reservedQuantity, p.status) " +
+            "FROM Product p JOIN p.category c JOIN p.seller s WHERE p.id IN :ids AND p.status IN :statuses")
+    List<ProductSnapshot> findSnapshotsByIdInAndStatusIn(@Param("ids") Collection<Long> ids,
+                                                         @Param("statuses") Collection<ProductStatus> statuses);
+
+    // Массовая смена статуса одним UPDATE. Товары, успевшие уйти из статусов from, не меняются;
+    // комментарий модератора остается прежним, если новый не задан
+    @Modifying
+    @Query("UPDATE Product p SET p.status = :status, p.moderationComment = COALESCE(:comment, p.moderationComment), " +
+            "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id IN :ids AND p.status IN :from")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("from") Collection<ProductStatus> from,
+                     @Param("status") ProductStatus status,
+                     @Param("comment") String comment);
+
+    // Списание остатка одним условным UPDATE: строка меняется, только если свободного (не забронированного) товара хватает.
+    // 0 - остатка не хватило; блокировка строки держится до конца транзакции заказа
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.stockQuantity - p.reservedQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Возврат остатка при отмене заказа; удаленному товару остаток не возвращается
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.status <> com.crafthub.backend.model.ProductStatus.DELETED")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Правка остатка продавцом - разницей к текущему значению, но не ниже забронированного в корзинах;
+    // продажи и брони после загрузки формы не теряются
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = CASE WHEN p.stockQuantity + :delta < p.reservedQuantity " +
+            "THEN p.reservedQuantity ELSE p.stockQuantity + :delta END, p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
+
+    // Бронь под корзину: условие то же, что у заказа, но товар остается на складе и только перестает быть свободным.
+    // 0 - свободного товара не хватило
+    @Modifying
+    @Query("UPDATE Product p SET p.reservedQuantity = p.reservedQuantity + :quantity, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.stockQuantity - p.reservedQuantity >= :quantity")
+    int holdStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Снятие брони (не ниже нуля: брони удаленного товара уже обнулены)
+    @Modifying
+    @Query("UPDATE Product p SET p.reservedQuantity = CASE WHEN p.reservedQuantity < :quantity THEN 0 " +
+            "ELSE p.reservedQuantity - :quantity END, p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int unholdStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Бронь переходит в заказ: со склада уходит taken, из брони снимается released (taken плюс излишек брони).
+    // 0 - бронь уже не учтена в товаре
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :taken, " +
+            "p.reservedQuantity = p.reservedQuantity - :released, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.reservedQuantity >= :released AND p.stockQuantity >= :taken")
+    int takeHeldStock(@Param("id") Long id, @Param("taken") int taken, @Param("released") int released);
+
+    // Остаток и брони товара одной строкой
+    interface StockLevel {
+        int getStockQuantity();
+
+        int getReservedQuantity();
+
+        default int getAvailableQuantity() {
+            return getStockQuantity() - getReservedQuantity();
+        }
+    }
+
+    // Остаток и брони с блокировкой строки до конца транзакции: пока она не закоммичена, их не изменит ни один заказ
+    @Query(value = "SELECT stock_quantity AS stockQuantity, reserved_quantity AS reservedQuantity " +
+            "FROM products WHERE id = :id FOR UPDATE", nativeQuery = true)
+    StockLevel lockStockLevelById(@Param("id") Long id);
+
+    // Текущие остаток и брони из БД (после UPDATE в обход контекста сущность товара устарела)
+    @Query("SELECT p.stockQuantity AS stockQuantity, p.reservedQuantity AS reservedQuantity FROM Product p WHERE p.id = :id")
+    StockLevel findStockLevelById(@Param("id") Long id);
+
     // Запрос для получения самых продаваемых товаров конкретного мастера.
     @Query("SELECT new com.crafthub.backend.dto.stats.TopProductStats(i.product.name, SUM(i.quantity)) " +
             "FROM OrderItem i " +
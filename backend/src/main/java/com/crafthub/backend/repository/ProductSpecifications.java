@@ -0,0 +1,102 @@
+package com.crafthub.backend.repository;
+
+import com.crafthub.backend.dto.request.AdminProductFilter;
+import com.crafthub.backend.dto.request.CatalogCursor;
+import com.crafthub.backend.dto.request.CatalogFilter;
+import com.crafthub.backend.model.ProductCard;
+import com.crafthub.backend.model.ProductStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Динамические условия выборки товаров для каталога.
+ * Выборка идет по карточкам товаров: в них уже лежат все поля фильтров и сортировок,
+ * а в SQL попадают только заданные фильтры, поэтому MySQL может использовать составные индексы.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<ProductCard> catalog(CatalogFilter filter, CatalogCursor after) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("status"), ProductStatus.ACTIVE));
+
+            if (filter.categoryId() != null) {
+                predicates.add(cb.equal(root.get("categoryId"), filter.categoryId()));
+            }
+            if (filter.sellerId() != null) {
+                predicates.add(cb.equal(root.get("sellerId"), filter.sellerId()));
+            }
+            if (filter.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.minPrice()));
+            }
+            if (filter.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.maxPrice()));
+            }
+            if (filter.minRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("averageRating"), filter.minRating()));
+            }
+            if (after != null) {
+                predicates.add(keysetAfter(root, cb, after));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Таблица товаров в админке: фильтры по статусу, продавцу, категории и дате создания
+    public static Specification<ProductCard> adminGrid(AdminProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(filter.status() != null
+                    ? cb.equal(root.get("status"), filter.status())
+                    : cb.notEqual(root.get("status"), ProductStatus.DELETED));
+
+            if (filter.sellerId() != null) {
+                predicates.add(cb.equal(root.get("sellerId"), filter.sellerId()));
+            }
+            if (filter.categoryId() != null) {
+                predicates.add(cb.equal(root.get("categoryId"), filter.categoryId()));
+            }
+            if (filter.createdFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.createdFrom().atStartOfDay()));
+            }
+            if (filter.createdTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.createdTo().plusDays(1).atStartOfDay()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Очередь модерации: товары PENDING после курсора (сортировка OLDEST)
+    public static Specification<ProductCard> moderationQueue(CatalogCursor after) {
+        return (root, query, cb) -> {
+            Predicate pending = cb.equal(root.get("status"), ProductStatus.PENDING);
+            return after != null ? cb.and(pending, keysetAfter(root, cb, after)) : pending;
+        };
+    }
+
+    // (key, id) строго "после" курсора: key < k OR (key = k AND id < lastId) для убывающей сортировки
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate keysetAfter(Root<ProductCard> root, CriteriaBuilder cb, CatalogCursor after) {
+        Path key = root.get(after.sort().field());
+        Path<Long> id = root.get("productId");
+        Comparable value = after.key();
+
+        if (after.sort().isDescending()) {
+            return cb.or(
+                    cb.lessThan(key, value),
+                    cb.and(cb.equal(key, value), cb.lessThan(id, after.id())));
+        }
+        return cb.or(
+                cb.greaterThan(key, value),
+                cb.and(cb.equal(key, value), cb.greaterThan(id, after.id())));
+    }
+}
@@ -0,0 +1,34 @@
+package com.crafthub.backend.repository;
+
+import com.crafthub.backend.model.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Бронь блокируется до конца транзакции: ее не может одновременно продлить корзина, забрать заказ и снять чистка
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StockReservation> findByUserIdAndProductId(Long userId, Long productId);
+
+    // Брони покупателя в порядке id товара - в том же порядке, в каком заказ списывает остатки
+    List<StockReservation> findAllByUserIdOrderByProductIdAsc(Long userId);
+
+    // Все брони на товар, заблокированные до конца транзакции (товар удаляется)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findAllByProductIdOrderByIdAsc(Long productId);
+
+    // Снятие истекшей брони: строка удаляется, только если ее не продлили и не изменили после чтения
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.id = :id AND r.quantity = :quantity AND r.expiresAt <= :now")
+    int deleteExpired(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+}
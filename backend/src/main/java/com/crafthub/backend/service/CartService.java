@@ -10,8 +10,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -25,6 +27,7 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final StockReservationService stockReservationService;
 
     /**
      * Получает корзину текущего пользователя.
@@ -62,9 +65,8 @@ public class CartService {
         int currentInCart = existingItem.map(CartItem::getQuantity).orElse(0);
         int newTotalQuantity = currentInCart + request.quantity();
 
-        if (product.getStockQuantity() < newTotalQuantity) {
-            throw new IllegalStateException("Недостаточно товара на складе. Доступно: " + product.getStockQuantity());
-        }
+        // Бронь списывает товар со склада на время, пока он лежит в корзине
+        stockReservationService.reserve(user.getId(), product.getId(), newTotalQuantity);
 
         if (existingItem.isPresent()) {
             CartItem item = existingItem.get();
@@ -84,6 +86,7 @@ public class CartService {
     @Transactional
     public CartResponse getCartResponse() {
         Cart cart = getOrCreateCart();
+        Map<Long, LocalDateTime> reservedUntil = stockReservationService.findExpirations(cart.getUser().getId());
 
         List<CartResponse.CartItemResponse> itemResponses = cart.getItems().stream()
                 .map(item -> {
@@ -101,7 +104,8 @@ public class CartService {
                             item.getProduct().getName(),
                             item.getProduct().getPrice(),
                             item.getQuantity(),
-                            mainImageUrl
+                            mainImageUrl,
+                            reservedUntil.get(item.getProduct().getId())
                     );
                 }).toList();
 
@@ -115,6 +119,7 @@ public class CartService {
     @Transactional
     public void clearCart(Cart cart) {
         cartItemRepository.deleteAllByCartId(cart.getId());
+        stockReservationService.releaseAll(cart.getUser().getId());
     }
 
     // Обновить количество товара в корзине
@@ -127,13 +132,11 @@ public class CartService {
                 .findFirst()
                 .orElseThrow(() -> new RuntimeException("Товар не найден в корзине"));
 
-        if (item.getProduct().getStockQuantity() < quantity) {
-            throw new IllegalStateException("Недостаточно товара на складе");
-        }
-
         if (quantity <= 0) {
             cartItemRepository.delete(item);
+            stockReservationService.release(cart.getUser().getId(), productId);
         } else {
+            stockReservationService.reserve(cart.getUser().getId(), productId, quantity);
             item.setQuantity(quantity);
             cartItemRepository.save(item);
         }
@@ -143,6 +146,7 @@ public class CartService {
     public void removeItem(Long productId) {
         Cart cart = getOrCreateCart();
         cartItemRepository.deleteAllByCartIdAndProductId(cart.getId(), productId);
+        stockReservationService.release(cart.getUser().getId(), productId);
     }
 
     @Transactional
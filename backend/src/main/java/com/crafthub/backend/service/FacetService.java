@@ -0,0 +1,58 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.request.CatalogFilter;
+import com.crafthub.backend.dto.response.CatalogFacetsResponse;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.event.StockChangedEvent;
+import com.crafthub.backend.index.FacetIndex;
+import com.crafthub.backend.index.ProductSnapshot;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Фасеты каталога на битмап-индексе.
+ * Индекс строится при старте и поддерживается событиями товаров и изменения остатков.
+ */
+@Service
+@RequiredArgsConstructor
+public class FacetService {
+
+    private final ProductRepository productRepository;
+
+    private final FacetIndex index = new FacetIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<ProductSnapshot> active = productRepository.findSnapshotsByStatus(ProductStatus.ACTIVE);
+        index.clear();
+        active.forEach(index::put);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductSnapshot product = event.product();
+        if (product.isActive()) {
+            index.put(product);
+        } else {
+            index.remove(product.id());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        index.updateStock(event.productId(), event.stockQuantity());
+    }
+
+    public CatalogFacetsResponse getFacets(CatalogFilter filter) {
+        return index.facets(filter);
+    }
+}
@@ -0,0 +1,171 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.model.FileDeletion;
+import com.crafthub.backend.repository.FileBlobRepository;
+import com.crafthub.backend.repository.FileDeletionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Фоновая чистка папки загрузок.
+ * Очередь удаления (file_deletion_queue) разбирается пачками уже после коммита транзакций,
+ * которые убрали ссылки на файлы. Раз в сутки сканер сверяет дерево файлов с таблицами, которые
+ * на них ссылаются, и ставит в очередь файлы без ссылок (например, оставшиеся после падения JVM).
+ */
+@Service
+@RequiredArgsConstructor
+public class FileCleanupService {
+
+    private static final int BATCH_SIZE = 200;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final String VARIANTS_DIR = "variants/";
+    private static final String TMP_DIR = "tmp/";
+
+    private final FileStorageService fileStorageService;
+    private final FileDeletionRepository fileDeletionRepository;
+    private final FileBlobRepository fileBlobRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Файлы моложе этого возраста сканер не трогает: их транзакция могла еще не закоммититься
+    @Value("${upload.orphan-grace:1h}")
+    private Duration orphanGrace;
+
+    /**
+     * Удаляет файлы из очереди. Записи удаляются пачкой после обработки; файл, который не удалось
+     * удалить, остается в очереди до MAX_ATTEMPTS попыток.
+     */
+    @Scheduled(fixedDelayString = "${upload.deletion-interval-ms:5000}")
+    public void drainDeletionQueue() {
+        List<FileDeletion> batch;
+        do {
+            batch = fileDeletionRepository.findAllByOrderByIdAsc(PageRequest.of(0, BATCH_SIZE));
+            List<FileDeletion> done = new ArrayList<>(batch.size());
+            List<FileDeletion> failed = new ArrayList<>();
+            for (FileDeletion deletion : batch) {
+                try {
+                    delete(deletion);
+                    done.add(deletion);
+                } catch (IOException e) {
+                    deletion.setAttempts(deletion.getAttempts() + 1);
+                    if (deletion.getAttempts() >= MAX_ATTEMPTS) {
+                        System.err.println("Не удалось удалить файл " + deletion.getPath() + ", попытки исчерпаны: " + e.getMessage());
+                        done.add(deletion);
+                    } else {
+                        failed.add(deletion);
+                    }
+                }
+            }
+            fileDeletionRepository.deleteAllInBatch(done);
+            fileDeletionRepository.saveAll(failed);
+            // Если вся пачка состоит из неудачных попыток, ждем следующего запуска
+            if (done.isEmpty()) {
+                return;
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    private void delete(FileDeletion deletion) throws IOException {
+        String path = deletion.getPath();
+        synchronized (fileStorageService.lockFor(path)) {
+            // На файл снова сослались (та же картинка загружена повторно) - удалять нельзя
+            if (fileBlobRepository.existsById(path)) {
+                return;
+            }
+            Path file = fileStorageService.resolve(path);
+            if (Files.exists(file) && Files.getLastModifiedTime(file).toInstant()
+                    .isAfter(deletion.getEnqueuedAt().atZone(ZoneId.systemDefault()).toInstant())) {
+                return; // файл записан заново после постановки в очередь
+            }
+            fileStorageService.deletePhysically(path);
+        }
+    }
+
+    /**
+     * Сверка папки загрузок с БД. Файл считается осиротевшим, если на него не ссылаются
+     * картинки товаров, аватары, документы верификации и счетчики хранилища. Уменьшенные копии
+     * проверяются по своему исходнику, недописанные временные файлы удаляются сразу.
+     */
+    @Scheduled(initialDelayString = "${upload.orphan-scan-initial-delay-ms:600000}",
+            fixedDelayString = "${upload.orphan-scan-interval-ms:86400000}")
+    public void scanOrphans() {
+        Set<String> referenced = loadReferencedPaths();
+        Instant threshold = Instant.now().minus(orphanGrace);
+        Path root = fileStorageService.root();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        List<String> orphans = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                try {
+                    if (!Files.getLastModifiedTime(file).toInstant().isBefore(threshold)) {
+                        return;
+                    }
+                    String path = root.relativize(file).toString().replace('\\', '/');
+                    if (path.startsWith(TMP_DIR)) {
+                        Files.deleteIfExists(file);
+                    } else if (!referenced.contains(sourceOf(path))) {
+                        orphans.add(path);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Не удалось проверить файл " + file + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Не удалось просканировать папку загрузок: " + e.getMessage());
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < orphans.size(); from += BATCH_SIZE) {
+            fileDeletionRepository.saveAll(orphans.subList(from, Math.min(from + BATCH_SIZE, orphans.size())).stream()
+                    .map(path -> FileDeletion.builder().path(path).enqueuedAt(now).build())
+                    .toList());
+        }
+        if (!orphans.isEmpty()) {
+            System.err.println("Найдено осиротевших файлов: " + orphans.size() + ", поставлены в очередь удаления");
+        }
+    }
+
+    private Set<String> loadReferencedPaths() {
+        Set<String> paths = new HashSet<>();
+        RowCallbackHandler collect = rs -> paths.add(rs.getString(1));
+        jdbcTemplate.query("SELECT image_url FROM product_images", collect);
+        jdbcTemplate.query("SELECT avatar_url FROM users WHERE avatar_url IS NOT NULL", collect);
+        jdbcTemplate.query("SELECT file_url FROM verification_documents", collect);
+        // Файлы со счетчиком (в том числе с нулевым) удаляет очистка хранилища, не сканер
+        jdbcTemplate.query("SELECT path FROM file_blobs", collect);
+        return paths;
+    }
+
+    // variants/<ширина>/<исходник>.jpg -> <исходник>
+    private static String sourceOf(String path) {
+        if (!path.startsWith(VARIANTS_DIR)) {
+            return path;
+        }
+        int slash = path.indexOf('/', VARIANTS_DIR.length());
+        if (slash < 0 || !path.endsWith(".jpg")) {
+            return path;
+        }
+        return path.substring(slash + 1, path.length() - ".jpg".length());
+    }
+}
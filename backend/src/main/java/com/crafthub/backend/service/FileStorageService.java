@@ -1,71 +1,373 @@
 package com.crafthub.backend.service;
 
+import com.crafthub.backend.model.FileDeletion;
+import com.crafthub.backend.repository.FileBlobRepository;
+import com.crafthub.backend.repository.FileDeletionRepository;
+import com.crafthub.backend.repository.ImageVariantRepository;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Сервис для управления файловой системой.
- * Отвечает за сохранение документов в иерархическую структуру папок по датам.
+ * Файлы хранятся по адресу содержимого: имя - SHA-256, посчитанный при потоковой записи,
+ * поэтому одинаковые файлы (например, те же фото при редактировании товара) лежат на диске один раз.
+ * На каждый файл ведется счетчик ссылок; удаление только уменьшает его, а файлы без ссылок
+ * после отсрочки удаляет фоновая очистка. Сами вызовы сервиса диск не чистят - только пишут в БД
+ * в транзакции вызывающего кода (см. {@link FileCleanupService}).
  */
 @Service
+@RequiredArgsConstructor
 public class FileStorageService {
 
+    private static final String TMP_DIR = "tmp";
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final FileBlobRepository fileBlobRepository;
+    private final ImageVariantRepository imageVariantRepository;
+    private final FileDeletionRepository fileDeletionRepository;
+
+    // Загрузка и очистка одного и того же пути не должны пересекаться: очистка могла бы удалить
+    // файл, который загрузка только что сочла существующим
+    private final Object[] pathLocks = newLocks(64);
+
     @Value("${upload.path}")
     private String uploadPath;
 
+    @Value("${upload.sweep-grace:10m}")
+    private Duration sweepGrace;
+
     /**
      * Сохраняет файл на диск и возвращает относительный путь.
      *
      * @param file объект MultipartFile из запроса.
-     * @return путь к файлу вида "yyyy/MM/dd/uuid_name.ext".
+     * @return путь к файлу вида "subDir/ab/cd/sha256.ext".
      */
     public String saveFile(MultipartFile file, String subDir) {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Файл пуст");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return saveStream(in, file.getOriginalFilename(), subDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось сохранить файл: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Сохраняет содержимое потока (например, картинку, скачанную при импорте товаров).
+     * Поток пишется во временный файл с одновременным подсчетом SHA-256, затем файл сразу
+     * переносится на место.
+     *
+     * @param in           поток с содержимым файла, закрывает вызывающий код.
+     * @param originalName исходное имя файла, из него берется только расширение.
+     * @return путь к файлу вида "subDir/ab/cd/sha256.ext".
+     */
+    public String saveStream(InputStream in, String originalName, String subDir) {
+        StagedFile staged = stage(in, originalName, subDir);
         try {
-            if (file.isEmpty()) {
-                throw new RuntimeException("Файл пуст");
+            synchronized (lockFor(staged.path())) {
+                if (reference(staged) && Files.exists(resolve(staged.path()))) {
+                    return staged.path(); // такой файл уже есть
+                }
+                place(staged);
             }
+            return staged.path();
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось сохранить файл: " + e.getMessage());
+        } finally {
+            deleteQuietly(staged.tmp());
+        }
+    }
 
-            // Путь на основе текущей даты
-            String datePath = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-            Path targetDirectory = Paths.get(uploadPath, subDir, datePath);
+    /**
+     * Загруженный, но еще не опубликованный файл: лежит во временной папке, хеш и размер уже посчитаны.
+     *
+     * @param path будущий путь вида "subDir/ab/cd/sha256.ext".
+     */
+    public record StagedFile(Path tmp, String path, long size) {
+    }
 
-            // Создаем папки, если их еще нет
-            Files.createDirectories(targetDirectory);
+    /**
+     * Параллельно пишет файлы запроса во временную папку (по виртуальному потоку на файл).
+     * Транзакцию БД стоит открывать только после этого шага: пока байты идут по сети и на диск,
+     * соединение с БД не занято. При ошибке уже записанные временные файлы удаляются.
+     *
+     * @return файлы в исходном порядке; опубликовать их - {@link #commitStaged(StagedFile)}.
+     */
+    public List<StagedFile> stageAll(List<MultipartFile> files, String subDir) {
+        if (files == null || files.isEmpty()) {
+            return List.of();
+        }
+        List<Future<StagedFile>> futures = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                futures.add(executor.submit(() -> stage(file, subDir)));
+            }
+        } // close() дожидается всех загрузок
+
+        List<StagedFile> staged = new ArrayList<>(files.size());
+        RuntimeException failure = null;
+        for (Future<StagedFile> future : futures) {
+            try {
+                staged.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException re ? re
+                            : new RuntimeException("Не удалось сохранить файл: " + e.getCause().getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new RuntimeException("Загрузка файлов прервана");
+            }
+        }
+        if (failure != null) {
+            discard(staged);
+            throw failure;
+        }
+        return staged;
+    }
+
+    /**
+     * Публикует загруженный файл в текущей транзакции: счетчик ссылок меняется сразу,
+     * а сам файл переносится на место только после коммита (при откате временный файл удаляется).
+     * Вне транзакции файл переносится сразу.
+     *
+     * @return путь к файлу вида "subDir/ab/cd/sha256.ext".
+     */
+    public String commitStaged(StagedFile staged) {
+        reference(staged);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(staged);
+            return staged.path();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(staged);
+            }
 
-            // Генерируем уникальное имя файла: uuid_originalName
-            String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            Path targetFile = targetDirectory.resolve(fileName);
+            @Override
+            public void afterCompletion(int status) {
+                deleteQuietly(staged.tmp());
+            }
+        });
+        return staged.path();
+    }
 
-            // Копируем содержимое файла на диск
-            Files.copy(file.getInputStream(), targetFile);
+    /**
+     * Удаляет временные файлы, которые так и не были опубликованы (запрос упал до транзакции).
+     * Для уже перенесенных файлов ничего не делает.
+     */
+    public void discard(List<StagedFile> staged) {
+        staged.forEach(file -> deleteQuietly(file.tmp()));
+    }
 
-            // Возвращаем относительный путь для сохранения в БД
-            return subDir + "/" + datePath + "/" + fileName;
+    // Новое содержимое загруженного файла (например, без метаданных): хеш и путь считаются заново
+    StagedFile restage(Path content, StagedFile original) {
+        String subDir = original.path().substring(0, original.path().indexOf('/'));
+        try (InputStream in = Files.newInputStream(content)) {
+            StagedFile staged = stage(in, original.path(), subDir);
+            deleteQuietly(original.tmp());
+            return staged;
         } catch (IOException e) {
             throw new RuntimeException("Не удалось сохранить файл: " + e.getMessage());
         }
     }
 
+    private StagedFile stage(MultipartFile file, String subDir) throws IOException {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Файл пуст");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return stage(in, file.getOriginalFilename(), subDir);
+        }
+    }
+
     /**
-     * Удаляет файл с диска.
+     * Пишет поток во временную папку (например, картинку, скачанную по ссылке при импорте).
+     * Опубликовать файл - {@link #commitStaged(StagedFile)}, отказаться от него - {@link #discard(List)}.
+     */
+    public StagedFile stage(InputStream in, String originalName, String subDir) {
+        Path tmp = null;
+        try {
+            Path tmpDirectory = Paths.get(uploadPath, TMP_DIR);
+            Files.createDirectories(tmpDirectory);
+            tmp = Files.createTempFile(tmpDirectory, "upload", ".tmp");
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (DigestInputStream digestIn = new DigestInputStream(in, digest)) {
+                size = Files.copy(digestIn, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String relativePath = subDir + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/"
+                    + hash + extension(originalName);
+            return new StagedFile(tmp, relativePath, size);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new RuntimeException("Не удалось сохранить файл: " + e.getMessage());
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(tmp);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * +1 к счетчику ссылок или новая запись о файле.
+     *
+     * @return true, если запись уже была.
+     */
+    private boolean reference(StagedFile staged) {
+        LocalDateTime now = LocalDateTime.now();
+        if (fileBlobRepository.increment(staged.path(), now) > 0) {
+            return true;
+        }
+        // Записи не было - вставляем; вставку между двумя запросами из параллельной загрузки засчитает UPDATE-ветка
+        fileBlobRepository.insertOrIncrement(staged.path(), staged.size(), now);
+        return false;
+    }
+
+    // Перенос после коммита: ошибка уже не откатит транзакцию, поэтому только логируем
+    private void publish(StagedFile staged) {
+        try {
+            synchronized (lockFor(staged.path())) {
+                place(staged);
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось перенести файл " + staged.path() + ": " + e.getMessage());
+        } finally {
+            deleteQuietly(staged.tmp());
+        }
+    }
+
+    // Файл кладем заново, даже если он есть: свежая дата изменения не даст очереди удаления
+    // стереть его, если он был поставлен туда как осиротевший (см. FileCleanupService)
+    private void place(StagedFile staged) throws IOException {
+        Path target = resolve(staged.path());
+        Files.createDirectories(target.getParent());
+        Files.move(staged.tmp(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Освобождает ссылку на файл. Файл из хранилища с адресацией по содержимому удаляется фоновой
+     * очисткой, когда на него не останется ссылок; файл старого формата ставится в очередь удаления.
+     * Диск не трогается: при откате транзакции вызывающего кода файл останется на месте.
      *
-     * @param relativePath путь вида "products/2026/02/18/uuid.jpg"
+     * @param relativePath путь вида "products/ab/cd/sha256.jpg"
      */
     public void deleteFile(String relativePath) {
+        if (fileBlobRepository.decrement(relativePath, LocalDateTime.now()) > 0
+                || fileBlobRepository.existsById(relativePath)) {
+            return;
+        }
+        enqueueDeletion(relativePath);
+    }
+
+    void enqueueDeletion(String relativePath) {
+        fileDeletionRepository.save(FileDeletion.builder()
+                .path(relativePath)
+                .enqueuedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Удаляет файлы, на которые не осталось ссылок. Отсрочка защищает от удаления файла,
+     * который вот-вот снова понадобится (например, при повторной загрузке того же фото).
+     */
+    @Scheduled(fixedDelayString = "${upload.sweep-interval-ms:600000}")
+    public void sweepUnreferenced() {
+        List<String> paths;
+        do {
+            paths = fileBlobRepository.findUnreferenced(LocalDateTime.now().minus(sweepGrace),
+                    PageRequest.of(0, SWEEP_BATCH_SIZE));
+            for (String path : paths) {
+                synchronized (lockFor(path)) {
+                    if (fileBlobRepository.deleteIfUnreferenced(path) > 0) {
+                        try {
+                            deletePhysically(path);
+                        } catch (IOException e) {
+                            enqueueDeletion(path); // повторит очередь удаления
+                        }
+                    }
+                }
+            }
+        } while (paths.size() == SWEEP_BATCH_SIZE);
+    }
+
+    // Сам файл и его уменьшенные копии
+    void deletePhysically(String relativePath) throws IOException {
+        Files.deleteIfExists(resolve(relativePath));
+        for (int width : ImageVariantService.WIDTHS) {
+            Files.deleteIfExists(resolve(ImageVariantService.variantPath(relativePath, width)));
+        }
+        imageVariantRepository.deleteAllBySourcePath(relativePath);
+    }
+
+    Path resolve(String relativePath) {
+        return Paths.get(uploadPath).resolve(relativePath).normalize();
+    }
+
+    Path root() {
+        return Paths.get(uploadPath).normalize();
+    }
+
+    Object lockFor(String path) {
+        return pathLocks[Math.floorMod(path.hashCode(), pathLocks.length)];
+    }
+
+    // Из исходного имени берем только безопасное расширение (оно нужно для Content-Type при раздаче)
+    private static String extension(String originalName) {
+        if (originalName == null) {
+            return "";
+        }
+        int dot = originalName.lastIndexOf('.');
+        String extension = dot >= 0 ? originalName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        return extension.matches("[a-z0-9]{1,10}") ? "." + extension : "";
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
         try {
-            Path filePath = Paths.get(uploadPath).resolve(relativePath).normalize();
-            Files.deleteIfExists(filePath);
+            Files.deleteIfExists(path);
         } catch (IOException e) {
-            System.err.println("Не удалось удалить файл: " + relativePath);
+            System.err.println("Не удалось удалить временный файл: " + path);
+        }
+    }
+
+    private static Object[] newLocks(int size) {
+        Object[] locks = new Object[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new Object();
         }
+        return locks;
     }
 }
@@ -0,0 +1,228 @@
+package com.crafthub.backend.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Отдача файлов с диска без копирования через память приложения.
+ * Если контейнер поддерживает sendfile (Tomcat NIO), файл отправляет само ядро после выхода из сервлета;
+ * иначе содержимое передается через FileChannel.transferTo. Поддерживаются условные запросы (ETag),
+ * один диапазон Range (перемотка видео, докачка PDF) и определение типа по сигнатуре содержимого.
+ * Inline отдаются только распознанные JPEG, PNG, GIF, WebP и PDF; все остальное - application/octet-stream
+ * с Content-Disposition: attachment, чтобы загруженный HTML или SVG не выполнился в контексте сайта.
+ */
+@Service
+public class FileStreamingService {
+
+    // Пути с хешем содержимого никогда не меняются - кешируем на год
+    public static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+
+    // Маленькие файлы быстрее отдать сразу, чем передавать sendfile (порог как у DefaultServlet Tomcat)
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int SNIFF_BYTES = 16;
+    private static final Pattern HASH = Pattern.compile("([0-9a-f]{64})\\.[a-z0-9]+$");
+
+    /**
+     * Отдает файл целиком или запрошенный диапазон.
+     *
+     * @param etag         сильный ETag в кавычках.
+     * @param cacheControl значение Cache-Control.
+     */
+    public void stream(Path file, String etag, String cacheControl,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = Files.size(file);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        MediaType contentType = sniffContentType(file);
+        response.setContentType(contentType.toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (MediaType.APPLICATION_OCTET_STREAM.equals(contentType)) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment");
+        }
+
+        long start = 0;
+        long end = length; // не включительно
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start);
+
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && end - start >= SENDFILE_MIN_SIZE) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * Сильный ETag: хеш содержимого из имени файла. У файлов старого формата (uuid_имя)
+     * хеша в имени нет - для них ETag из размера и времени изменения.
+     */
+    public String etag(Path file, String relativePath) throws IOException {
+        Matcher matcher = HASH.matcher(relativePath);
+        if (matcher.find()) {
+            return "\"" + matcher.group(1) + "\"";
+        }
+        if (!Files.isRegularFile(file)) {
+            return "\"0\"";
+        }
+        return "\"" + Long.toHexString(Files.size(file)) + "-"
+                + Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "\"";
+    }
+
+    /**
+     * Тип по первым байтам файла. Расширение не учитывается: нераспознанное содержимое - application/octet-stream.
+     */
+    public MediaType sniffContentType(Path file) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(SNIFF_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(head, 0);
+        }
+        byte[] b = head.array();
+        int n = head.position();
+        if (n >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return MediaType.IMAGE_JPEG;
+        }
+        if (n >= 8 && (b[0] & 0xFF) == 0x89 && startsWith(b, 1, "PNG")) {
+            return MediaType.IMAGE_PNG;
+        }
+        if (n >= 6 && startsWith(b, 0, "GIF8")) {
+            return MediaType.IMAGE_GIF;
+        }
+        if (n >= 12 && startsWith(b, 0, "RIFF") && startsWith(b, 8, "WEBP")) {
+            return MediaType.parseMediaType("image/webp");
+        }
+        if (n >= 5 && startsWith(b, 0, "%PDF-")) {
+            return MediaType.APPLICATION_PDF;
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    /**
+     * Один диапазон "bytes=a-b", "bytes=a-" или "bytes=-n".
+     *
+     * @return {start, end) для 206; пустой массив - заголовок не распознан или диапазонов несколько
+     *         (отдаем файл целиком); null - диапазон вне файла (416).
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            if (from.isEmpty()) {
+                long suffix = Long.parseLong(to);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(from);
+            if (!to.isEmpty() && Long.parseLong(to) < start) {
+                return new long[0]; // синтаксически неверный диапазон игнорируется
+            }
+            long end = to.isEmpty() ? length : Math.min(Long.parseLong(to) + 1, length);
+            if (start >= length || start >= end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, String signature) {
+        byte[] expected = signature.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < expected.length; i++) {
+            if (bytes[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
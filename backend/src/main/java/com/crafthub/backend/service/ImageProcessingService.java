@@ -0,0 +1,515 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.ImageProcessingStatsResponse;
+import com.crafthub.backend.exception.UploadRejectedException;
+import com.crafthub.backend.service.FileStorageService.StagedFile;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Проверка загружаемых картинок: формат по содержимому, размеры, целостность и удаление метаданных
+ * (EXIF с геолокацией и моделью камеры, XMP, IPTC).
+ * Декодирование тяжелое, поэтому идет не в потоке запроса, а в пуле фиксированного размера с ограниченной
+ * очередью: если очередь полна, запрос сразу получает 429, если обработка не уложилась в отведенное время - 503
+ * (оба с Retry-After). Память на запрос ограничена: размеры читаются из заголовка до декодирования,
+ * суммарное число пикселей в запросе ограничено, а сама картинка декодируется с прореживанием.
+ * Читаются форматы ImageIO (JPEG, PNG, GIF, BMP, TIFF) и WebP (плагин TwelveMonkeys); HEIC и AVIF не поддерживаются.
+ */
+@Service
+public class ImageProcessingService {
+
+    private static final byte[] PDF_SIGNATURE = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXIF_HEADER = {'E', 'x', 'i', 'f', 0, 0};
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    // Метаданные в WebP; флаги этих чанков в заголовке VP8X
+    private static final Set<String> WEBP_METADATA_CHUNKS = Set.of("EXIF", "XMP ");
+    private static final int VP8X_METADATA_FLAGS = 0x08 | 0x04;
+
+    // Текстовые метаданные и EXIF в PNG; остальные чанки (в том числе цветовой профиль) сохраняем
+    private static final Set<String> PNG_METADATA_CHUNKS = Set.of("eXIf", "tEXt", "zTXt", "iTXt", "tIME");
+
+    // Расширение сохраненного файла по распознанному формату, а не по имени, которое прислал клиент
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "jpeg", ".jpg", "png", ".png", "gif", ".gif", "webp", ".webp", "bmp", ".bmp", "tiff", ".tif");
+
+    private final FileStorageService fileStorageService;
+    private final ThreadPoolExecutor pool;
+    private final int queueCapacity;
+    private final Duration timeout;
+    private final long retryAfterSeconds;
+    private final long maxPixels;
+    private final long maxRequestPixels;
+    private final long decodePixels;
+
+    private final AtomicLong succeededCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public ImageProcessingService(FileStorageService fileStorageService,
+                                  @Value("${image.processing.threads:2}") int threads,
+                                  @Value("${image.processing.queue-capacity:16}") int queueCapacity,
+                                  @Value("${image.processing.timeout:30s}") Duration timeout,
+                                  @Value("${image.processing.retry-after:5s}") Duration retryAfter,
+                                  @Value("${image.processing.max-pixels:40000000}") long maxPixels,
+                                  @Value("${image.processing.max-request-pixels:120000000}") long maxRequestPixels,
+                                  @Value("${image.processing.decode-pixels:4000000}") long decodePixels) {
+        this.fileStorageService = fileStorageService;
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.maxPixels = maxPixels;
+        this.maxRequestPixels = maxRequestPixels;
+        this.decodePixels = decodePixels;
+        // AbortPolicy: при полной очереди submit сразу бросает исключение, запрос не ждет
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+        // Реестр ImageIO заполняется при первом обращении и в исполняемом jar может не увидеть плагин WebP
+        ImageIO.scanForPlugins();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Проверяет файлы одного запроса и возвращает их очищенные версии в том же порядке.
+     * Файлы, из которых удалены метаданные, получают новый путь (хеш содержимого изменился).
+     * Расширение в пути задается по распознанному формату: файл "x.html" с PNG внутри сохранится как .png.
+     *
+     * @param allowPdf разрешить PDF (документы верификации) - он проверяется только по сигнатуре.
+     * @throws IllegalArgumentException файл не картинка, поврежден или слишком большой.
+     * @throws UploadRejectedException  пул перегружен.
+     */
+    public List<StagedFile> process(List<StagedFile> files, boolean allowPdf) {
+        if (files.isEmpty()) {
+            return files;
+        }
+        Future<List<StagedFile>> future;
+        try {
+            future = pool.submit(() -> processAll(files, allowPdf));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new UploadRejectedException(HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                    "Сервер перегружен загрузками, повторите попытку позже");
+        }
+        try {
+            // Время ожидания включает очередь: запрос, который слишком долго ждал, не стоит и начинать
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOutCount.incrementAndGet();
+            throw new UploadRejectedException(HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds,
+                    "Не удалось обработать изображения вовремя, повторите попытку позже");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Обработка изображений прервана");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Не удалось обработать изображение: " + e.getCause().getMessage());
+        }
+    }
+
+    public ImageProcessingStatsResponse getStats() {
+        long succeeded = succeededCount.get();
+        long failed = failedCount.get();
+        long processed = succeeded + failed;
+        return new ImageProcessingStatsResponse(
+                pool.getQueue().size(),
+                queueCapacity,
+                pool.getActiveCount(),
+                succeeded,
+                failed,
+                rejectedCount.get(),
+                timedOutCount.get(),
+                processed == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / processed,
+                maxNanos.get() / 1_000_000.0
+        );
+    }
+
+    private List<StagedFile> processAll(List<StagedFile> files, boolean allowPdf) throws IOException {
+        long start = System.nanoTime();
+        List<StagedFile> result = new ArrayList<>(files.size());
+        boolean done = false;
+        try {
+            long requestPixels = 0;
+            for (StagedFile file : files) {
+                if (allowPdf && startsWith(file.tmp(), PDF_SIGNATURE)) {
+                    result.add(withExtension(file, ".pdf"));
+                    continue;
+                }
+                String format;
+                try (ImageInputStream in = ImageIO.createImageInputStream(file.tmp().toFile())) {
+                    ImageReader reader = readerFor(in);
+                    try {
+                        reader.setInput(in, true, true);
+                        long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                        if (pixels > maxPixels) {
+                            throw new IllegalArgumentException("Изображение слишком большое: "
+                                    + reader.getWidth(0) + "x" + reader.getHeight(0));
+                        }
+                        requestPixels += pixels;
+                        if (requestPixels > maxRequestPixels) {
+                            throw new IllegalArgumentException("Слишком много больших изображений в одном запросе");
+                        }
+                        decode(reader, pixels);
+                        format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                    } finally {
+                        reader.dispose();
+                    }
+                }
+                result.add(stripMetadata(withExtension(file, EXTENSIONS.getOrDefault(format, "")), format));
+            }
+            done = true;
+            return result;
+        } finally {
+            if (!done) {
+                // Временные файлы без метаданных, созданные до ошибки; исходные удалит вызывающий код
+                List<Path> sources = files.stream().map(StagedFile::tmp).toList();
+                fileStorageService.discard(result.stream().filter(file -> !sources.contains(file.tmp())).toList());
+            }
+            long elapsed = System.nanoTime() - start;
+            (done ? succeededCount : failedCount).incrementAndGet();
+            totalNanos.add(elapsed);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private static ImageReader readerFor(ImageInputStream in) {
+        Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+        if (readers == null || !readers.hasNext()) {
+            throw new IllegalArgumentException("Неподдерживаемый формат изображения");
+        }
+        return readers.next();
+    }
+
+    // Полное декодирование ловит битые файлы; прореживание держит растр в пределах decodePixels
+    private void decode(ImageReader reader, long pixels) {
+        ImageReadParam param = reader.getDefaultReadParam();
+        int step = (int) Math.ceil(Math.sqrt((double) pixels / decodePixels));
+        if (step > 1) {
+            param.setSourceSubsampling(step, step, 0, 0);
+        }
+        try {
+            reader.read(0, param);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Файл изображения поврежден");
+        }
+    }
+
+    // Путь "subDir/ab/cd/sha256.ext" с заменой расширения; временный файл тот же
+    private static StagedFile withExtension(StagedFile file, String extension) {
+        String path = file.path();
+        int dot = path.lastIndexOf('.');
+        String base = dot > path.lastIndexOf('/') ? path.substring(0, dot) : path;
+        return new StagedFile(file.tmp(), base + extension, file.size());
+    }
+
+    private StagedFile stripMetadata(StagedFile file, String format) throws IOException {
+        if (!format.equals("jpeg") && !format.equals("png") && !format.equals("webp")) {
+            return file;
+        }
+        Path stripped = Files.createTempFile(file.tmp().getParent(), "strip", ".tmp");
+        try {
+            boolean changed;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file.tmp()));
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(stripped))) {
+                changed = switch (format) {
+                    case "jpeg" -> stripJpeg(in, out);
+                    case "png" -> stripPng(in, out);
+                    default -> stripWebp(in, out);
+                };
+            }
+            return changed ? fileStorageService.restage(stripped, file) : file;
+        } finally {
+            Files.deleteIfExists(stripped);
+        }
+    }
+
+    /**
+     * Копирует JPEG без сегментов APP1 (EXIF, XMP) и APP13 (IPTC). Ориентация из EXIF сохраняется
+     * в минимальном APP1 - иначе фото с телефона отобразятся повернутыми. Сжатые данные не трогаются.
+     *
+     * @return true, если что-то удалено.
+     */
+    static boolean stripJpeg(InputStream in, OutputStream out) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        DataOutputStream target = new DataOutputStream(out);
+        if (data.readUnsignedShort() != 0xFFD8) {
+            throw new IOException("Неверная структура JPEG");
+        }
+        target.writeShort(0xFFD8);
+        boolean changed = false;
+        while (true) {
+            if (data.readUnsignedByte() != 0xFF) {
+                throw new IOException("Неверная структура JPEG");
+            }
+            int marker;
+            do {
+                marker = data.readUnsignedByte();
+            } while (marker == 0xFF);
+            if (marker == 0xDA) {
+                // Начало сжатых данных: дальше копируем как есть
+                target.writeShort(0xFF00 | marker);
+                data.transferTo(target);
+                target.flush();
+                return changed;
+            }
+            if (marker == 0xD9 || marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                target.writeShort(0xFF00 | marker); // маркеры без длины
+                if (marker == 0xD9) {
+                    target.flush();
+                    return changed;
+                }
+                continue;
+            }
+            int length = data.readUnsignedShort();
+            if (length < 2) {
+                throw new IOException("Неверная структура JPEG");
+            }
+            byte[] payload = data.readNBytes(length - 2);
+            if (payload.length != length - 2) {
+                throw new IOException("Неверная структура JPEG");
+            }
+            if (marker == 0xE1 || marker == 0xED) {
+                changed = true;
+                int orientation = marker == 0xE1 ? exifOrientation(payload) : 0;
+                if (orientation > 1) {
+                    byte[] minimal = orientationExif(orientation);
+                    target.writeShort(0xFFE1);
+                    target.writeShort(minimal.length + 2);
+                    target.write(minimal);
+                }
+                continue;
+            }
+            target.writeShort(0xFF00 | marker);
+            target.writeShort(length);
+            target.write(payload);
+        }
+    }
+
+    /**
+     * Копирует PNG без текстовых чанков, EXIF и времени изменения.
+     *
+     * @return true, если что-то удалено.
+     */
+    static boolean stripPng(InputStream in, OutputStream out) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        DataOutputStream target = new DataOutputStream(out);
+        target.write(data.readNBytes(8)); // сигнатура
+        boolean changed = false;
+        while (true) {
+            int length = data.readInt();
+            if (length < 0) {
+                throw new IOException("Неверная структура PNG");
+            }
+            String type = new String(data.readNBytes(4), StandardCharsets.US_ASCII);
+            long remaining = length + 4L; // данные и CRC
+            if (PNG_METADATA_CHUNKS.contains(type)) {
+                data.skipNBytes(remaining);
+                changed = true;
+            } else {
+                target.writeInt(length);
+                target.write(type.getBytes(StandardCharsets.US_ASCII));
+                copy(data, target, remaining);
+            }
+            if (type.equals("IEND")) {
+                target.flush();
+                return changed;
+            }
+        }
+    }
+
+    /**
+     * Копирует WebP без чанков EXIF и XMP и снимает их флаги в VP8X. Размер RIFF в заголовке
+     * зависит от удаленного, поэтому файл (не больше лимита загрузки) разбирается в памяти.
+     *
+     * @return true, если что-то удалено.
+     */
+    static boolean stripWebp(InputStream in, OutputStream out) throws IOException {
+        byte[] file = in.readAllBytes();
+        ByteBuffer riff = ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN);
+        if (file.length < 12 || !"RIFF".equals(new String(file, 0, 4, StandardCharsets.US_ASCII))
+                || !"WEBP".equals(new String(file, 8, 4, StandardCharsets.US_ASCII))) {
+            throw new IOException("Неверная структура WebP");
+        }
+        long end = Math.min(file.length, 8 + Integer.toUnsignedLong(riff.getInt(4)));
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream(file.length);
+        int flags = -1; // позиция флагов VP8X в новом файле
+        boolean changed = false;
+        int pos = 12;
+        while (pos + 8 <= end) {
+            String type = new String(file, pos, 4, StandardCharsets.US_ASCII);
+            long size = Integer.toUnsignedLong(riff.getInt(pos + 4));
+            long next = pos + 8 + size + (size & 1); // данные чанка выровнены до четной длины
+            if (next > end) {
+                throw new IOException("Неверная структура WebP");
+            }
+            if (WEBP_METADATA_CHUNKS.contains(type)) {
+                changed = true;
+            } else {
+                if (type.equals("VP8X") && size > 0) {
+                    flags = 12 + chunks.size() + 8;
+                }
+                chunks.write(file, pos, (int) (next - pos));
+            }
+            pos = (int) next;
+        }
+
+        byte[] body = chunks.toByteArray();
+        ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(4 + body.length)
+                .put("WEBP".getBytes(StandardCharsets.US_ASCII));
+        if (flags >= 0) {
+            body[flags - 12] &= (byte) ~VP8X_METADATA_FLAGS;
+        }
+        out.write(header.array());
+        out.write(body);
+        out.flush();
+        return changed;
+    }
+
+    /**
+     * Ориентация из EXIF первого сегмента APP1 JPEG (ищется до начала сжатых данных).
+     *
+     * @return значение тега Orientation; 0 - тега нет или файл не JPEG.
+     */
+    static int jpegOrientation(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readUnsignedShort() != 0xFFD8) {
+            return 0;
+        }
+        while (true) {
+            if (data.readUnsignedByte() != 0xFF) {
+                return 0;
+            }
+            int marker;
+            do {
+                marker = data.readUnsignedByte();
+            } while (marker == 0xFF);
+            if (marker == 0xDA || marker == 0xD9) {
+                return 0;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                continue;
+            }
+            int length = data.readUnsignedShort();
+            if (length < 2) {
+                return 0;
+            }
+            if (marker == 0xE1) {
+                int orientation = exifOrientation(data.readNBytes(length - 2));
+                if (orientation > 0) {
+                    return orientation;
+                }
+            } else {
+                data.skipNBytes(length - 2);
+            }
+        }
+    }
+
+    // Значение тега Orientation из IFD0; 0 - тега нет или EXIF не разобрать
+    static int exifOrientation(byte[] payload) {
+        if (payload.length < EXIF_HEADER.length + 8) {
+            return 0;
+        }
+        for (int i = 0; i < EXIF_HEADER.length; i++) {
+            if (payload[i] != EXIF_HEADER[i]) {
+                return 0;
+            }
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(payload, EXIF_HEADER.length, payload.length - EXIF_HEADER.length).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        if (ifd < 0 || ifd + 2 > tiff.limit()) {
+            return 0;
+        }
+        int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return 0;
+            }
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == EXIF_ORIENTATION_TAG) {
+                int value = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                return value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    // EXIF из одного тега Orientation (TIFF big-endian, один IFD)
+    private static byte[] orientationExif(int orientation) {
+        ByteBuffer buffer = ByteBuffer.allocate(EXIF_HEADER.length + 26).order(ByteOrder.BIG_ENDIAN);
+        buffer.put(EXIF_HEADER);
+        buffer.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) EXIF_ORIENTATION_TAG).putShort((short) 3).putInt(1)
+                .putShort((short) orientation).putShort((short) 0);
+        buffer.putInt(0); // следующего IFD нет
+        return buffer.array();
+    }
+
+    private static void copy(InputStream in, OutputStream out, long bytes) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (bytes > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, bytes));
+            if (read < 0) {
+                throw new IOException("Файл обрезан");
+            }
+            out.write(buffer, 0, read);
+            bytes -= read;
+        }
+    }
+
+    private static boolean startsWith(Path file, byte[] signature) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] head = in.readNBytes(signature.length);
+            return Arrays.equals(head, signature);
+        }
+    }
+}
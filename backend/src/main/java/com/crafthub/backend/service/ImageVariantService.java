@@ -0,0 +1,255 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.event.ImagesStoredEvent;
+import com.crafthub.backend.model.ImageVariant;
+import com.crafthub.backend.repository.ImageVariantRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Уменьшенные копии картинок товаров: превью для списков, корзины и чатов и веб-версия для страницы товара.
+ * Оригинал сохраняется как есть, а варианты генерируются в фоне после коммита транзакции -
+ * загрузка не ждет пережатия. Пул и очередь ограничены: при переполнении задача отбрасывается,
+ * и клиент просто получает оригинал (см. {@link #pickWidth(int)}).
+ * Варианты пишутся без метаданных, поэтому поворот из EXIF оригинала применяется к пикселям,
+ * а картинки больше image.processing.max-pixels не декодируются - тот же лимит, что и при загрузке.
+ */
+@Service
+public class ImageVariantService {
+
+    // Ширины вариантов по возрастанию
+    public static final int[] WIDTHS = {160, 480, 1080};
+
+    private static final String VARIANTS_DIR = "variants";
+
+    private final ImageVariantRepository imageVariantRepository;
+    private final String uploadPath;
+    private final float quality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor pool;
+
+    public ImageVariantService(ImageVariantRepository imageVariantRepository,
+                               @Value("${upload.path}") String uploadPath,
+                               @Value("${image.variants.quality:0.8}") float quality,
+                               @Value("${image.variants.threads:2}") int threads,
+                               @Value("${image.variants.queue-capacity:500}") int queueCapacity,
+                               @Value("${image.processing.max-pixels:40000000}") long maxPixels) {
+        this.imageVariantRepository = imageVariantRepository;
+        this.uploadPath = uploadPath;
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+        this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                (task, executor) -> System.err.println("Очередь генерации превью переполнена, задача пропущена"));
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Путь файла варианта: variants/<ширина>/<путь исходника>.jpg
+     */
+    public static String variantPath(String sourcePath, int width) {
+        return VARIANTS_DIR + "/" + width + "/" + sourcePath + ".jpg";
+    }
+
+    /**
+     * Наименьший вариант не уже запрошенной ширины; 0 - нужен оригинал.
+     */
+    public static int pickWidth(int requested) {
+        for (int width : WIDTHS) {
+            if (requested <= width) {
+                return width;
+            }
+        }
+        return 0;
+    }
+
+    // Слушатель срабатывает после коммита: при откате транзакции картинки не обрабатываются
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagesStored(ImagesStoredEvent event) {
+        event.paths().forEach(path -> pool.execute(() -> generate(path)));
+    }
+
+    void generate(String sourcePath) {
+        if (imageVariantRepository.existsBySourcePath(sourcePath)) {
+            return;
+        }
+        try {
+            BufferedImage source = read(resolve(sourcePath));
+            if (source == null) {
+                return; // не картинка, формат не поддерживается или слишком большая - отдаем оригинал
+            }
+
+            // От большего варианта к меньшему: каждый следующий уменьшается из предыдущего, а не из оригинала
+            List<ImageVariant> variants = new ArrayList<>();
+            BufferedImage current = source;
+            for (int i = WIDTHS.length - 1; i >= 0; i--) {
+                int width = WIDTHS[i];
+                // Не увеличиваем: если оригинал не шире варианта, клиент получит оригинал
+                if (source.getWidth() <= width) {
+                    continue;
+                }
+                int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+                current = scale(current, width, height);
+                String path = variantPath(sourcePath, width);
+                long bytes = writeJpeg(current, resolve(path));
+                variants.add(ImageVariant.builder()
+                        .sourcePath(sourcePath)
+                        .width(width)
+                        .path(path)
+                        .height(height)
+                        .bytes(bytes)
+                        .build());
+            }
+            imageVariantRepository.saveAll(variants);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Не удалось создать превью для " + sourcePath + ": " + e.getMessage());
+        }
+    }
+
+    // Размеры проверяются по заголовку до декодирования; JPEG поворачивается по EXIF
+    private BufferedImage read(Path file) throws IOException {
+        BufferedImage image;
+        String format;
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    System.err.println("Превью не создаются: изображение " + file.getFileName() + " слишком большое ("
+                            + reader.getWidth(0) + "x" + reader.getHeight(0) + ")");
+                    return null;
+                }
+                image = reader.read(0);
+                format = reader.getFormatName().toLowerCase(Locale.ROOT);
+            } finally {
+                reader.dispose();
+            }
+        }
+        if (!format.equals("jpeg")) {
+            return image;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return orient(image, ImageProcessingService.jpegOrientation(in));
+        }
+    }
+
+    /**
+     * Поворот и отражение по тегу EXIF Orientation (2-8), чтобы вариант выглядел как оригинал в браузере.
+     */
+    static BufferedImage orient(BufferedImage source, int orientation) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // отражение по горизонтали
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // 180°
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // отражение по вертикали
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // транспонирование
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // 90° по часовой
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // транспонирование через другую диагональ
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);   // 90° против часовой
+            default -> null;
+        };
+        if (transform == null) {
+            return source;
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage target = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Уменьшение в несколько шагов (не больше чем вдвое за шаг) - билинейная интерполяция
+     * за один большой шаг дает "лесенку", а шаги почти так же хороши, как дорогой area-averaging.
+     * Прозрачность заливается белым: JPEG ее не поддерживает.
+     */
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage step = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, Color.WHITE, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    // Пишем во временный файл и атомарно переименовываем - недописанный вариант никогда не отдается
+    private long writeJpeg(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "variant", ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(target);
+    }
+
+    private Path resolve(String relativePath) {
+        return Paths.get(uploadPath).resolve(relativePath).normalize();
+    }
+}
@@ -6,11 +6,15 @@ import com.crafthub.backend.model.User;
 import com.crafthub.backend.repository.NotificationRepository;
 import com.crafthub.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Сервис управления уведомлениями
@@ -21,6 +25,7 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     @Transactional
     public void createNotification(User user, String message, NotificationType type) {
@@ -33,6 +38,20 @@ public class NotificationService {
         notificationRepository.save(notification);
     }
 
+    // Пачка уведомлений одним batch-INSERT (массовые операции админа: по одному уведомлению на пользователя)
+    @Transactional
+    public void createNotifications(Map<Long, String> messagesByUserId, NotificationType type) {
+        if (messagesByUserId.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = messagesByUserId.entrySet().stream()
+                .map(e -> new Object[]{e.getKey(), e.getValue(), type.name(), false, now})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO notifications (user_id, message, type, is_read, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
     public List<Notification> getMyNotifications() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         User user = userRepository.findByEmail(email)
@@ -2,20 +2,27 @@ package com.crafthub.backend.service;
 
 import com.crafthub.backend.dto.request.OrderRequest;
 import com.crafthub.backend.dto.response.OrderResponse;
+import com.crafthub.backend.event.OrderCancelledEvent;
+import com.crafthub.backend.event.OrderPlacedEvent;
 import com.crafthub.backend.model.*;
 import com.crafthub.backend.repository.OrderRepository;
 import com.crafthub.backend.repository.ProductRepository;
 import com.crafthub.backend.repository.ReviewRepository;
 import com.crafthub.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
@@ -31,31 +38,61 @@ public class OrderService {
     private final CartService cartService;
     private final NotificationService notificationService;
     private final ReviewRepository reviewRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCardService productCardService;
+    private final StockReservationService stockReservationService;
 
     private record OrderItemData(Product product, int quantity) {
     }
 
     // Создание заказа:
-    // 1. Проверка остатков
-    // 2. Списание со склада
-    // 3. Создание "чека" (Order)
-    // 4. Очистка корзины
-    // 5. Уведомление продавца
+    // 1. Списание со склада: сначала бронь из корзины, недостающее - условным UPDATE; в том же проходе
+    //    по возрастанию id товара снимаются брони на товары, не вошедшие в заказ
+    // 2. Создание "чека" (Order)
+    // 3. Очистка корзины
+    // 4. Уведомление продавца
     @Transactional
     public List<OrderResponse> createOrder(OrderRequest request) {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         User buyer = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Покупатель не найден"));
 
-        List<OrderItemData> itemsData = new ArrayList<>();
+        // Одинаковые товары в запросе складываем; TreeMap задает порядок списания по id
+        Map<Long, Integer> quantities = new TreeMap<>();
         for (OrderRequest.OrderItemRequest itemReq : request.items()) {
-            Product product = productRepository.findById(itemReq.productId())
-                    .orElseThrow(() -> new RuntimeException("Товар не найден ID: " + itemReq.productId()));
+            quantities.merge(itemReq.productId(), itemReq.quantity(), Integer::sum);
+        }
+
+        List<OrderItemData> itemsData = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = productRepository.findById(entry.getKey())
+                    .orElseThrow(() -> new RuntimeException("Товар не найден ID: " + entry.getKey()));
+            // Остаток в товаре не проверяем: его проверяет условный UPDATE при списании
+            itemsData.add(new OrderItemData(product, entry.getValue()));
+        }
 
-            if (product.getStockQuantity() < itemReq.quantity()) {
+        // Списание до создания заказов и в одном порядке для всех транзакций: блокировки строк
+        // берутся по возрастанию id, поэтому встречные заказы не попадают в дедлок. Брони на товары,
+        // оставшиеся только в корзине, снимаются в том же проходе, а не после, когда строки
+        // товаров с большими id уже заблокированы
+        Map<Long, OrderItemData> itemsById = itemsData.stream()
+                .collect(Collectors.toMap(item -> item.product().getId(), item -> item));
+        Set<Long> productIds = new TreeSet<>(quantities.keySet());
+        productIds.addAll(stockReservationService.findReservedProductIds(buyer.getId()));
+        for (Long productId : productIds) {
+            OrderItemData itemData = itemsById.get(productId);
+            if (itemData == null) {
+                stockReservationService.release(buyer.getId(), productId);
+                continue;
+            }
+            Product product = itemData.product();
+            int held = stockReservationService.consume(buyer.getId(), product.getId(), itemData.quantity());
+            int missing = itemData.quantity() - held;
+            if (missing > 0 && productRepository.decrementStock(product.getId(), missing) == 0) {
+                // Остаток разобрали параллельные заказы - откат вернет уже списанное и брони
                 throw new IllegalStateException("Недостаточно товара на складе: " + product.getName());
             }
-            itemsData.add(new OrderItemData(product, itemReq.quantity()));
+            productCardService.refreshStock(product.getId());
         }
 
         Map<User, List<OrderItemData>> ordersBySeller = itemsData.stream()
@@ -80,9 +117,6 @@ public class OrderService {
             for (OrderItemData itemData : sellerItems) {
                 Product product = itemData.product();
 
-                product.setStockQuantity(product.getStockQuantity() - itemData.quantity());
-                productRepository.save(product);
-
                 OrderItem orderItem = OrderItem.builder()
                         .order(order)
                         .product(product)
@@ -97,6 +131,7 @@ public class OrderService {
             order.setItems(orderItems);
             order.setTotalAmount(sellerTotal);
             Order savedOrder = orderRepository.save(order);
+            eventPublisher.publishEvent(new OrderPlacedEvent(savedOrder.getId(), buyer.getId(), toEventItems(savedOrder)));
 
             notificationService.createNotification(seller,
                     "У вас новый заказ #" + savedOrder.getId() + " от " + buyer.getFullName(),
@@ -111,6 +146,12 @@ public class OrderService {
         return createdOrders;
     }
 
+    private List<OrderPlacedEvent.Item> toEventItems(Order order) {
+        return order.getItems().stream()
+                .map(item -> new OrderPlacedEvent.Item(item.getProduct().getId(), item.getQuantity()))
+                .toList();
+    }
+
     private OrderResponse mapToResponse(Order order) {
 
         User seller = order.getItems().get(0).getProduct().getSeller();
@@ -200,14 +241,17 @@ public class OrderService {
             throw new IllegalStateException("Нельзя отменить завершенный или уже отмененный заказ");
         }
 
-        for (OrderItem item : order.getItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
-        }
+        // Возврат остатков в том же порядке по id, что и при списании
+        order.getItems().stream()
+                .sorted(Comparator.comparing(item -> item.getProduct().getId()))
+                .forEach(item -> {
+                    productRepository.incrementStock(item.getProduct().getId(), item.getQuantity());
+                    productCardService.refreshStock(item.getProduct().getId());
+                });
 
         order.setStatus(OrderStatus.CANCELLED);
         order.setCancellationReason(reason);
+        eventPublisher.publishEvent(new OrderCancelledEvent(order.getId(), toEventItems(order)));
         orderRepository.save(order);
 
         notificationService.createNotification(
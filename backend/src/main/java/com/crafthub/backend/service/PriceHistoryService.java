@@ -0,0 +1,93 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.stats.PriceChange;
+import com.crafthub.backend.dto.stats.PricePoint;
+import com.crafthub.backend.model.ProductPriceHistory;
+import com.crafthub.backend.repository.ProductPriceHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * История цен товаров.
+ * Каждое изменение цены - новая строка; для графика строки за период сворачиваются
+ * в дневные точки (min/max/последняя цена) за один проход, без GROUP BY в БД.
+ */
+@Service
+@RequiredArgsConstructor
+public class PriceHistoryService {
+
+    private static final int MAX_DAYS = 3650;
+
+    private final ProductPriceHistoryRepository priceHistoryRepository;
+
+    // Записывает цену, действующую с текущего момента
+    public void record(Long productId, BigDecimal price) {
+        priceHistoryRepository.save(ProductPriceHistory.builder()
+                .productId(productId)
+                .price(price)
+                .changedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Дневной ряд цен товара за последние days дней (включая сегодня).
+     * Первая точка - первый день периода с ценой, действовавшей на его начало (если товар уже существовал),
+     * дальше - дни, когда цена менялась, и сегодняшний день с текущей ценой. Поэтому ряд не пустой,
+     * даже если цена последний раз менялась раньше начала периода.
+     */
+    @Transactional(readOnly = true)
+    public List<PricePoint> getDailySeries(Long productId, int days) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(Math.clamp(days, 1, MAX_DAYS) - 1L);
+        List<PriceChange> changes = new ArrayList<>(priceHistoryRepository.findLatestBefore(
+                productId, from.atStartOfDay(), PageRequest.of(0, 1)).stream()
+                .map(seed -> new PriceChange(from.atStartOfDay(), seed.price()))
+                .toList());
+        changes.addAll(priceHistoryRepository.findChanges(
+                productId, from.atStartOfDay(), today.plusDays(1).atStartOfDay()));
+        List<PricePoint> points = downsample(changes);
+
+        // Цена держится до сегодняшнего дня - продлеваем ряд
+        if (!points.isEmpty() && points.getLast().date().isBefore(today)) {
+            BigDecimal current = points.getLast().last();
+            points.add(new PricePoint(today, current, current, current));
+        }
+        return points;
+    }
+
+    // Строки уже отсортированы по времени: день закрывается, как только встречается следующий
+    static List<PricePoint> downsample(List<PriceChange> changes) {
+        List<PricePoint> points = new ArrayList<>();
+        LocalDate day = null;
+        BigDecimal min = null;
+        BigDecimal max = null;
+        BigDecimal last = null;
+        for (PriceChange change : changes) {
+            LocalDate changeDay = change.changedAt().toLocalDate();
+            if (!changeDay.equals(day)) {
+                if (day != null) {
+                    points.add(new PricePoint(day, min, max, last));
+                }
+                day = changeDay;
+                min = change.price();
+                max = change.price();
+            } else {
+                min = min.min(change.price());
+                max = max.max(change.price());
+            }
+            last = change.price();
+        }
+        if (day != null) {
+            points.add(new PricePoint(day, min, max, last));
+        }
+        return points;
+    }
+}
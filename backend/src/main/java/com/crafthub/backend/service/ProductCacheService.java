@@ -0,0 +1,72 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.CacheStatsResponse;
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.event.SellerRenamedEvent;
+import com.crafthub.backend.event.StockChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Кеш карточек товаров для страницы товара.
+ * Ограничен по размеру и по времени жизни записи. Одновременные промахи по одному id
+ * схлопываются в одну загрузку, остальные потоки ждут ее результат.
+ * Инвалидация точечная и только после коммита, поэтому в кеш не попадают незакоммиченные данные.
+ */
+@Service
+public class ProductCacheService {
+
+    private final Cache<Long, ProductResponse> cache;
+
+    public ProductCacheService(@Value("${product.cache.max-size:10000}") long maxSize,
+                               @Value("${product.cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Значение из кеша или единственная загрузка на все параллельные запросы
+    public ProductResponse get(Long productId, Function<Long, ProductResponse> loader) {
+        return cache.get(productId, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidate(event.product().id());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        cache.invalidate(event.productId());
+    }
+
+    // Имя продавца есть во всех его карточках; переименования редки, поэтому сбрасываем кеш целиком
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSellerRenamed(SellerRenamedEvent event) {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsResponse getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.loadCount(),
+                stats.loadFailureCount(),
+                stats.averageLoadPenalty() / 1_000_000.0,
+                stats.evictionCount()
+        );
+    }
+}
@@ -0,0 +1,69 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.event.SellerRenamedEvent;
+import com.crafthub.backend.event.StockChangedEvent;
+import com.crafthub.backend.model.Product;
+import com.crafthub.backend.model.ProductCard;
+import com.crafthub.backend.model.User;
+import com.crafthub.backend.repository.ProductCardRepository;
+import com.crafthub.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Поддержка денормализованных карточек товаров.
+ * Все методы работают в транзакции вызывающего кода: карточка меняется атомарно
+ * вместе с товаром, рейтингом или профилем продавца и никогда не расходится с ними.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductCardService {
+
+    private final ProductCardRepository productCardRepository;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Пересобрать карточку товара (создание, редактирование, модерация, картинки, рейтинг, остаток).
+    // Остаток и брони в загруженной сущности могли устареть из-за параллельного заказа - перечитываем их под блокировкой
+    @Transactional
+    public void refresh(Product product) {
+        ProductRepository.StockLevel level = productRepository.lockStockLevelById(product.getId());
+        product.setStockQuantity(level.getStockQuantity());
+        product.setReservedQuantity(level.getReservedQuantity());
+        ProductCard card = productCardRepository.findById(product.getId())
+                .orElseGet(ProductCard::new);
+        card.copyFrom(product);
+        productCardRepository.save(card);
+    }
+
+    // Продавец сменил имя - обновляем все его карточки одним UPDATE
+    @Transactional
+    public void refreshSeller(User seller) {
+        int updated = productCardRepository.updateSellerName(seller.getId(), seller.getFullName());
+        if (updated > 0) {
+            eventPublisher.publishEvent(new SellerRenamedEvent(seller.getId()));
+        }
+    }
+
+    // Остаток или брони изменены условным UPDATE в обход сущности - переносим свободный остаток
+    // в карточку и слушателям (поиск, фасеты)
+    @Transactional
+    public void refreshStock(Long productId) {
+        ProductRepository.StockLevel level = productRepository.findStockLevelById(productId);
+        productCardRepository.updateStock(productId, level.getAvailableQuantity(), level.getReservedQuantity());
+        eventPublisher.publishEvent(new StockChangedEvent(productId, level.getAvailableQuantity()));
+    }
+
+    // Полная пересборка карточек (после генерации тестовых данных в обход сервисов)
+    @Transactional
+    public void rebuildAll() {
+        // Товары и картинки могли меняться через JDBC - перечитываем их из БД, а не из кеша сессии
+        entityManager.flush();
+        entityManager.clear();
+        productRepository.findAll().forEach(this::refresh);
+    }
+}
@@ -0,0 +1,760 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.request.ProductImportRow;
+import com.crafthub.backend.dto.request.ProductRequest;
+import com.crafthub.backend.dto.response.ImportReport;
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.event.ImagesStoredEvent;
+import com.crafthub.backend.model.Category;
+import com.crafthub.backend.model.ProductCardImagesConverter;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.model.User;
+import com.crafthub.backend.repository.CategoryRepository;
+import com.crafthub.backend.repository.UserRepository;
+import com.crafthub.backend.service.FileStorageService.StagedFile;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт товаров продавца из CSV или NDJSON.
+ * Файл читается построчно и целиком в память не загружается. Строки проверяются по ограничениям
+ * ProductRequest, копятся пачками и вставляются JDBC-батчами (товары, картинки, карточки, начальная цена в истории) -
+ * по одной транзакции на пачку. Картинки по ссылкам скачиваются параллельно на ограниченном пуле потоков
+ * и проходят ту же проверку, что и загруженные вручную (ImageProcessingService): заголовку Content-Type
+ * удаленного сервера не доверяем, формат и расширение файла определяются по содержимому.
+ * Импортированные товары, как и созданные вручную, получают статус PENDING и ждут модерации.
+ */
+@Service
+public class ProductImportService {
+
+    private static final int MAX_IMAGES = 10;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_IMAGE_BYTES = 5 * 1024 * 1024;
+    private static final Duration DOWNLOAD_TIMEOUT = Duration.ofSeconds(15);
+    private static final int MAX_REDIRECTS = 5;
+
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+    private static final ProductCardImagesConverter IMAGES_CONVERTER = new ProductCardImagesConverter();
+
+    private static final String INSERT_PRODUCT = "INSERT INTO products (name, description, price, stock_quantity, " +
+            "reserved_quantity, youtube_video_id, status, category_id, seller_id, average_rating, reviews_count, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, 0, ?, ?, ?, ?, 0, 0, ?, ?)";
+    private static final String INSERT_IMAGE = "INSERT INTO product_images (product_id, image_url, is_main) VALUES (?, ?, ?)";
+    private static final String INSERT_CARD = "INSERT INTO product_cards (product_id, name, description, price, " +
+            "stock_quantity, reserved_quantity, youtube_video_id, status, category_id, category_display_name, seller_id, " +
+            "seller_name, seller_email, average_rating, reviews_count, images, created_at, version, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?, 0, ?)";
+    private static final String INSERT_PRICE = "INSERT INTO product_price_history (product_id, price, changed_at) VALUES (?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final FileStorageService fileStorageService;
+    private final ImageProcessingService imageProcessingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int batchSize;
+    private final long maxFileBytes;
+    private final ThreadPoolExecutor imagePool;
+    private final CloseableHttpClient httpClient;
+
+    // Категории меняются только миграциями - справочник читаем один раз
+    private volatile Map<String, Category> categories;
+
+    public ProductImportService(UserRepository userRepository,
+                                CategoryRepository categoryRepository,
+                                FileStorageService fileStorageService,
+                                ImageProcessingService imageProcessingService,
+                                JdbcTemplate jdbcTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                @Value("${product.import.batch-size:500}") int batchSize,
+                                @Value("${product.import.max-file-size:20MB}") DataSize maxFileSize,
+                                @Value("${product.import.image-threads:16}") int imageThreads) {
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.fileStorageService = fileStorageService;
+        this.imageProcessingService = imageProcessingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxFileBytes = maxFileSize.toBytes();
+        // Очередь ограничена: когда она полна, картинку качает поток импорта - так память не растет
+        this.imagePool = new ThreadPoolExecutor(imageThreads, imageThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(imageThreads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.imagePool.allowCoreThreadTimeOut(true);
+        // Ссылки присылает продавец: соединение открывается только с адресами, которые прошли проверку
+        // в PublicDnsResolver, а редиректы разбираются вручную - каждый переход проходит ту же проверку
+        Timeout timeout = Timeout.of(DOWNLOAD_TIMEOUT);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setDnsResolver(new PublicDnsResolver())
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(timeout)
+                                .setSocketTimeout(timeout)
+                                .build())
+                        .setMaxConnTotal(imageThreads)
+                        .setMaxConnPerRoute(imageThreads)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom().setResponseTimeout(timeout).build())
+                .disableRedirectHandling()
+                .disableAutomaticRetries()
+                .disableCookieManagement()
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        imagePool.shutdownNow();
+        httpClient.close();
+    }
+
+    /**
+     * Импортирует товары текущего продавца из тела запроса.
+     * Формат определяется по имени файла: .ndjson / .jsonl - NDJSON, иначе CSV с заголовком.
+     * Размер ограничен product.import.max-file-size: заявленный размер проверяется до чтения, а поток без
+     * заявленного размера обрывается на лимите (пачки, вставленные до этого, остаются).
+     *
+     * @param contentLength заявленный размер тела; -1 - неизвестен.
+     * @throws IllegalArgumentException файл больше лимита.
+     */
+    public ImportReport importProducts(InputStream body, long contentLength, String fileName) {
+        if (contentLength > maxFileBytes) {
+            throw new IllegalArgumentException(tooLargeMessage());
+        }
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        User seller = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Продавец не найден"));
+
+        ImportRun run = new ImportRun(seller);
+        InputStream limited = new LimitedInputStream(body, maxFileBytes);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(limited, StandardCharsets.UTF_8))) {
+            if (isNdjson(fileName)) {
+                readNdjson(reader, run);
+            } else {
+                readCsv(reader, run);
+            }
+            run.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось прочитать файл: " + e.getMessage());
+        }
+        return run.report();
+    }
+
+    private String tooLargeMessage() {
+        return maxFileBytes >= 1024 * 1024
+                ? "Файл импорта больше " + maxFileBytes / (1024 * 1024) + " МБ"
+                : "Файл импорта больше " + maxFileBytes / 1024 + " КБ";
+    }
+
+    // Поток, который бросает исключение, как только прочитано больше limit байт
+    private class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            count(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            count(n);
+            return n;
+        }
+
+        private void count(int n) {
+            if (n > 0) {
+                remaining -= n;
+                if (remaining < 0) {
+                    throw new IllegalArgumentException(tooLargeMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean isNdjson(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl");
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        long number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (number == 1) {
+                line = stripBom(line);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            ProductImportRow row;
+            try {
+                row = MAPPER.readValue(line, ProductImportRow.class);
+            } catch (JacksonException e) {
+                run.reject(number, "Некорректный JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.accept(number, row);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).toLowerCase(Locale.ROOT).replaceAll("[\\s_]", ""), i);
+        }
+        for (String required : List.of("name", "price", "stockquantity", "category")) {
+            if (!columns.containsKey(required)) {
+                throw new RuntimeException("В файле нет колонки " + required);
+            }
+        }
+
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            long line = csv.recordLine;
+            try {
+                String images = column(fields, columns, "images");
+                run.accept(line, new ProductImportRow(
+                        column(fields, columns, "name"),
+                        column(fields, columns, "description"),
+                        parse(column(fields, columns, "price"), v -> new BigDecimal(v.replace(',', '.')), "цена"),
+                        parse(column(fields, columns, "stockquantity"), Integer::valueOf, "количество"),
+                        column(fields, columns, "category"),
+                        column(fields, columns, "youtubevideoid"),
+                        images == null ? List.of() : Arrays.asList(images.split("\\|")),
+                        parse(column(fields, columns, "mainimageindex"), Integer::valueOf, "индекс главной картинки")
+                ));
+            } catch (IllegalArgumentException e) {
+                run.reject(line, e.getMessage());
+            }
+        }
+    }
+
+    // Значение колонки без пробелов по краям; пустое значение или отсутствующая колонка - null
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser, String what) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректное значение (" + what + "): " + value);
+        }
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    // Категория по id, системному имени или отображаемому имени (без учета регистра)
+    private Category resolveCategory(String value) {
+        Map<String, Category> map = categories;
+        if (map == null) {
+            map = new HashMap<>();
+            for (Category category : categoryRepository.findAll()) {
+                map.put(String.valueOf(category.getId()), category);
+                map.put(category.getName().toLowerCase(Locale.ROOT), category);
+                map.put(category.getDisplayName().toLowerCase(Locale.ROOT), category);
+            }
+            categories = map;
+        }
+        return map.get(value.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Скачивает картинку по ссылке во временную папку товаров; проверяет ее вызывающий код.
+     * Выполняется на пуле imagePool; любая ошибка делает строку импорта ошибочной.
+     */
+    private StagedFile downloadImage(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Некорректная ссылка на картинку: " + url);
+        }
+
+        try {
+            for (int redirects = 0; ; redirects++) {
+                checkScheme(uri, url);
+                Download download = httpClient.execute(new HttpGet(uri), response -> {
+                    int status = response.getCode();
+                    if (status == 301 || status == 302 || status == 303 || status == 307 || status == 308) {
+                        Header location = response.getFirstHeader(HttpHeaders.LOCATION);
+                        return new Download(location != null ? location.getValue() : null, null);
+                    }
+                    if (status != 200) {
+                        throw new RuntimeException("Картинка недоступна (HTTP " + status + "): " + url);
+                    }
+                    HttpEntity entity = response.getEntity();
+                    if (entity == null) {
+                        throw new RuntimeException("По ссылке пустой ответ: " + url);
+                    }
+                    try (InputStream body = entity.getContent()) {
+                        byte[] bytes = body.readNBytes(MAX_IMAGE_BYTES + 1);
+                        if (bytes.length > MAX_IMAGE_BYTES) {
+                            throw new RuntimeException("Картинка больше " + MAX_IMAGE_BYTES / (1024 * 1024) + " МБ: " + url);
+                        }
+                        return new Download(null, bytes);
+                    }
+                });
+                if (download.body() != null) {
+                    // Имя без расширения: его задаст проверка по распознанному формату
+                    return fileStorageService.stage(new ByteArrayInputStream(download.body()), "image", "products");
+                }
+                if (download.location() == null || redirects == MAX_REDIRECTS) {
+                    throw new RuntimeException("Слишком много переадресаций или пустой адрес переадресации: " + url);
+                }
+                uri = uri.resolve(new URI(download.location()));
+            }
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Некорректная переадресация по ссылке " + url + ": " + e.getMessage());
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось скачать картинку " + url + ": " + e.getMessage());
+        }
+    }
+
+    // Ответ на один запрос: адрес переадресации или содержимое картинки
+    private record Download(String location, byte[] body) {
+    }
+
+    private static void checkScheme(URI uri, String url) {
+        if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+            throw new RuntimeException("Картинки загружаются только по http(s): " + url);
+        }
+    }
+
+    /**
+     * Резолвер, который отдает клиенту только публичные адреса. Клиент соединяется ровно с теми адресами,
+     * которые вернул резолвер, поэтому повторный DNS-запрос с другим ответом (DNS rebinding) ничего не даст.
+     */
+    private static class PublicDnsResolver implements DnsResolver {
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            InetAddress[] addresses = InetAddress.getAllByName(host);
+            for (InetAddress address : addresses) {
+                if (!isPublicAddress(address)) {
+                    throw new UnknownHostException("адрес " + address.getHostAddress() + " не является публичным");
+                }
+            }
+            return addresses;
+        }
+
+        @Override
+        public String resolveCanonicalHostname(String host) throws UnknownHostException {
+            return resolve(host)[0].getCanonicalHostName();
+        }
+    }
+
+    /**
+     * Адрес доступен из интернета: не loopback, не частная сеть, не link-local (в том числе
+     * 169.254.169.254 - метаданные облака), не служебные и не документационные диапазоны.
+     * IPv6-адреса со встроенным IPv4 (mapped, compatible, NAT64, 6to4) проверяются по встроенному адресу.
+     */
+    static boolean isPublicAddress(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] b = address.getAddress();
+        if (address instanceof Inet4Address) {
+            int a0 = b[0] & 0xFF;
+            int a1 = b[1] & 0xFF;
+            int a2 = b[2] & 0xFF;
+            return a0 != 0                                          // 0.0.0.0/8
+                    && !(a0 == 100 && (a1 & 0xC0) == 64)            // 100.64.0.0/10 (CGNAT)
+                    && !(a0 == 192 && a1 == 0 && (a2 == 0 || a2 == 2)) // 192.0.0.0/24, 192.0.2.0/24
+                    && !(a0 == 198 && (a1 & 0xFE) == 18)            // 198.18.0.0/15
+                    && !(a0 == 198 && a1 == 51 && a2 == 100)        // 198.51.100.0/24
+                    && !(a0 == 203 && a1 == 0 && a2 == 113)         // 203.0.113.0/24
+                    && a0 < 240;                                    // 240.0.0.0/4 и broadcast
+        }
+        if (address instanceof Inet6Address) {
+            if ((b[0] & 0xFE) == 0xFC) {
+                return false; // fc00::/7 (ULA)
+            }
+            if ((b[0] & 0xFF) == 0x20 && (b[1] & 0xFF) == 0x01 && (b[2] & 0xFF) == 0x0D && (b[3] & 0xFF) == 0xB8) {
+                return false; // 2001:db8::/32
+            }
+            if ((b[0] & 0xFF) == 0x20 && (b[1] & 0xFF) == 0x01 && b[2] == 0 && b[3] == 0) {
+                return false; // 2001::/32 (Teredo)
+            }
+            if ((b[0] & 0xFF) == 0x20 && (b[1] & 0xFF) == 0x02) {
+                return isPublicAddress(embeddedIpv4(b, 2)); // 2002::/16 (6to4)
+            }
+            boolean zeroPrefix = true;
+            for (int i = 0; i < 10; i++) {
+                zeroPrefix &= b[i] == 0;
+            }
+            boolean mapped = zeroPrefix && (b[10] & 0xFF) == 0xFF && (b[11] & 0xFF) == 0xFF;
+            boolean compatible = zeroPrefix && b[10] == 0 && b[11] == 0;
+            boolean nat64 = b[0] == 0 && (b[1] & 0xFF) == 0x64 && (b[2] & 0xFF) == 0xFF && (b[3] & 0xFF) == 0x9B;
+            if (mapped || compatible || nat64) {
+                return isPublicAddress(embeddedIpv4(b, 12));
+            }
+        }
+        return true;
+    }
+
+    private static InetAddress embeddedIpv4(byte[] bytes, int offset) {
+        try {
+            return InetAddress.getByAddress(new byte[]{bytes[offset], bytes[offset + 1], bytes[offset + 2], bytes[offset + 3]});
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e); // 4 байта - всегда корректный IPv4
+        }
+    }
+
+    private record PendingRow(long line, ProductRequest request, Category category, List<String> imageUrls) {
+    }
+
+    private record ReadyRow(PendingRow row, List<StagedFile> images) {
+    }
+
+    /**
+     * Состояние одного импорта: текущая пачка, счетчики и ошибки.
+     */
+    private class ImportRun {
+        private final User seller;
+        private final List<PendingRow> batch = new ArrayList<>();
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        ImportRun(User seller) {
+            this.seller = seller;
+        }
+
+        void accept(long line, ProductImportRow row) {
+            int mainImageIndex = row.mainImageIndex() != null ? row.mainImageIndex() : 0;
+            Category category = row.category() != null ? resolveCategory(row.category()) : null;
+            ProductRequest request = new ProductRequest(row.name(), row.description(), row.price(), row.stockQuantity(),
+                    category != null ? category.getId() : null, row.youtubeVideoId(), mainImageIndex);
+
+            if (row.category() != null && category == null) {
+                reject(line, "Категория не найдена: " + row.category());
+                return;
+            }
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(line, violations.stream().map(ConstraintViolation::getMessage).sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (row.name().length() > MAX_NAME_LENGTH) {
+                reject(line, "Название длиннее " + MAX_NAME_LENGTH + " символов");
+                return;
+            }
+            List<String> images = row.images() == null ? List.of() : row.images().stream()
+                    .filter(url -> url != null && !url.isBlank())
+                    .map(String::trim)
+                    .toList();
+            if (images.size() > MAX_IMAGES) {
+                reject(line, "Не больше " + MAX_IMAGES + " картинок на товар");
+                return;
+            }
+            if (mainImageIndex < 0 || (!images.isEmpty() && mainImageIndex >= images.size())) {
+                reject(line, "Индекс главной картинки вне списка картинок: " + mainImageIndex);
+                return;
+            }
+
+            batch.add(new PendingRow(line, request, category, images));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+
+        // Картинки всей пачки качаются параллельно, затем пачка вставляется одной транзакцией
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<List<CompletableFuture<StagedFile>>> downloads = batch.stream()
+                    .map(row -> row.imageUrls().stream()
+                            .map(url -> CompletableFuture.supplyAsync(() -> downloadImage(url), imagePool))
+                            .toList())
+                    .toList();
+
+            List<ReadyRow> ready = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                PendingRow row = batch.get(i);
+                List<StagedFile> staged = new ArrayList<>();
+                String error = null;
+                for (CompletableFuture<StagedFile> download : downloads.get(i)) {
+                    try {
+                        staged.add(download.join());
+                    } catch (CompletionException e) {
+                        error = e.getCause().getMessage();
+                    }
+                }
+                if (error == null) {
+                    // Картинки строки проверяются одним запросом к пулу обработки, как фото одного товара
+                    try {
+                        staged = imageProcessingService.process(staged, false);
+                    } catch (RuntimeException e) {
+                        error = "Картинка по ссылке не принята: " + e.getMessage();
+                    }
+                }
+                if (error != null) {
+                    fileStorageService.discard(staged);
+                    reject(row.line(), error);
+                } else {
+                    ready.add(new ReadyRow(row, staged));
+                }
+            }
+            batch.clear();
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(ready));
+                imported += ready.size();
+            } catch (DataAccessException e) {
+                for (ReadyRow row : ready) {
+                    reject(row.row().line(), "Ошибка сохранения: " + e.getMostSpecificCause().getMessage());
+                }
+            } finally {
+                // Опубликованные файлы уже перенесены, временные файлы откаченной пачки удаляются
+                ready.forEach(row -> fileStorageService.discard(row.images()));
+            }
+        }
+
+        private void insert(List<ReadyRow> rows) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_PRODUCT, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ProductRequest request = rows.get(i).row().request();
+                            ps.setString(1, request.name());
+                            ps.setString(2, request.description());
+                            ps.setBigDecimal(3, request.price());
+                            ps.setInt(4, request.stockQuantity());
+                            ps.setString(5, request.youtubeVideoId());
+                            ps.setString(6, ProductStatus.PENDING.name());
+                            ps.setLong(7, request.categoryId());
+                            ps.setLong(8, seller.getId());
+                            ps.setTimestamp(9, now);
+                            ps.setTimestamp(10, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return rows.size();
+                        }
+                    }, keys);
+
+            List<Object[]> images = new ArrayList<>();
+            List<Object[]> cards = new ArrayList<>(rows.size());
+            List<Object[]> prices = new ArrayList<>(rows.size());
+            List<Map<String, Object>> keyList = keys.getKeyList();
+            for (int i = 0; i < rows.size(); i++) {
+                long productId = ((Number) keyList.get(i).values().iterator().next()).longValue();
+                PendingRow row = rows.get(i).row();
+                ProductRequest request = row.request();
+
+                List<ProductResponse.ImageResponse> cardImages = new ArrayList<>();
+                List<StagedFile> staged = rows.get(i).images();
+                for (int j = 0; j < staged.size(); j++) {
+                    // Файл переносится на место после коммита пачки, при откате удаляется
+                    String path = fileStorageService.commitStaged(staged.get(j));
+                    boolean isMain = j == request.mainImageIndex();
+                    images.add(new Object[]{productId, path, isMain});
+                    cardImages.add(new ProductResponse.ImageResponse(path, isMain));
+                }
+
+                cards.add(new Object[]{productId, request.name(), request.description(), request.price(),
+                        request.stockQuantity(), request.youtubeVideoId(), ProductStatus.PENDING.name(),
+                        row.category().getId(), row.category().getDisplayName(), seller.getId(),
+                        seller.getFullName(), seller.getEmail(), IMAGES_CONVERTER.convertToDatabaseColumn(cardImages),
+                        now, now});
+                prices.add(new Object[]{productId, request.price(), now});
+            }
+            if (!images.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_IMAGE, images);
+                // Превью генерируются после коммита пачки
+                eventPublisher.publishEvent(new ImagesStoredEvent(images.stream().map(image -> (String) image[1]).toList()));
+            }
+            jdbcTemplate.batchUpdate(INSERT_CARD, cards);
+            jdbcTemplate.batchUpdate(INSERT_PRICE, prices);
+        }
+
+        ImportReport report() {
+            return new ImportReport(imported + failed, imported, failed, List.copyOf(errors));
+        }
+    }
+
+    /**
+     * Потоковый разбор CSV: поля в кавычках (с "" внутри и переводами строк), разделитель ',' или ';'
+     * (определяется по заголовку - Excel с русской локалью сохраняет через ';').
+     */
+    private static class CsvReader {
+        private final BufferedReader reader;
+        private char delimiter = ',';
+        private long line;
+        long recordLine;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        List<String> next() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            recordLine = line;
+            if (line == 1) {
+                text = stripBom(text);
+                delimiter = count(text, ';') > count(text, ',') ? ';' : ',';
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // Перевод строки внутри кавычек - часть значения
+                    String more = reader.readLine();
+                    if (more == null) {
+                        break;
+                    }
+                    line++;
+                    field.append('\n');
+                    text = more;
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private static long count(String text, char c) {
+            return text.chars().filter(ch -> ch == c).count();
+        }
+    }
+}
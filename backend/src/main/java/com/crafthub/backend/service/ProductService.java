@@ -1,19 +1,46 @@
 package com.crafthub.backend.service;
 
+import com.crafthub.backend.dto.request.AdminProductFilter;
+import com.crafthub.backend.dto.request.CatalogCursor;
+import com.crafthub.backend.dto.request.CatalogFilter;
+import com.crafthub.backend.dto.request.CatalogSort;
 import com.crafthub.backend.dto.request.ProductRequest;
+import com.crafthub.backend.dto.response.BulkModerationResponse;
+import com.crafthub.backend.dto.response.CatalogFacetsResponse;
+import com.crafthub.backend.dto.response.CatalogPageResponse;
+import com.crafthub.backend.dto.response.DataVersion;
+import com.crafthub.backend.dto.response.ProductDetailsResponse;
+import com.crafthub.backend.dto.response.ProductPageResponse;
 import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.dto.response.SellerInventoryResponse;
+import com.crafthub.backend.event.ImagesStoredEvent;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.event.ProductViewedEvent;
+import com.crafthub.backend.index.ProductSnapshot;
 import com.crafthub.backend.model.*;
 import com.crafthub.backend.repository.CategoryRepository;
+import com.crafthub.backend.repository.ProductCardRepository;
 import com.crafthub.backend.repository.ProductRepository;
+import com.crafthub.backend.repository.ProductSpecifications;
 import com.crafthub.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,15 +50,30 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+    private static final int MAX_NOTIFICATION_LENGTH = 500; // notifications.message
+    private static final int MAX_LISTED_NAMES_LENGTH = 300; // остальные товары в уведомлении - "и еще N"
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
     private final NotificationService notificationService;
-
-    // Создание товара (статус PENDING - ждет проверки админом)
+    private final ApplicationEventPublisher eventPublisher;
+    private final FacetService facetService;
+    private final ProductCardRepository productCardRepository;
+    private final ProductCardService productCardService;
+    private final ProductCacheService productCacheService;
+    private final PriceHistoryService priceHistoryService;
+    private final StockReservationService stockReservationService;
+
+    /**
+     * Создание товара (статус PENDING - ждет проверки админом).
+     *
+     * @param images фото, уже записанные во временную папку ({@link FileStorageService#stageAll}).
+     */
     @Transactional
-    public ProductResponse createProduct(ProductRequest request, List<MultipartFile> images) {
+    public ProductResponse createProduct(ProductRequest request, List<FileStorageService.StagedFile> images) {
 
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         User seller = userRepository.findByEmail(email)
@@ -53,7 +95,7 @@ public class ProductService {
 
         List<ProductImage> productImages = new ArrayList<>();
         for (int i = 0; i < images.size(); i++) {
-            String path = fileStorageService.saveFile(images.get(i), "products");
+            String path = fileStorageService.commitStaged(images.get(i));
             productImages.add(ProductImage.builder()
                     .imageUrl(path)
                     .isMain(i == request.mainImageIndex())
@@ -63,20 +105,77 @@ public class ProductService {
         product.setImages(productImages);
 
         Product savedProduct = productRepository.save(product);
+        priceHistoryService.record(savedProduct.getId(), savedProduct.getPrice());
+        syncReadModels(savedProduct);
+        publishImagesStored(productImages);
         return mapToResponse(savedProduct);
     }
 
     // Получить все апрувнутые товары
     public List<ProductResponse> getAllActiveProducts() {
-        return productRepository.findAllByStatus(ProductStatus.ACTIVE).stream()
-                .map(this::mapToResponse)
+        return productCardRepository.findAllByStatusOrderByCreatedAtDesc(ProductStatus.ACTIVE).stream()
+                .map(ProductCard::toResponse)
                 .collect(Collectors.toList());
     }
 
+    // Версия списка активных товаров для ETag (один агрегатный запрос вместо загрузки списка)
+    public DataVersion getActiveProductsVersion() {
+        return productCardRepository.getVersionByStatus(ProductStatus.ACTIVE);
+    }
+
+    // Версия карточки товара для ETag; пусто, если товара нет
+    public Optional<DataVersion> getProductVersion(Long id) {
+        return productCardRepository.findVersion(id);
+    }
+
+    /**
+     * Страница каталога с keyset-пагинацией.
+     * Вместо OFFSET продолжаем выборку строго после последнего товара предыдущей страницы,
+     * поэтому глубокие страницы стоят столько же, сколько первая.
+     */
+    @Transactional(readOnly = true)
+    public CatalogPageResponse getCatalogPage(CatalogFilter filter, CatalogSort sort, String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_CATALOG_PAGE_SIZE);
+        CatalogCursor after = (cursor == null || cursor.isBlank()) ? null : CatalogCursor.decode(cursor, sort);
+
+        // Берем на одну запись больше, чтобы узнать, есть ли следующая страница, без COUNT
+        List<ProductCard> rows = productCardRepository.findBy(
+                ProductSpecifications.catalog(filter, after),
+                query -> query.sortBy(sort.toSort()).limit(pageSize + 1).all());
+
+        CatalogFacetsResponse facets = after == null ? facetService.getFacets(filter) : null;
+        return toPage(rows, pageSize, sort, facets);
+    }
+
+    /**
+     * Очередь модерации постранично, начиная с самых давних заявок.
+     * Курсор - (createdAt, id) последнего товара, поэтому одобренные с предыдущей страницы товары
+     * не сдвигают следующую, как это было бы с OFFSET.
+     */
+    @Transactional(readOnly = true)
+    public CatalogPageResponse getPendingPage(String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_CATALOG_PAGE_SIZE);
+        CatalogCursor after = (cursor == null || cursor.isBlank()) ? null : CatalogCursor.decode(cursor, CatalogSort.OLDEST);
+
+        List<ProductCard> rows = productCardRepository.findBy(
+                ProductSpecifications.moderationQueue(after),
+                query -> query.sortBy(CatalogSort.OLDEST.toSort()).limit(pageSize + 1).all());
+        return toPage(rows, pageSize, CatalogSort.OLDEST, null);
+    }
+
+    // rows выбраны с запасом в одну запись: она говорит, что есть следующая страница
+    private CatalogPageResponse toPage(List<ProductCard> rows, int pageSize, CatalogSort sort, CatalogFacetsResponse facets) {
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductCard> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? CatalogCursor.after(sort, page.get(page.size() - 1)).encode() : null;
+
+        return new CatalogPageResponse(page.stream().map(ProductCard::toResponse).toList(), nextCursor, hasMore, facets);
+    }
+
     // Получить все товары на ожидании модерации (для админа)
     public List<ProductResponse> getPendingProducts() {
-        return productRepository.findAllByStatus(ProductStatus.PENDING).stream()
-                .map(this::mapToResponse)
+        return productCardRepository.findAllByStatusOrderByCreatedAtDesc(ProductStatus.PENDING).stream()
+                .map(ProductCard::toResponse)
                 .collect(Collectors.toList());
     }
 
@@ -91,7 +190,8 @@ public class ProductService {
                 product.getName(),
                 product.getDescription(),
                 product.getPrice(),
-                product.getStockQuantity(),
+                product.getAvailableQuantity(),
+                product.getReservedQuantity(),
                 product.getYoutubeVideoId(),
                 product.getStatus().name(),
                 product.getCategory().getDisplayName(),
@@ -110,12 +210,41 @@ public class ProductService {
         User seller = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Продавец не найден"));
 
-        return productRepository.findAllBySellerId(seller.getId()).stream()
-                .filter(p -> p.getStatus() != ProductStatus.DELETED)
-                .map(this::mapToResponse)
+        return productCardRepository.findAllBySellerIdAndStatusNotOrderByCreatedAtDesc(seller.getId(), ProductStatus.DELETED).stream()
+                .map(ProductCard::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Страница "Мои товары" со счетчиками для вкладок.
+     * Фильтр по статусу, сортировка и страница - в БД; счетчики - один GROUP BY по статусам.
+     */
+    @Transactional(readOnly = true)
+    public SellerInventoryResponse getMyInventory(ProductStatus status, CatalogSort sort, int page, int size) {
+        if (status == ProductStatus.DELETED) {
+            throw new IllegalArgumentException("Удаленные товары не показываются");
+        }
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        User seller = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Продавец не найден"));
+
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_CATALOG_PAGE_SIZE), sort.toSort());
+        Page<ProductCard> cards = status != null
+                ? productCardRepository.findAllBySellerIdAndStatus(seller.getId(), status, pageable)
+                : productCardRepository.findAllBySellerIdAndStatusNot(seller.getId(), ProductStatus.DELETED, pageable);
+
+        Map<ProductStatus, Long> counts = new EnumMap<>(ProductStatus.class);
+        for (ProductStatus s : ProductStatus.values()) {
+            if (s != ProductStatus.DELETED) {
+                counts.put(s, 0L);
+            }
+        }
+        productCardRepository.countBySellerIdGroupByStatus(seller.getId(), ProductStatus.DELETED)
+                .forEach(c -> counts.put(c.status(), c.count()));
+
+        return new SellerInventoryResponse(ProductPageResponse.of(cards.map(ProductCard::toResponse)), counts);
+    }
+
     // Подтвердить товар
     @Transactional
     public void approveProduct(Long productId) {
@@ -124,6 +253,7 @@ public class ProductService {
 
         product.setStatus(ProductStatus.ACTIVE);
         productRepository.save(product);
+        syncReadModels(product);
 
         notificationService.createNotification(
                 product.getSeller(),
@@ -141,6 +271,7 @@ public class ProductService {
         product.setStatus(ProductStatus.REJECTED);
         product.setModerationComment(reason);
         productRepository.save(product);
+        syncReadModels(product);
 
         notificationService.createNotification(
                 product.getSeller(),
@@ -149,11 +280,120 @@ public class ProductService {
         );
     }
 
-    // Получить товар по айди
+    // Массовое одобрение товаров из очереди модерации
+    @Transactional
+    public BulkModerationResponse approveProducts(List<Long> ids) {
+        return moderate(ids, Set.of(ProductStatus.PENDING), ProductStatus.ACTIVE, null,
+                names -> names.size() == 1
+                        ? "Ваш товар " + names.get(0) + " успешно прошел модерацию!"
+                        : "Ваши товары (" + names.size() + ") успешно прошли модерацию: " + listNames(names));
+    }
+
+    // Массовое отклонение товаров из очереди модерации
+    @Transactional
+    public BulkModerationResponse rejectProducts(List<Long> ids, String reason) {
+        requireReason(reason);
+        return moderate(ids, Set.of(ProductStatus.PENDING), ProductStatus.REJECTED, reason,
+                names -> names.size() == 1
+                        ? "Товар " + names.get(0) + " отклонен. Причина: " + reason
+                        : "Товары (" + names.size() + ") отклонены: " + listNames(names) + ". Причина: " + reason);
+    }
+
+    // Массовое снятие с публикации активных товаров
+    @Transactional
+    public BulkModerationResponse suspendProducts(List<Long> ids, String reason) {
+        requireReason(reason);
+        return moderate(ids, Set.of(ProductStatus.ACTIVE), ProductStatus.REJECTED, reason,
+                names -> names.size() == 1
+                        ? "Ваш товар " + names.get(0) + " снят с публикации администратором. Причина: " + reason
+                        : "Ваши товары (" + names.size() + ") сняты с публикации администратором: "
+                        + listNames(names) + ". Причина: " + reason);
+    }
+
+    /**
+     * Массовая смена статуса: один UPDATE по товарам, один по карточкам и один batch-INSERT уведомлений
+     * (по одному на продавца). Товары не из статусов from пропускаются и возвращаются в skipped.
+     */
+    private BulkModerationResponse moderate(List<Long> ids, Set<ProductStatus> from, ProductStatus to, String comment,
+                                            Function<List<String>, String> message) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        List<ProductSnapshot> products = productRepository.findSnapshotsByIdInAndStatusIn(requested, from);
+        if (products.isEmpty()) {
+            return new BulkModerationResponse(0, List.copyOf(requested));
+        }
+
+        List<Long> productIds = products.stream().map(ProductSnapshot::id).toList();
+        int updated = productRepository.updateStatus(productIds, from, to, comment);
+        if (updated != productIds.size()) {
+            // Другой модератор успел изменить часть товаров между выборкой и UPDATE - откатываем всю пачку
+            throw new IllegalStateException("Часть товаров изменилась во время модерации, повторите запрос");
+        }
+        productCardRepository.updateStatus(productIds, to);
+
+        Map<Long, List<String>> namesBySeller = products.stream().collect(Collectors.groupingBy(
+                ProductSnapshot::sellerId, LinkedHashMap::new,
+                Collectors.mapping(p -> "'" + p.name() + "'", Collectors.toList())));
+        Map<Long, String> notifications = new LinkedHashMap<>();
+        namesBySeller.forEach((sellerId, names) -> notifications.put(sellerId, abbreviate(message.apply(names))));
+        notificationService.createNotifications(notifications, NotificationType.PRODUCT);
+
+        products.forEach(p -> eventPublisher.publishEvent(new ProductChangedEvent(p.withStatus(to))));
+
+        Set<Long> skipped = new LinkedHashSet<>(requested);
+        productIds.forEach(skipped::remove);
+        return new BulkModerationResponse(updated, List.copyOf(skipped));
+    }
+
+    private static void requireReason(String reason) {
+        if (reason == null || reason.isBlank()) {
+            throw new IllegalArgumentException("Укажите причину");
+        }
+    }
+
+    // Названия через запятую; не влезающие в лимит заменяются на "и еще N"
+    private static String listNames(List<String> names) {
+        StringBuilder sb = new StringBuilder();
+        int listed = 0;
+        for (String name : names) {
+            if (listed > 0 && sb.length() + name.length() > MAX_LISTED_NAMES_LENGTH) {
+                break;
+            }
+            sb.append(listed > 0 ? ", " : "").append(name);
+            listed++;
+        }
+        if (listed < names.size()) {
+            sb.append(" и еще ").append(names.size() - listed);
+        }
+        return sb.toString();
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= MAX_NOTIFICATION_LENGTH ? message : message.substring(0, MAX_NOTIFICATION_LENGTH - 3) + "...";
+    }
+
+    // Получить товар по айди (через кеш: популярные товары не ходят в БД на каждый просмотр)
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        ProductResponse product = productCacheService.get(id, this::loadProduct);
+        registerView(id);
+        return product;
+    }
+
+    // Страница товара с запрошенными расширениями (сейчас - дневной график цены)
+    public ProductDetailsResponse getProductDetails(Long id, boolean withPriceHistory, int historyDays) {
+        ProductResponse product = getProductById(id);
+        return new ProductDetailsResponse(product,
+                withPriceHistory ? priceHistoryService.getDailySeries(id, historyDays) : null);
+    }
+
+    // Просмотр страницы товара (в том числе когда браузер получил 304 и показал свою копию)
+    public void registerView(Long id) {
+        eventPublisher.publishEvent(new ProductViewedEvent(id));
+    }
+
+    private ProductResponse loadProduct(Long id) {
+        return productCardRepository.findById(id)
+                .map(ProductCard::toResponse)
                 .orElseThrow(() -> new RuntimeException("Товар не найден"));
-        return mapToResponse(product);
     }
 
     // Удалить товар
@@ -173,6 +413,9 @@ public class ProductService {
             throw new RuntimeException("У вас нет прав на удаление этого товара");
         }
 
+        // Брони покупателей снимаются вместе с остатком, чтобы их снятие не вернуло остаток удаленному товару
+        stockReservationService.dropAll(product.getId());
+
         if (isAdmin && !isOwner) {
             notificationService.createNotification(
                     product.getSeller(),
@@ -190,14 +433,16 @@ public class ProductService {
         // Ставим новый статус и убираем со склада
         product.setStatus(ProductStatus.DELETED);
         product.setStockQuantity(0);
+        product.setReservedQuantity(0);
         product.setModerationComment("Удален безвозвратно");
 
         productRepository.save(product);
+        syncReadModels(product);
     }
 
-    // Обновить существующий товар
+    // Обновить существующий товар (новые фото - уже во временной папке, см. createProduct)
     @Transactional
-    public ProductResponse updateProduct(Long id, ProductRequest request, List<MultipartFile> images) {
+    public ProductResponse updateProduct(Long id, ProductRequest request, List<FileStorageService.StagedFile> images) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Товар не найден"));
 
@@ -206,11 +451,18 @@ public class ProductService {
             throw new RuntimeException("Вы не можете редактировать чужой товар");
         }
 
+        // В историю пишем только реальное изменение цены (12.5 и 12.50 - одна цена)
+        boolean priceChanged = product.getPrice().compareTo(request.price()) != 0;
+
         product.setName(request.name());
         product.setDescription(request.description());
         product.setPrice(request.price());
-        product.setStockQuantity(request.stockQuantity());
         product.setYoutubeVideoId(request.youtubeVideoId());
+        // Остаток на складе (вместе с бронями) - разницей к загруженному значению условным UPDATE, а не записью сущности
+        int stockDelta = request.stockQuantity() - product.getStockQuantity();
+        if (stockDelta != 0) {
+            productRepository.adjustStock(product.getId(), stockDelta);
+        }
 
         product.setStatus(ProductStatus.PENDING);
 
@@ -222,7 +474,7 @@ public class ProductService {
 
             // Сохраняем новые фото
             for (int i = 0; i < images.size(); i++) {
-                String path = fileStorageService.saveFile(images.get(i), "products");
+                String path = fileStorageService.commitStaged(images.get(i));
                 product.getImages().add(ProductImage.builder()
                         .imageUrl(path)
                         .isMain(i == request.mainImageIndex())
@@ -232,17 +484,39 @@ public class ProductService {
         }
 
         Product saved = productRepository.save(product);
+        if (priceChanged) {
+            priceHistoryService.record(saved.getId(), saved.getPrice());
+        }
+        syncReadModels(saved);
+        if (images != null && !images.isEmpty()) {
+            publishImagesStored(saved.getImages());
+        }
         return mapToResponse(saved);
     }
 
+    // Превью новых картинок генерируются в фоне после коммита
+    private void publishImagesStored(List<ProductImage> images) {
+        eventPublisher.publishEvent(new ImagesStoredEvent(images.stream().map(ProductImage::getImageUrl).toList()));
+    }
+
     // Получить все товары для админа
     public List<ProductResponse> getAllProductsForAdmin() {
-        return productRepository.findAll().stream()
-                .filter(p -> p.getStatus() != ProductStatus.DELETED)
-                .map(this::mapToResponse)
+        return productCardRepository.findAllByStatusNotOrderByCreatedAtDesc(ProductStatus.DELETED).stream()
+                .map(ProductCard::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Таблица товаров в админке: фильтрация, сортировка и страница выполняются в БД по карточкам,
+     * общее количество - отдельным COUNT с теми же условиями.
+     */
+    @Transactional(readOnly = true)
+    public ProductPageResponse getAdminProductsPage(AdminProductFilter filter, CatalogSort sort, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_CATALOG_PAGE_SIZE), sort.toSort());
+        return ProductPageResponse.of(productCardRepository.findAll(ProductSpecifications.adminGrid(filter), pageable)
+                .map(ProductCard::toResponse));
+    }
+
     // Снять с публикации (отправить на доработку)
     @Transactional
     public void suspendProduct(Long productId, String reason) {
@@ -252,6 +526,7 @@ public class ProductService {
         product.setStatus(ProductStatus.REJECTED);
         product.setModerationComment(reason);
         productRepository.save(product);
+        syncReadModels(product);
 
         notificationService.createNotification(
                 product.getSeller(),
@@ -259,4 +534,10 @@ public class ProductService {
                 NotificationType.PRODUCT
         );
     }
-}
\ No newline at end of file
+
+    // Карточка товара обновляется в текущей транзакции, in-memory индексы - после коммита по событию
+    private void syncReadModels(Product product) {
+        productCardService.refresh(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductSnapshot.of(product)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.event.OrderCancelledEvent;
+import com.crafthub.backend.event.OrderPlacedEvent;
+import com.crafthub.backend.index.CoOccurrenceIndex;
+import com.crafthub.backend.model.ProductCard;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductCardRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * "С этим товаром часто покупают".
+ * Матрица совместных покупок строится при старте одним проходом по order_items
+ * и дальше поддерживается событиями оформления и отмены заказов.
+ */
+@Service
+@RequiredArgsConstructor
+public class RelatedProductsService {
+
+    private static final int TOP_SIZE = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCardRepository productCardRepository;
+
+    private final CoOccurrenceIndex index = new CoOccurrenceIndex(TOP_SIZE);
+
+    // Строки заказов идут по порядку order_id, поэтому корзину собираем "на лету", не держа все заказы в памяти
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        index.clear();
+        BasketCollector collector = new BasketCollector();
+        jdbcTemplate.query("SELECT oi.order_id, oi.product_id FROM order_items oi " +
+                "JOIN orders o ON o.id = oi.order_id WHERE o.status <> 'CANCELLED' ORDER BY oi.order_id", collector);
+        collector.finish();
+        index.recomputeAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        index.addBasket(event.productIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCancelled(OrderCancelledEvent event) {
+        index.removeBasket(event.productIds());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getRelated(Long productId, int limit) {
+        long[] related = index.related(productId);
+        List<Long> ids = Arrays.stream(related).limit(Math.clamp(limit, 1, TOP_SIZE)).boxed().toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductCard> cards = productCardRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ProductCard::getProductId, Function.identity()));
+        return ids.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .filter(c -> c.getStatus() == ProductStatus.ACTIVE)
+                .map(ProductCard::toResponse)
+                .toList();
+    }
+
+    private class BasketCollector implements RowCallbackHandler {
+        private long orderId = -1;
+        private long[] basket = new long[8];
+        private int size;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long currentOrder = rs.getLong(1);
+            if (currentOrder != orderId) {
+                finish();
+                orderId = currentOrder;
+            }
+            if (size == basket.length) {
+                basket = Arrays.copyOf(basket, size * 2);
+            }
+            basket[size++] = rs.getLong(2);
+        }
+
+        void finish() {
+            if (size > 1) {
+                index.addBasketDeferred(Arrays.copyOf(basket, size));
+            }
+            size = 0;
+        }
+    }
+}
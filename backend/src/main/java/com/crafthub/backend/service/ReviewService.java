@@ -2,9 +2,12 @@ package com.crafthub.backend.service;
 
 import com.crafthub.backend.dto.request.ReviewRequest;
 import com.crafthub.backend.dto.response.ReviewResponse;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.index.ProductSnapshot;
 import com.crafthub.backend.model.*;
 import com.crafthub.backend.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +25,8 @@ public class ReviewService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCardService productCardService;
 
     @Transactional
     public void createReview(ReviewRequest request) {
@@ -89,6 +94,8 @@ public class ReviewService {
         product.setAverageRating(newRating);
         product.setReviewsCount(count);
         productRepository.save(product);
+        productCardService.refresh(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductSnapshot.of(product)));
     }
 
     private void updateSellerRating(User seller) {
@@ -154,5 +161,7 @@ public class ReviewService {
         product.setAverageRating(Math.round(newRating * 10.0) / 10.0);
         product.setReviewsCount(count);
         productRepository.save(product);
+        productCardService.refresh(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductSnapshot.of(product)));
     }
 }
\ No newline at end of file
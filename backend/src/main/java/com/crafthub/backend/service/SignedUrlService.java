@@ -0,0 +1,80 @@
+package com.crafthub.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Короткоживущие подписанные ссылки на закрытые файлы (документы верификации).
+ * Подпись - HMAC-SHA256 от пути и срока действия, поэтому проверка не требует ни БД, ни сессии.
+ * Срок округляется вверх до минуты: страница модерации, открытая повторно в ту же минуту,
+ * получает те же ссылки и берет сканы из кеша браузера.
+ * Ключ - отдельный секрет, а если он не задан - производный от ключа JWT: HMAC(jwt.secret, "signed-url").
+ * Сам ключ JWT ссылки не подписывает, поэтому подпись ссылки нельзя использовать против токенов и наоборот.
+ */
+@Service
+public class SignedUrlService {
+
+    public static final String FILES_PREFIX = "/api/verification/files/";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final long ROUNDING_SECONDS = 60;
+    private static final String KEY_PURPOSE = "signed-url";
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+
+    public SignedUrlService(@Value("${upload.signed-url.secret:}") String secret,
+                            @Value("${jwt.secret}") String jwtSecret,
+                            @Value("${upload.signed-url.ttl:10m}") Duration ttl) {
+        this.key = secret == null || secret.isBlank()
+                ? new SecretKeySpec(hmac(new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM),
+                        KEY_PURPOSE), ALGORITHM)
+                : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttlSeconds = ttl.toSeconds();
+    }
+
+    /**
+     * Ссылка вида /api/verification/files/<путь>?expires=<unix-время>&signature=<подпись>
+     */
+    public String sign(String relativePath) {
+        long deadline = Instant.now().getEpochSecond() + ttlSeconds;
+        long expires = (deadline + ROUNDING_SECONDS - 1) / ROUNDING_SECONDS * ROUNDING_SECONDS;
+        return FILES_PREFIX + UriUtils.encodePath(relativePath, StandardCharsets.UTF_8)
+                + "?expires=" + expires + "&signature=" + signature(relativePath, expires);
+    }
+
+    public boolean verify(String relativePath, long expires, String signature) {
+        if (signature == null || expires < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        // Сравнение за постоянное время - подпись нельзя подобрать по времени ответа
+        return MessageDigest.isEqual(
+                signature(relativePath, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String signature(String relativePath, long expires) {
+        byte[] digest = hmac(key, relativePath + "\n" + expires);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private static byte[] hmac(SecretKeySpec key, String data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM); // Mac не потокобезопасен, создание дешевое
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.index.ProductSnapshot;
+import com.crafthub.backend.index.SimilarityIndex;
+import com.crafthub.backend.model.ProductCard;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductCardRepository;
+import com.crafthub.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * "Похожие товары" по тексту: название, описание и категория.
+ * TF-IDF векторы активных товаров строятся при старте и дальше обновляются по событиям товаров
+ * (создание, редактирование, модерация, удаление) - внешний ML-сервис не нужен.
+ */
+@Service
+@RequiredArgsConstructor
+public class SimilarProductsService {
+
+    private static final int MAX_RESULTS = 24;
+
+    private final ProductRepository productRepository;
+    private final ProductCardRepository productCardRepository;
+
+    private final SimilarityIndex index = new SimilarityIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<ProductSnapshot> active = productRepository.findSnapshotsByStatus(ProductStatus.ACTIVE);
+        index.clear();
+        active.forEach(this::put);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductSnapshot product = event.product();
+        if (product.isActive()) {
+            put(product);
+        } else {
+            index.remove(product.id());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getSimilar(Long productId, int limit) {
+        List<Long> ids = index.similar(productId, Math.clamp(limit, 1, MAX_RESULTS));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ProductCard> cards = productCardRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ProductCard::getProductId, Function.identity()));
+
+        // Порядок - по убыванию сходства
+        return ids.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .filter(c -> c.getStatus() == ProductStatus.ACTIVE)
+                .map(ProductCard::toResponse)
+                .toList();
+    }
+
+    private void put(ProductSnapshot product) {
+        index.put(product.id(), product.name(), product.categoryName(), product.description());
+    }
+}
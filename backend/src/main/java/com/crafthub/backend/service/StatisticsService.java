@@ -24,7 +24,7 @@ public class StatisticsService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
-    private final ProductService productService;
+    private final ViewCounterService viewCounterService;
 
     @Transactional(readOnly = true)
     public SellerStatsResponse getSellerStats() {
@@ -53,12 +53,18 @@ public class StatisticsService {
         // 4. Топ товаров
         var topProducts = productRepository.findTopProductsBySeller(seller.getId(), PageRequest.of(0, 5));
 
+        // 5. Просмотры и конверсия просмотров в продажи
+        long views = viewCounterService.getSellerViews(seller.getId());
+        double conversion = views > 0 ? Math.round(salesCount * 10000.0 / views) / 100.0 : 0.0;
+
         return new SellerStatsResponse(
                 revenue,
                 salesCount,
                 seller.getAverageRating(),
                 history,
-                topProducts);
+                topProducts,
+                views,
+                conversion);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,287 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.model.StockReservation;
+import com.crafthub.backend.repository.ProductRepository;
+import com.crafthub.backend.repository.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Временные брони остатков под товары в корзинах.
+ * Бронь увеличивает products.reserved_quantity условным UPDATE с тем же условием, что и заказ
+ * (свободный остаток = stock_quantity - reserved_quantity), поэтому покупатель не теряет товар между корзиной
+ * и оформлением, а правка остатка продавцом не смешивается с бронями. Сроки броней хранятся в памяти
+ * в DelayQueue: фоновая чистка забирает из нее только истекшие брони, пачками, и снимает их. Таблица
+ * stock_reservations - журнал, по которому очередь восстанавливается после перезапуска.
+ */
+@Service
+public class StockReservationService {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final ProductCardService productCardService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long reapIntervalMs;
+
+    private final DelayQueue<Hold> ledger = new DelayQueue<>();
+    // Актуальный срок брони по ее id. Продление кладет в очередь новую запись, а старая
+    // при извлечении не совпадет с этим сроком и будет пропущена
+    private final Map<Long, Long> deadlines = new ConcurrentHashMap<>();
+
+    public StockReservationService(StockReservationRepository reservationRepository,
+                                   ProductRepository productRepository,
+                                   ProductCardService productCardService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${cart.reservation.ttl:15m}") Duration ttl,
+                                   @Value("${cart.reservation.reap-interval-ms:5000}") long reapIntervalMs) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.productCardService = productCardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.reapIntervalMs = reapIntervalMs;
+    }
+
+    // Запись очереди: id брони и момент истечения (мс с эпохи)
+    private record Hold(long reservationId, long expiresAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAt, ((Hold) other).expiresAt);
+        }
+    }
+
+    // После падения JVM очередь пуста - заполняем ее из журнала; уже истекшие брони снимет ближайший запуск чистки
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        reservationRepository.findAll().forEach(r -> track(r.getId(), r.getExpiresAt()));
+    }
+
+    /**
+     * Устанавливает бронь покупателя на товар в quantity штук и продлевает ее срок.
+     * Бронируется только разница с прежней бронью (или снимается, если товара стало меньше).
+     * Работает в транзакции корзины.
+     *
+     * @return срок, до которого товар удерживается.
+     */
+    @Transactional
+    public LocalDateTime reserve(Long userId, Long productId, int quantity) {
+        Optional<StockReservation> existing = reservationRepository.findByUserIdAndProductId(userId, productId);
+        int held = existing.map(StockReservation::getQuantity).orElse(0);
+        int delta = quantity - held;
+        if (delta > 0 && productRepository.holdStock(productId, delta) == 0) {
+            throw new IllegalStateException("Недостаточно товара на складе. Доступно: "
+                    + (productRepository.findStockLevelById(productId).getAvailableQuantity() + held));
+        }
+        if (delta < 0) {
+            productRepository.unholdStock(productId, -delta);
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        StockReservation reservation = existing.orElseGet(() -> StockReservation.builder()
+                .userId(userId)
+                .productId(productId)
+                .build());
+        reservation.setQuantity(quantity);
+        reservation.setExpiresAt(expiresAt);
+        reservationRepository.save(reservation);
+
+        if (delta != 0) {
+            productCardService.refreshStock(productId);
+        }
+        trackAfterCommit(reservation.getId(), expiresAt);
+        return expiresAt;
+    }
+
+    // Действующие брони покупателя: id товара -> срок (для отображения в корзине)
+    @Transactional(readOnly = true)
+    public Map<Long, LocalDateTime> findExpirations(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        return reservationRepository.findAllByUserIdOrderByProductIdAsc(userId).stream()
+                .filter(r -> r.getExpiresAt().isAfter(now))
+                .collect(Collectors.toMap(StockReservation::getProductId, StockReservation::getExpiresAt));
+    }
+
+    // Товары, на которые у покупателя есть брони, в том числе истекшие, но еще не снятые (по возрастанию id)
+    @Transactional(readOnly = true)
+    public List<Long> findReservedProductIds(Long userId) {
+        return reservationRepository.findAllByUserIdOrderByProductIdAsc(userId).stream()
+                .map(StockReservation::getProductId)
+                .toList();
+    }
+
+    // Товар убран из корзины - бронь снимается сразу, не дожидаясь срока
+    @Transactional
+    public void release(Long userId, Long productId) {
+        reservationRepository.findByUserIdAndProductId(userId, productId).ifPresent(this::unhold);
+    }
+
+    // Корзина очищена (в том числе после заказа) - снимаем оставшиеся брони покупателя по возрастанию id товара
+    @Transactional
+    public void releaseAll(Long userId) {
+        for (StockReservation reservation : reservationRepository.findAllByUserIdOrderByProductIdAsc(userId)) {
+            release(userId, reservation.getProductId());
+        }
+    }
+
+    // Товар удален - брони на него снимаются целиком; вызывающий код обнуляет остаток и брони товара.
+    // Брони блокируются раньше строки товара, как и везде
+    @Transactional
+    public void dropAll(Long productId) {
+        List<StockReservation> reservations = reservationRepository.findAllByProductIdOrderByIdAsc(productId);
+        reservationRepository.deleteAllInBatch(reservations);
+        reservations.forEach(r -> forgetAfterCommit(r.getId()));
+    }
+
+    /**
+     * Переводит бронь в списание при оформлении заказа (в транзакции заказа).
+     * Бронь засчитывается, даже если срок уже вышел, но чистка до нее еще не добралась: остаток все это время
+     * оставался удержанным. Бронь сверх заказанного количества снова становится свободной.
+     *
+     * @return сколько из quantity уже удержано бронью; остальное вызывающий код списывает сам.
+     */
+    @Transactional
+    public int consume(Long userId, Long productId, int quantity) {
+        Optional<StockReservation> found = reservationRepository.findByUserIdAndProductId(userId, productId);
+        if (found.isEmpty()) {
+            return 0;
+        }
+        StockReservation reservation = found.get();
+        reservationRepository.delete(reservation);
+        forgetAfterCommit(reservation.getId());
+
+        int held = Math.min(reservation.getQuantity(), quantity);
+        if (productRepository.takeHeldStock(productId, held, reservation.getQuantity()) == 0) {
+            // Бронь уже не учтена в товаре - остаток заказ спишет сам, в пределах свободного
+            productRepository.unholdStock(productId, reservation.getQuantity());
+            return 0;
+        }
+        return held;
+    }
+
+    /**
+     * Фоновая чистка: забирает из очереди истекшие брони пачками по BATCH_SIZE и снимает каждую пачку
+     * в своей транзакции. Если транзакция не прошла, пачка возвращается в очередь до следующего запуска.
+     */
+    @Scheduled(fixedDelayString = "${cart.reservation.reap-interval-ms:5000}")
+    public void releaseExpired() {
+        List<Hold> drained = new ArrayList<>(BATCH_SIZE);
+        do {
+            drained.clear();
+            ledger.drainTo(drained, BATCH_SIZE);
+            // Продленные и уже снятые брони пропускаем
+            List<Hold> batch = drained.stream()
+                    .filter(hold -> deadlines.remove(hold.reservationId(), hold.expiresAt()))
+                    .toList();
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> releaseBatch(batch));
+            } catch (RuntimeException e) {
+                System.err.println("Не удалось снять истекшие брони (" + batch.size() + " шт.), повтор позже: " + e.getMessage());
+                long retryAt = System.currentTimeMillis() + reapIntervalMs;
+                batch.forEach(hold -> track(hold.reservationId(), retryAt));
+                return;
+            }
+        } while (drained.size() == BATCH_SIZE);
+    }
+
+    private void releaseBatch(List<Hold> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> reservations = reservationRepository.findAllById(
+                batch.stream().map(Hold::reservationId).toList());
+
+        // Порядок блокировок как у заказа и корзины: по возрастанию id товара сначала брони, затем товар и карточка
+        Map<Long, List<StockReservation>> byProduct = reservations.stream()
+                .sorted(Comparator.comparing(StockReservation::getId))
+                .collect(Collectors.groupingBy(StockReservation::getProductId, TreeMap::new, Collectors.toList()));
+        byProduct.forEach((productId, holds) -> {
+            int released = 0;
+            for (StockReservation reservation : holds) {
+                // 0 - бронь успели продлить или забрать в заказ
+                if (reservationRepository.deleteExpired(reservation.getId(), reservation.getQuantity(), now) == 1) {
+                    released += reservation.getQuantity();
+                }
+            }
+            if (released > 0) {
+                productRepository.unholdStock(productId, released);
+                productCardService.refreshStock(productId);
+            }
+        });
+
+        // Брони, продленные до извлечения из очереди, возвращаем в нее с новым сроком
+        reservations.stream()
+                .filter(r -> r.getExpiresAt().isAfter(now))
+                .forEach(r -> track(r.getId(), r.getExpiresAt()));
+    }
+
+    private void unhold(StockReservation reservation) {
+        reservationRepository.delete(reservation);
+        productRepository.unholdStock(reservation.getProductId(), reservation.getQuantity());
+        productCardService.refreshStock(reservation.getProductId());
+        forgetAfterCommit(reservation.getId());
+    }
+
+    // Очередь меняется только после коммита: при откате в ней остается прежний срок, совпадающий с журналом
+    private void trackAfterCommit(Long reservationId, LocalDateTime expiresAt) {
+        afterCommit(() -> track(reservationId, expiresAt));
+    }
+
+    private void forgetAfterCommit(Long reservationId) {
+        afterCommit(() -> deadlines.remove(reservationId));
+    }
+
+    private void track(Long reservationId, LocalDateTime expiresAt) {
+        track(reservationId, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private void track(long reservationId, long expiresAt) {
+        deadlines.put(reservationId, expiresAt);
+        ledger.add(new Hold(reservationId, expiresAt));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
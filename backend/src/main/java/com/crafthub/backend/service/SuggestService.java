@@ -0,0 +1,169 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.SuggestionResponse;
+import com.crafthub.backend.event.OrderCancelledEvent;
+import com.crafthub.backend.event.OrderPlacedEvent;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.event.SellerRenamedEvent;
+import com.crafthub.backend.index.ProductSnapshot;
+import com.crafthub.backend.index.SuggestionTrie;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Подсказки поисковой строки по названиям активных товаров, категориям и мастерам.
+ * Запрос обслуживается из неизменяемого префиксного дерева без обращения к БД.
+ * События товаров и заказов меняют только исходные данные в памяти, а дерево
+ * пересобирается в фоне и подменяется целиком (читатели не блокируются).
+ * Сразу (с ближайшим запуском) пересборку вызывают только новые, снятые и переименованные товары;
+ * продажи меняют лишь веса и копятся до suggest.reweight-interval, а остаток, цена и рейтинг дерево не трогают.
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestService {
+
+    static final String PRODUCT = "PRODUCT";
+    static final String CATEGORY = "CATEGORY";
+    static final String SELLER = "SELLER";
+
+    private static final int TOP_SIZE = 10;
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, ProductSnapshot> products = new ConcurrentHashMap<>();
+    private final Map<Long, Long> sales = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(); // изменился набор подсказок
+    private final AtomicBoolean weightsDirty = new AtomicBoolean(); // изменились только продажи
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+    private volatile SuggestionTrie trie = SuggestionTrie.empty();
+    private volatile long rebuiltAt;
+
+    // Пересборка только ради весов - не чаще этого интервала
+    @Value("${suggest.reweight-interval:1m}")
+    private Duration reweightInterval = Duration.ZERO;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        Map<Long, Long> loadedSales = new HashMap<>();
+        jdbcTemplate.query("SELECT oi.product_id, SUM(oi.quantity) FROM order_items oi " +
+                        "JOIN orders o ON o.id = oi.order_id WHERE o.status <> 'CANCELLED' GROUP BY oi.product_id",
+                rs -> {
+                    loadedSales.put(rs.getLong(1), rs.getLong(2));
+                });
+        List<ProductSnapshot> active = productRepository.findSnapshotsByStatus(ProductStatus.ACTIVE);
+
+        products.clear();
+        active.forEach(p -> products.put(p.id(), p));
+        sales.clear();
+        sales.putAll(loadedSales);
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductSnapshot product = event.product();
+        boolean changed = product.isActive()
+                ? !sameSuggestions(products.put(product.id(), product), product)
+                : products.remove(product.id()) != null;
+        if (changed) {
+            dirty.set(true);
+        }
+    }
+
+    // Попадают ли в дерево те же тексты: остаток, цену и рейтинг подсказки не показывают
+    private static boolean sameSuggestions(ProductSnapshot previous, ProductSnapshot product) {
+        return previous != null
+                && Objects.equals(previous.name(), product.name())
+                && Objects.equals(previous.categoryId(), product.categoryId())
+                && Objects.equals(previous.categoryName(), product.categoryName())
+                && Objects.equals(previous.sellerId(), product.sellerId())
+                && Objects.equals(previous.sellerName(), product.sellerName());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        event.items().forEach(item -> sales.merge(item.productId(), (long) item.quantity(), Long::sum));
+        weightsDirty.set(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCancelled(OrderCancelledEvent event) {
+        event.items().forEach(item -> sales.computeIfPresent(item.productId(),
+                (id, sold) -> sold > item.quantity() ? sold - item.quantity() : null));
+        weightsDirty.set(true);
+    }
+
+    // Имя мастера продублировано в снимках его товаров - проще перечитать их из БД
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSellerRenamed(SellerRenamedEvent event) {
+        reloadRequested.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${suggest.rebuild-interval-ms:2000}")
+    public void rebuildIfDirty() {
+        if (reloadRequested.getAndSet(false)) {
+            dirty.set(false);
+            weightsDirty.set(false);
+            reload();
+        } else if (dirty.getAndSet(false)) {
+            weightsDirty.set(false); // полная пересборка берет и текущие продажи
+            rebuild();
+        } else if (System.currentTimeMillis() - rebuiltAt >= reweightInterval.toMillis() && weightsDirty.getAndSet(false)) {
+            rebuild();
+        }
+    }
+
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        return trie.suggest(query, Math.clamp(limit, 1, TOP_SIZE)).stream()
+                .map(e -> new SuggestionResponse(e.type(), e.id(), e.text()))
+                .toList();
+    }
+
+    // Вес товара - число проданных единиц (+1, чтобы новинки не были равны нулю),
+    // вес категории и мастера - сумма весов их активных товаров
+    private void rebuild() {
+        rebuiltAt = System.currentTimeMillis();
+        Map<Long, Long> categoryWeights = new HashMap<>();
+        Map<Long, String> categoryNames = new HashMap<>();
+        Map<Long, Long> sellerWeights = new HashMap<>();
+        Map<Long, String> sellerNames = new HashMap<>();
+
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder();
+        for (ProductSnapshot product : products.values()) {
+            long weight = 1 + sales.getOrDefault(product.id(), 0L);
+            builder.add(new SuggestionTrie.Entry(PRODUCT, product.id(), product.name(), weight));
+            if (product.categoryId() != null) {
+                categoryWeights.merge(product.categoryId(), weight, Long::sum);
+                categoryNames.put(product.categoryId(), product.categoryName());
+            }
+            if (product.sellerId() != null) {
+                sellerWeights.merge(product.sellerId(), weight, Long::sum);
+                sellerNames.put(product.sellerId(), product.sellerName());
+            }
+        }
+        categoryWeights.forEach((id, weight) ->
+                builder.add(new SuggestionTrie.Entry(CATEGORY, id, categoryNames.get(id), weight)));
+        sellerWeights.forEach((id, weight) ->
+                builder.add(new SuggestionTrie.Entry(SELLER, id, sellerNames.get(id), weight)));
+
+        trie = builder.build(TOP_SIZE);
+    }
+}
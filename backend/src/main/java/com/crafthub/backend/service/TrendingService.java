@@ -0,0 +1,130 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.event.OrderPlacedEvent;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.event.ProductViewedEvent;
+import com.crafthub.backend.index.TrendingScores;
+import com.crafthub.backend.model.ProductCard;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductCardRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Рейтинг "Сейчас в тренде" по продажам и просмотрам со скользящим (экспоненциальным) окном.
+ * Счета обновляются инкрементально по событиям, top-K пересчитывается по расписанию,
+ * поэтому запрос рейтинга не агрегирует order_items, а только дочитывает карточки по id.
+ */
+@Service
+public class TrendingService {
+
+    private static final double SALE_WEIGHT = 10.0; // за единицу товара
+    private static final double VIEW_WEIGHT = 1.0;
+    private static final double MIN_SCORE = 0.01; // меньше - товар выпадает из рейтинга
+    private static final int TOP_SIZE = 50;
+
+    private final ProductCardRepository productCardRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TrendingScores scores;
+
+    private volatile List<Long> topIds = List.of();
+
+    public TrendingService(ProductCardRepository productCardRepository,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${trending.half-life:6h}") Duration halfLife) {
+        this.productCardRepository = productCardRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.scores = new TrendingScores(halfLife, System.currentTimeMillis());
+    }
+
+    // Восстановление из последнего снимка с учетом времени, прошедшего с его записи
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = System.currentTimeMillis();
+        jdbcTemplate.query("SELECT product_id, score, saved_at FROM trending_snapshot", rs -> {
+            Duration age = Duration.between(rs.getTimestamp("saved_at").toLocalDateTime(), now);
+            scores.add(rs.getLong("product_id"), scores.decay(rs.getDouble("score"), age), nowMillis);
+        });
+        refreshTop();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long now = System.currentTimeMillis();
+        event.items().forEach(item -> scores.add(item.productId(), SALE_WEIGHT * item.quantity(), now));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductViewed(ProductViewedEvent event) {
+        scores.add(event.productId(), VIEW_WEIGHT, System.currentTimeMillis());
+    }
+
+    // Снятые с продажи товары сразу убираем из рейтинга
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.product().isActive()) {
+            scores.remove(event.product().id());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trending.refresh-interval-ms:30000}")
+    public void refreshTop() {
+        topIds = scores.top(TOP_SIZE, System.currentTimeMillis()).stream()
+                .map(TrendingScores.Ranked::productId)
+                .toList();
+    }
+
+    /**
+     * Сохраняет снимок счетов (перезаписывает предыдущий).
+     * Заодно переносит точку отсчета затухания и отбрасывает затухшие товары.
+     */
+    @Scheduled(initialDelayString = "${trending.snapshot-interval-ms:300000}",
+            fixedDelayString = "${trending.snapshot-interval-ms:300000}")
+    @Transactional
+    public void saveSnapshot() {
+        Map<Long, Double> current = scores.rescale(System.currentTimeMillis(), MIN_SCORE);
+        Timestamp savedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(current.size());
+        current.forEach((id, score) -> rows.add(new Object[]{score, savedAt, id}));
+
+        jdbcTemplate.update("DELETE FROM trending_snapshot");
+        // Товар мог быть удален вместе с продавцом - такие строки не пройдут внешний ключ, поэтому вставляем через SELECT
+        jdbcTemplate.batchUpdate("INSERT INTO trending_snapshot (product_id, score, saved_at) " +
+                "SELECT id, ?, ? FROM products WHERE id = ?", rows);
+    }
+
+    // Активные товары из рейтинга в порядке убывания счета
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getTrending(int limit) {
+        List<Long> ids = topIds.stream().limit(Math.clamp(limit, 1, TOP_SIZE)).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductCard> cards = productCardRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ProductCard::getProductId, Function.identity()));
+        return ids.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .filter(c -> c.getStatus() == ProductStatus.ACTIVE)
+                .map(ProductCard::toResponse)
+                .toList();
+    }
+}
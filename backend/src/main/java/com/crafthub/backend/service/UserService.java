@@ -2,20 +2,21 @@ package com.crafthub.backend.service;
 
 import com.crafthub.backend.dto.request.ChangePasswordRequest;
 import com.crafthub.backend.dto.request.UpdateProfileRequest;
+import com.crafthub.backend.dto.response.DataVersion;
 import com.crafthub.backend.dto.response.ProductResponse;
 import com.crafthub.backend.dto.response.UserProfileResponse;
+import com.crafthub.backend.model.ProductCard;
 import com.crafthub.backend.model.ProductStatus;
 import com.crafthub.backend.model.Role;
 import com.crafthub.backend.model.User;
 import com.crafthub.backend.repository.OrderRepository;
-import com.crafthub.backend.repository.ProductRepository;
+import com.crafthub.backend.repository.ProductCardRepository;
 import com.crafthub.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,9 +29,9 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final ProductRepository productRepository;
+    private final ProductCardRepository productCardRepository;
     private final FileStorageService fileStorageService;
-    private final ProductService productService;
+    private final ProductCardService productCardService;
     private final OrderRepository orderRepository;
     private final PasswordEncoder passwordEncoder;
 
@@ -41,13 +42,11 @@ public class UserService {
     public UserProfileResponse getUserProfile(Long id) {
         User user = userRepository.findById(id).orElseThrow();
 
-        long totalOrders = user.getRole() == Role.ROLE_SELLER
-                ? orderRepository.countSalesBySellerId(user.getId())
-                : orderRepository.countByBuyerId(user.getId());
+        long totalOrders = countOrders(user);
 
-        List<ProductResponse> products = productRepository.findAllBySellerId(user.getId()).stream()
-                .filter(p -> p.getStatus() == ProductStatus.ACTIVE)
-                .map(productService::mapToResponse)
+        List<ProductResponse> products = productCardRepository
+                .findAllBySellerIdAndStatusOrderByCreatedAtDesc(user.getId(), ProductStatus.ACTIVE).stream()
+                .map(ProductCard::toResponse)
                 .collect(Collectors.toList());
 
         return new UserProfileResponse(
@@ -59,6 +58,22 @@ public class UserService {
         );
     }
 
+    /**
+     * Версия профиля для ETag: сам пользователь, его активные карточки и число заказов.
+     * Считается легкими запросами, без сборки списка товаров.
+     */
+    public DataVersion getProfileVersion(Long id) {
+        User user = userRepository.findById(id).orElseThrow();
+        DataVersion own = new DataVersion(user.getId() + "." + user.getUpdatedAt() + "." + countOrders(user), user.getUpdatedAt());
+        return own.combine(productCardRepository.getVersionBySellerIdAndStatus(user.getId(), ProductStatus.ACTIVE));
+    }
+
+    private long countOrders(User user) {
+        return user.getRole() == Role.ROLE_SELLER
+                ? orderRepository.countSalesBySellerId(user.getId())
+                : orderRepository.countByBuyerId(user.getId());
+    }
+
     // Обновить профиль
     @Transactional
     public void updateProfile(UpdateProfileRequest request) {
@@ -71,18 +86,19 @@ public class UserService {
         user.setHouse(request.house());
         user.setZipCode(request.zipCode());
         userRepository.save(user);
+        productCardService.refreshSeller(user);
     }
 
-    // апдейтнуть аватарку
+    // апдейтнуть аватарку (файл уже проверен и лежит во временной папке)
     @Transactional
-    public String updateAvatar(MultipartFile file) {
+    public String updateAvatar(FileStorageService.StagedFile file) {
         User user = getCurrentUser();
 
         if (user.getAvatarUrl() != null) {
             fileStorageService.deleteFile(user.getAvatarUrl());
         }
 
-        String path = fileStorageService.saveFile(file, "avatars");
+        String path = fileStorageService.commitStaged(file);
         user.setAvatarUrl(path);
         userRepository.save(user);
         return path;
@@ -8,7 +8,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,10 +23,11 @@ public class VerificationService {
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
     private final NotificationService notificationService;
+    private final SignedUrlService signedUrlService;
 
     // Создает новую заявку на верификацию
     @Transactional
-    public void applyForVerification(String legalInfo, List<MultipartFile> files) {
+    public void applyForVerification(String legalInfo, List<FileStorageService.StagedFile> files) {
 
         // Получаем текущего юзера
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -47,8 +47,8 @@ public class VerificationService {
                 .build();
 
         List<VerificationDocument> documents = new ArrayList<>();
-        for (MultipartFile file : files) {
-            String filePath = fileStorageService.saveFile(file, "documents");
+        for (FileStorageService.StagedFile file : files) {
+            String filePath = fileStorageService.commitStaged(file);
             documents.add(VerificationDocument.builder()
                     .fileUrl(filePath)
                     .request(request)
@@ -60,8 +60,12 @@ public class VerificationService {
     }
 
     // Возвращает все заявки, ожидающие проверки (для админа)
+    // К каждому документу прикладывается подписанная ссылка - админка грузит сканы напрямую
     public List<VerificationRequest> getPendingRequests() {
-        return verificationRepository.findByStatus(VerificationStatus.PENDING);
+        List<VerificationRequest> requests = verificationRepository.findByStatus(VerificationStatus.PENDING);
+        requests.forEach(request -> request.getDocuments()
+                .forEach(document -> document.setSignedUrl(signedUrlService.sign(document.getFileUrl()))));
+        return requests;
     }
 
 
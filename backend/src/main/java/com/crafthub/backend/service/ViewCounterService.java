@@ -0,0 +1,76 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.event.ProductViewedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики просмотров товаров.
+ * Просмотр - это инкремент LongAdder в памяти (без блокировок и без обращения к БД),
+ * накопленные значения периодически сбрасываются в product_views_daily одним пакетным upsert.
+ */
+@Service
+@RequiredArgsConstructor
+public class ViewCounterService {
+
+    private static final String UPSERT = "INSERT INTO product_views_daily (product_id, view_date, views) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE views = views + VALUES(views)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Счетчики не удаляются: их не больше, чем товаров, а удаление гонялось бы с инкрементами
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductViewed(ProductViewedEvent event) {
+        pending.computeIfAbsent(event.productId(), id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Сбрасывает накопленные просмотры в БД. Просмотры относятся к дате сброса.
+     * Если запись не удалась, значения возвращаются в счетчики до следующей попытки.
+     */
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:30000}")
+    @PreDestroy
+    public synchronized void flush() {
+        Date today = Date.valueOf(LocalDate.now());
+        List<Object[]> batch = new ArrayList<>();
+        pending.forEach((productId, counter) -> {
+            long views = counter.sumThenReset();
+            if (views > 0) {
+                batch.add(new Object[]{productId, today, views});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT, batch);
+        } catch (RuntimeException e) {
+            System.err.println("Не удалось сохранить просмотры товаров, повтор при следующем сбросе: " + e.getMessage());
+            batch.forEach(row -> pending.computeIfAbsent((Long) row[0], id -> new LongAdder()).add((Long) row[2]));
+        }
+    }
+
+    // Всего просмотров товаров мастера (по уже сброшенным данным)
+    public long getSellerViews(Long sellerId) {
+        Long views = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(v.views), 0) FROM product_views_daily v " +
+                        "JOIN products p ON p.id = v.product_id WHERE p.seller_id = ?",
+                Long.class, sellerId);
+        return views != null ? views : 0;
+    }
+}
@@ -0,0 +1,58 @@
+-- V11: Денормализованные карточки товаров (read-модель для списков)
+-- Карточка хранит все поля ProductResponse, поэтому список из N товаров читается одним запросом
+-- без догрузки категории, продавца и картинок
+
+CREATE TABLE product_cards
+(
+    product_id            BIGINT PRIMARY KEY,
+    name                  VARCHAR(255)   NOT NULL,
+    description           TEXT,
+    price                 DECIMAL(10, 2) NOT NULL,
+    stock_quantity        INT            NOT NULL DEFAULT 0,
+    youtube_video_id      VARCHAR(50),
+    status                VARCHAR(50)    NOT NULL,
+    category_id           BIGINT         NOT NULL,
+    category_display_name VARCHAR(100)   NOT NULL,
+    seller_id             BIGINT         NOT NULL,
+    seller_name           VARCHAR(255)   NOT NULL,
+    seller_email          VARCHAR(255)   NOT NULL,
+    average_rating        DECIMAL(3, 2)           DEFAULT 0.00,
+    reviews_count         INT                     DEFAULT 0,
+    images                TEXT,
+    created_at            TIMESTAMP      NULL,
+    CONSTRAINT fk_card_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
+
+-- Индексы постраничного каталога (keyset-пагинация): фильтр по статусу + порядок сортировки с id
+CREATE INDEX idx_cards_status_created ON product_cards (status, created_at, product_id);
+CREATE INDEX idx_cards_status_price ON product_cards (status, price, product_id);
+CREATE INDEX idx_cards_status_rating ON product_cards (status, average_rating, product_id);
+CREATE INDEX idx_cards_category_status_created ON product_cards (category_id, status, created_at, product_id);
+CREATE INDEX idx_cards_seller_status_created ON product_cards (seller_id, status, created_at, product_id);
+
+-- Заполняем карточки для уже существующих товаров
+INSERT INTO product_cards (product_id, name, description, price, stock_quantity, youtube_video_id, status,
+                           category_id, category_display_name, seller_id, seller_name, seller_email,
+                           average_rating, reviews_count, images, created_at)
+SELECT p.id,
+       p.name,
+       p.description,
+       p.price,
+       p.stock_quantity,
+       p.youtube_video_id,
+       p.status,
+       c.id,
+       c.display_name,
+       u.id,
+       u.full_name,
+       u.email,
+       p.average_rating,
+       p.reviews_count,
+       (SELECT JSON_ARRAYAGG(JSON_OBJECT('imageUrl', i.image_url,
+                                         'isMain', CAST(IF(i.is_main, 'true', 'false') AS JSON)))
+        FROM product_images i
+        WHERE i.product_id = p.id),
+       p.created_at
+FROM products p
+         JOIN categories c ON c.id = p.category_id
+         JOIN users u ON u.id = p.seller_id;
@@ -0,0 +1,13 @@
+-- V12: Версия данных карточек товаров для условных GET-запросов (ETag / Last-Modified)
+-- version растет при каждом изменении карточки, updated_at - время последнего изменения
+
+ALTER TABLE product_cards
+    ADD COLUMN version    BIGINT    NOT NULL DEFAULT 0,
+    ADD COLUMN updated_at TIMESTAMP          DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP;
+
+UPDATE product_cards c
+    JOIN products p ON p.id = c.product_id
+SET c.updated_at = p.updated_at;
+
+-- Агрегатная версия списка (COUNT, MAX(updated_at), SUM(version)) считается по индексу, без чтения строк
+CREATE INDEX idx_cards_status_updated_version ON product_cards (status, updated_at, version);
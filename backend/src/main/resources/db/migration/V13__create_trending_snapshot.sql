@@ -0,0 +1,10 @@
+-- V13: Снимок рейтинга трендовых товаров
+-- Счета периодически сохраняются, чтобы после рестарта рейтинг восстанавливался без пересчета по order_items
+
+CREATE TABLE trending_snapshot
+(
+    product_id BIGINT PRIMARY KEY,
+    score      DOUBLE    NOT NULL,
+    saved_at   TIMESTAMP NOT NULL,
+    CONSTRAINT fk_trending_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
@@ -0,0 +1,11 @@
+-- V14: Дневные счетчики просмотров товаров
+-- Пишутся пакетно из in-memory счетчиков (write-behind), одна строка на товар в день
+
+CREATE TABLE product_views_daily
+(
+    product_id BIGINT NOT NULL,
+    view_date  DATE   NOT NULL,
+    views      BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, view_date),
+    CONSTRAINT fk_views_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
@@ -0,0 +1,6 @@
+-- V15: Индекс для таблицы товаров в админке
+-- Фильтры по статусу и продавцу уже покрыты idx_cards_status_created (status, created_at, ...)
+-- и idx_cards_seller_status_created (seller_id, status, ...). Без фильтра по статусу админка показывает
+-- все статусы, кроме DELETED, отсортированные по дате - для такой выборки нужен индекс по дате без статуса
+
+CREATE INDEX idx_cards_created ON product_cards (created_at, product_id);
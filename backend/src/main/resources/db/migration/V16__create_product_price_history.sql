@@ -0,0 +1,19 @@
+-- V16: История цен товаров
+-- Только дополняется: строка при создании товара и при каждом изменении цены.
+-- Индекс (product_id, changed_at, price) покрывающий - дневной график строится одним range scan без обращения к строкам
+
+CREATE TABLE product_price_history
+(
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT         NOT NULL,
+    price      DECIMAL(10, 2) NOT NULL,
+    changed_at TIMESTAMP      NOT NULL,
+    CONSTRAINT fk_price_history_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_price_history_product_time ON product_price_history (product_id, changed_at, price);
+
+-- Начальная точка для уже существующих товаров
+INSERT INTO product_price_history (product_id, price, changed_at)
+SELECT id, price, COALESCE(created_at, CURRENT_TIMESTAMP)
+FROM products;
@@ -0,0 +1,14 @@
+-- V17: Уменьшенные копии картинок товаров (160, 480 и 1080 px, JPEG)
+-- Генерируются в фоне после сохранения товара; файл варианта лежит в variants/<ширина>/<путь исходника>.jpg
+
+CREATE TABLE image_variants
+(
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    source_path VARCHAR(500) NOT NULL,
+    width       INT          NOT NULL,
+    path        VARCHAR(600) NOT NULL,
+    height      INT          NOT NULL,
+    bytes       BIGINT       NOT NULL,
+    created_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_variant_source_width UNIQUE (source_path, width)
+);
@@ -0,0 +1,15 @@
+-- V18: Счетчики ссылок на файлы хранилища
+-- Новые файлы сохраняются по SHA-256 содержимого (subDir/ab/cd/<hash>.ext), одинаковые - один раз.
+-- Удаление записи, ссылающейся на файл, только уменьшает ref_count; файлы с нулем удаляет фоновая очистка.
+-- Файлы, загруженные до этой миграции, в таблице не числятся и удаляются сразу, как раньше
+
+CREATE TABLE file_blobs
+(
+    path       VARCHAR(500) PRIMARY KEY,
+    ref_count  INT       NOT NULL,
+    size       BIGINT    NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_blobs_unreferenced ON file_blobs (ref_count, updated_at);
@@ -0,0 +1,10 @@
+-- V19: Очередь удаления файлов
+-- Пишется в транзакции, которая убирает ссылку на файл; файлы удаляет фоновый обработчик пачками уже после коммита
+
+CREATE TABLE file_deletion_queue
+(
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    path        VARCHAR(600) NOT NULL,
+    enqueued_at TIMESTAMP    NOT NULL,
+    attempts    INT          NOT NULL DEFAULT 0
+);
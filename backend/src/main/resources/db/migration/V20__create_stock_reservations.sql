@@ -0,0 +1,21 @@
+-- V20: Брони остатков под товары в корзинах
+-- stock_quantity - остаток на складе вместе с бронями, reserved_quantity - удержано бронями; купить можно разницу.
+-- Истекшие брони снимает фоновая чистка. Карточка хранит свободный остаток, брони - для формы продавца
+
+ALTER TABLE products
+    ADD COLUMN reserved_quantity INT NOT NULL DEFAULT 0;
+
+ALTER TABLE product_cards
+    ADD COLUMN reserved_quantity INT NOT NULL DEFAULT 0;
+
+CREATE TABLE stock_reservations
+(
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id    BIGINT    NOT NULL,
+    product_id BIGINT    NOT NULL,
+    quantity   INT       NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_stock_reservations_user_product UNIQUE (user_id, product_id),
+    CONSTRAINT fk_stock_reservations_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_stock_reservations_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
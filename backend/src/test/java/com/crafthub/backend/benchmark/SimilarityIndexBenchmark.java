@@ -0,0 +1,87 @@
+package com.crafthub.backend.benchmark;
+
+import com.crafthub.backend.index.SimilarityIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка запроса "похожие товары" на синтетическом каталоге.
+ * Не запускается вместе с тестами: после mvn test-compile запускается методом main
+ * (или org.openjdk.jmh.Main SimilarityIndexBenchmark) с тестовым classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarityIndexBenchmark {
+
+    private static final String[] CATEGORIES = {
+            "Керамика", "Текстиль", "Украшения", "Игрушки", "Декор", "Кожа", "Дерево", "Свечи", "Мыло", "Вязание"
+    };
+    private static final String[] ADJECTIVES = {
+            "керамическая", "вязаный", "деревянная", "льняная", "кожаный", "расписная", "ароматная", "плетеная",
+            "глиняная", "шерстяной", "серебряная", "фетровая", "стеклянная", "винтажная", "медная", "войлочная"
+    };
+    private static final String[] NOUNS = {
+            "кружка", "шарф", "шкатулка", "салфетка", "кошелек", "тарелка", "свеча", "корзина", "ваза", "варежки",
+            "серьги", "игрушка", "подставка", "брошь", "подвеска", "сумка", "мыло", "плед", "доска", "лампа"
+    };
+    private static final String[] WORDS = {
+            "ручная", "работа", "подарок", "натуральный", "материал", "авторский", "дизайн", "уникальный",
+            "экологичный", "прочный", "мягкий", "яркий", "уютный", "праздник", "дом", "кухня", "интерьер",
+            "размер", "цвет", "глазурь", "узор", "орнамент", "хлопок", "воск", "лаванда", "береза", "дуб",
+            "лен", "шерсть", "серебро", "бисер", "камень", "роспись", "эмаль", "обжиг", "печать", "вышивка"
+    };
+
+    @Param({"100000"})
+    public int products;
+
+    private SimilarityIndex index;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new SimilarityIndex();
+        random = new SplittableRandom(42);
+        for (int id = 1; id <= products; id++) {
+            String name = pick(ADJECTIVES) + " " + pick(NOUNS) + " " + pick(WORDS);
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 20; w++) {
+                description.append(pick(WORDS)).append(' ');
+            }
+            index.put(id, name, pick(CATEGORIES), description.toString());
+        }
+    }
+
+    @Benchmark
+    public List<Long> similarTop8() {
+        return index.similar(1 + random.nextInt(products), 8);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SimilarityIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+package com.crafthub.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Long2IntOpenHashMapTest {
+
+    @Test
+    void randomOperations_ShouldMatchHashMap() {
+        // Arrange
+        Random random = new Random(42);
+        Long2IntOpenHashMap map = new Long2IntOpenHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        // Act: узкий диапазон ключей - много коллизий, удалений и повторных вставок
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(2_000);
+            int delta = random.nextInt(3) - 1;
+            int value = map.addTo(key, delta);
+            int merged = expected.getOrDefault(key, 0) + delta;
+            if (merged == 0) {
+                expected.remove(key);
+            } else {
+                expected.put(key, merged);
+            }
+            assertEquals(merged, value);
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        Map<Long, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    void remove_ShouldKeepOtherKeysReachable() {
+        // Arrange
+        Long2IntOpenHashMap map = new Long2IntOpenHashMap(2);
+        for (long key = 1; key <= 100; key++) {
+            map.addTo(key, (int) key);
+        }
+
+        // Act
+        for (long key = 1; key <= 100; key += 2) {
+            map.remove(key);
+        }
+
+        // Assert
+        assertEquals(50, map.size());
+        for (long key = 1; key <= 100; key++) {
+            assertEquals(key % 2 == 0 ? (int) key : 0, map.get(key));
+        }
+    }
+}
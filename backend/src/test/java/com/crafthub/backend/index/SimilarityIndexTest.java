@@ -0,0 +1,62 @@
+package com.crafthub.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilarityIndexTest {
+
+    @Test
+    void similar_ShouldRankByTextSimilarity() {
+        // Arrange
+        SimilarityIndex index = new SimilarityIndex();
+        index.put(1L, "Керамическая кружка с глазурью", "Керамика", "Кружка ручной работы, обжиг и глазурь");
+        index.put(2L, "Керамическая кружка", "Керамика", "Глазурь, ручная работа");
+        index.put(3L, "Керамическая тарелка", "Керамика", "Тарелка ручной работы");
+        index.put(4L, "Вязаный шарф", "Текстиль", "Шерстяной шарф ручной работы");
+
+        // Act
+        List<Long> similar = index.similar(1L, 3);
+
+        // Assert
+        assertFalse(similar.contains(1L));
+        assertEquals(2L, similar.get(0));
+        assertTrue(similar.indexOf(3L) < similar.indexOf(4L) || !similar.contains(4L));
+    }
+
+    @Test
+    void remove_ShouldExcludeProductFromResults() {
+        // Arrange
+        SimilarityIndex index = new SimilarityIndex();
+        index.put(1L, "Деревянная шкатулка", "Дерево", "Резьба по дереву");
+        index.put(2L, "Деревянная шкатулка для украшений", "Дерево", "Резьба");
+
+        // Act
+        index.remove(2L);
+
+        // Assert
+        assertTrue(index.similar(1L, 5).isEmpty());
+        assertTrue(index.similar(2L, 5).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void signatures_ShouldNotDependOnCatalogSize() {
+        // Arrange: товар добавлен в пустой индекс
+        SimilarityIndex index = new SimilarityIndex();
+        index.put(1L, "Керамическая кружка с глазурью", "Керамика", "Кружка ручной работы");
+        int[] early = index.signatures(1L);
+
+        // Act: каталог вырос, частоты общих термов изменились, затем добавлен такой же товар
+        for (long id = 100; id < 400; id++) {
+            index.put(id, "Керамическая тарелка " + id, "Керамика", "Тарелка ручной работы");
+        }
+        index.put(2L, "Керамическая кружка с глазурью", "Керамика", "Кружка ручной работы");
+
+        // Assert: одинаковый текст - одинаковые корзины, независимо от момента добавления
+        assertArrayEquals(early, index.signatures(2L));
+        assertEquals(2L, index.similar(1L, 1).get(0));
+    }
+}
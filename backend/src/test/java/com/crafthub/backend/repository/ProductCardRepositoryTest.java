@@ -0,0 +1,191 @@
+package com.crafthub.backend.repository;
+
+import com.crafthub.backend.dto.request.AdminProductFilter;
+import com.crafthub.backend.dto.request.CatalogSort;
+import com.crafthub.backend.dto.response.DataVersion;
+import com.crafthub.backend.dto.stats.StatusCount;
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.model.*;
+import com.crafthub.backend.service.ProductCardService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что список карточек читается одним запросом, без N+1 по категориям, продавцам и картинкам.
+ * Схема создается Hibernate на H2: миграции Flyway написаны под MySQL.
+ */
+@DataJpaTest
+@Import(ProductCardService.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProductCardRepositoryTest {
+
+    private static final int PRODUCTS = 100;
+
+    @Autowired private ProductCardRepository productCardRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProductCardService productCardService;
+    @Autowired private EntityManager entityManager;
+
+    private User seller;
+
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(Category.builder().name("TEST").displayName("Тест").build());
+        seller = userRepository.save(User.builder()
+                .email("seller@test.com").password("pwd").fullName("Мастер")
+                .phoneNumber("+375290000000").role(Role.ROLE_SELLER).build());
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = Product.builder()
+                    .name("Товар " + i).description("Описание").price(BigDecimal.valueOf(10 + i))
+                    .stockQuantity(5).status(ProductStatus.ACTIVE).category(category).seller(seller)
+                    .images(new ArrayList<>())
+                    .build();
+            product.getImages().add(ProductImage.builder().imageUrl("products/" + i + "_1.jpg").isMain(true).product(product).build());
+            product.getImages().add(ProductImage.builder().imageUrl("products/" + i + "_2.jpg").isMain(false).product(product).build());
+            productCardService.refresh(productRepository.save(product));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void listing_ShouldIssueSingleStatement() {
+        // Arrange
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<ProductResponse> responses = productCardRepository.findAllByStatusOrderByCreatedAtDesc(ProductStatus.ACTIVE).stream()
+                .map(ProductCard::toResponse)
+                .toList();
+
+        // Assert
+        assertEquals(PRODUCTS, responses.size());
+        assertTrue(responses.stream().allMatch(r -> r.images().size() == 2 && r.images().get(0).isMain()));
+        assertTrue(responses.stream().allMatch(r -> "Тест".equals(r.categoryDisplayName()) && "Мастер".equals(r.sellerName())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateSellerName_ShouldRewriteAllSellerCards() {
+        // Act
+        int updated = productCardRepository.updateSellerName(seller.getId(), "Новое имя");
+        entityManager.clear();
+
+        // Assert
+        assertEquals(PRODUCTS, updated);
+        assertTrue(productCardRepository.findAllBySellerIdAndStatusOrderByCreatedAtDesc(seller.getId(), ProductStatus.ACTIVE)
+                .stream().allMatch(c -> "Новое имя".equals(c.getSellerName()) && c.getVersion() == 2));
+    }
+
+    @Test
+    void versions_ShouldChangeWhenCardChanges() {
+        // Arrange
+        Product product = productRepository.findAll().get(0);
+        DataVersion listBefore = productCardRepository.getVersionByStatus(ProductStatus.ACTIVE);
+        DataVersion cardBefore = productCardRepository.findVersion(product.getId()).orElseThrow();
+
+        // Act
+        product.setPrice(BigDecimal.ONE);
+        productCardService.refresh(product);
+        entityManager.flush();
+
+        // Assert
+        assertNotEquals(listBefore.etag("products"), productCardRepository.getVersionByStatus(ProductStatus.ACTIVE).etag("products"));
+        assertNotEquals(cardBefore.etag("product"), productCardRepository.findVersion(product.getId()).orElseThrow().etag("product"));
+        assertTrue(productCardRepository.findVersion(-1L).isEmpty());
+    }
+
+    @Test
+    void listVersion_ShouldChange_WhenCardWithSameVersionReplacesAnother() {
+        // Arrange: активная карточка версии 2 и карточка версии 1 на проверке
+        Product leaving = productRepository.findAll().get(0);
+        productCardService.refresh(leaving);
+        Product entering = productRepository.save(Product.builder()
+                .name("Новый товар").description("Описание").price(BigDecimal.TEN)
+                .stockQuantity(5).status(ProductStatus.PENDING).category(leaving.getCategory()).seller(seller)
+                .images(new ArrayList<>())
+                .build());
+        productCardService.refresh(entering);
+        entityManager.flush();
+        DataVersion before = productCardRepository.getVersionByStatus(ProductStatus.ACTIVE);
+
+        // Act: одна уходит из списка, другая приходит с той же версией 2 - количество и сумма версий не меняются
+        productCardRepository.updateStatus(List.of(entering.getId()), ProductStatus.ACTIVE);
+        productCardRepository.updateStatus(List.of(leaving.getId()), ProductStatus.PENDING);
+
+        // Assert
+        assertNotEquals(before.etag("products"), productCardRepository.getVersionByStatus(ProductStatus.ACTIVE).etag("products"));
+    }
+
+    @Test
+    void adminGrid_ShouldFilterPageAndCountInDatabase() {
+        // Arrange
+        List<Long> pendingIds = productRepository.findAll().stream().limit(3).map(Product::getId).toList();
+        productCardRepository.updateStatus(pendingIds, ProductStatus.PENDING);
+        entityManager.clear();
+
+        // Act
+        Page<ProductCard> pending = productCardRepository.findAll(
+                ProductSpecifications.adminGrid(new AdminProductFilter(ProductStatus.PENDING, seller.getId(), null, null, null)),
+                PageRequest.of(0, 2, CatalogSort.NEWEST.toSort()));
+        Page<ProductCard> future = productCardRepository.findAll(
+                ProductSpecifications.adminGrid(new AdminProductFilter(null, null, null, LocalDate.now().plusDays(1), null)),
+                PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(3, pending.getTotalElements());
+        assertEquals(2, pending.getContent().size());
+        assertTrue(pending.getContent().stream().allMatch(c -> pendingIds.contains(c.getProductId())));
+        assertEquals(0, future.getTotalElements());
+    }
+
+    @Test
+    void sellerInventory_ShouldPageByStatusAndCountInOneGroupBy() {
+        // Arrange
+        List<Long> ids = productRepository.findAll().stream().map(Product::getId).toList();
+        productCardRepository.updateStatus(ids.subList(0, 5), ProductStatus.PENDING);
+        productCardRepository.updateStatus(ids.subList(5, 7), ProductStatus.DELETED);
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<StatusCount> counts = productCardRepository.countBySellerIdGroupByStatus(seller.getId(), ProductStatus.DELETED);
+        Page<ProductCard> pending = productCardRepository.findAllBySellerIdAndStatus(
+                seller.getId(), ProductStatus.PENDING, PageRequest.of(0, 3, CatalogSort.NEWEST.toSort()));
+
+        // Assert
+        assertEquals(3, statistics.getPrepareStatementCount()); // GROUP BY + страница + COUNT
+        assertEquals(Map.of(ProductStatus.ACTIVE, PRODUCTS - 7L, ProductStatus.PENDING, 5L),
+                counts.stream().collect(Collectors.toMap(StatusCount::status, StatusCount::count)));
+        assertEquals(5, pending.getTotalElements());
+        assertEquals(3, pending.getContent().size());
+    }
+}
@@ -34,6 +34,7 @@ class CartServiceTest {
     @Mock private CartItemRepository cartItemRepository;
     @Mock private ProductRepository productRepository;
     @Mock private UserRepository userRepository;
+    @Mock private StockReservationService stockReservationService;
 
     @InjectMocks
     private CartService cartService;
@@ -67,10 +68,34 @@ class CartServiceTest {
         // Act
         cartService.addToCart(new AddToCartRequest(10L, 2));
 
-        // Assert
+        // Assert: товар забронирован на все количество в корзине
+        verify(stockReservationService).reserve(1L, 10L, 2);
         verify(cartItemRepository).save(any(CartItem.class));
     }
 
+    @Test
+    void addToCart_ShouldNotAddItem_WhenStockCannotBeReserved() {
+        // Arrange
+        String email = "user@test.com";
+        mockSecurityContext(email);
+
+        User user = User.builder().id(1L).email(email).build();
+        Product product = Product.builder().id(10L).seller(User.builder().id(2L).build()).build();
+        Cart cart = Cart.builder().user(user).items(new ArrayList<>()).build();
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findById(10L)).thenReturn(Optional.of(product));
+        when(stockReservationService.reserve(1L, 10L, 5))
+                .thenThrow(new IllegalStateException("Недостаточно товара на складе. Доступно: 1"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () ->
+                cartService.addToCart(new AddToCartRequest(10L, 5))
+        );
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+    }
+
     @Test
     void addToCart_ShouldThrow_WhenBuyingOwnProduct() {
         // Arrange
@@ -0,0 +1,82 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.request.CatalogFilter;
+import com.crafthub.backend.dto.response.CatalogFacetsResponse;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.event.StockChangedEvent;
+import com.crafthub.backend.index.ProductSnapshot;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class FacetServiceTest {
+
+    @Mock private ProductRepository productRepository;
+
+    @InjectMocks
+    private FacetService facetService;
+
+    private void add(long id, long categoryId, String price, double rating, int stock) {
+        facetService.onProductChanged(new ProductChangedEvent(new ProductSnapshot(
+                id, "Товар " + id, null, categoryId, "Категория " + categoryId, 1L, "Мастер",
+                new BigDecimal(price), rating, stock, ProductStatus.ACTIVE)));
+    }
+
+    private static long count(java.util.List<CatalogFacetsResponse.FacetValue> facet, String value) {
+        return facet.stream().filter(f -> f.value().equals(value)).findFirst()
+                .map(CatalogFacetsResponse.FacetValue::count).orElse(0L);
+    }
+
+    @BeforeEach
+    void setUp() {
+        add(1L, 1L, "30", 4.5, 3);
+        add(2L, 1L, "75", 3.2, 0);
+        add(3L, 2L, "75", 4.0, 5);
+        add(4L, 2L, "450", 0.0, 1);
+    }
+
+    @Test
+    void getFacets_ShouldIgnoreOwnFilterWhenCountingFacet() {
+        // Act
+        CatalogFacetsResponse facets = facetService.getFacets(new CatalogFilter(1L, null, null, null, null));
+
+        // Assert
+        assertEquals(2, facets.total());
+        assertEquals(2, count(facets.categories(), "1"));
+        assertEquals(2, count(facets.categories(), "2")); // соседняя категория считается без фильтра по категории
+        assertEquals(1, count(facets.ratings(), "4"));
+        assertEquals(1, count(facets.availability(), "IN_STOCK"));
+        assertEquals(1, count(facets.availability(), "OUT_OF_STOCK"));
+    }
+
+    @Test
+    void getFacets_ShouldFilterExactPriceInsidePartialBucket() {
+        // Act: диапазон 40..100 целиком покрывает "50 - 100" и частично "до 50"
+        CatalogFacetsResponse facets = facetService.getFacets(
+                new CatalogFilter(null, new BigDecimal("40"), new BigDecimal("100"), null, null));
+
+        // Assert
+        assertEquals(2, facets.total());
+    }
+
+    @Test
+    void onStockChanged_ShouldMoveProductBetweenAvailabilityBuckets() {
+        // Act
+        facetService.onStockChanged(new StockChangedEvent(1L, 0));
+
+        // Assert
+        CatalogFacetsResponse facets = facetService.getFacets(new CatalogFilter(null, null, null, null, null));
+        assertEquals(2, count(facets.availability(), "IN_STOCK"));
+        assertEquals(2, count(facets.availability(), "OUT_OF_STOCK"));
+    }
+}
@@ -0,0 +1,182 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.repository.FileBlobRepository;
+import com.crafthub.backend.repository.FileDeletionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Хранилище с адресацией по содержимому: счетчики ссылок живут в H2 (в режиме MySQL - ради
+ * INSERT ... ON DUPLICATE KEY UPDATE), файлы - в своей временной папке класса, которую JUnit удаляет после тестов.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({FileStorageService.class, FileCleanupService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:file-storage;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "upload.sweep-grace=0s"
+})
+class FileStorageServiceTest {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadPath(DynamicPropertyRegistry registry) {
+        registry.add("upload.path", uploadDir::toString);
+    }
+
+    @Autowired private FileStorageService fileStorageService;
+    @Autowired private FileBlobRepository fileBlobRepository;
+    @Autowired private FileCleanupService fileCleanupService;
+    @Autowired private FileDeletionRepository fileDeletionRepository;
+    @Autowired private TestEntityManager entityManager;
+
+    private static MockMultipartFile photo(String name, String content) {
+        return new MockMultipartFile("file", name, "image/jpeg", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void saveFile_ShouldStoreIdenticalContentOnce() {
+        // Act
+        String first = fileStorageService.saveFile(photo("a.JPG", "same bytes"), "products");
+        String second = fileStorageService.saveFile(photo("b.jpg", "same bytes"), "products");
+        String other = fileStorageService.saveFile(photo("c.jpg", "other bytes"), "products");
+
+        // Assert (счетчик меняется UPDATE-запросом в обход контекста - читаем заново)
+        entityManager.clear();
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        assertTrue(first.matches("products/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg"));
+        assertEquals(2, fileBlobRepository.findById(first).orElseThrow().getRefCount());
+        assertTrue(Files.exists(uploadDir.resolve(first)));
+    }
+
+    @Test
+    void sweepUnreferenced_ShouldRemoveFileOnlyAfterLastReference() {
+        // Arrange
+        String path = fileStorageService.saveFile(photo("a.jpg", "shared photo"), "products");
+        fileStorageService.saveFile(photo("a.jpg", "shared photo"), "products");
+        Path file = uploadDir.resolve(path);
+
+        // Act + Assert: первая ссылка освобождена - файл на месте
+        fileStorageService.deleteFile(path);
+        fileStorageService.sweepUnreferenced();
+        assertTrue(Files.exists(file));
+
+        // Act + Assert: последняя ссылка освобождена - очистка удаляет и файл, и запись
+        fileStorageService.deleteFile(path);
+        fileStorageService.sweepUnreferenced();
+        assertFalse(Files.exists(file));
+        assertFalse(fileBlobRepository.existsById(path));
+    }
+
+    @Test
+    void deleteFile_ShouldQueueLegacyFileAndRemoveItOnlyWhenQueueIsDrained() throws Exception {
+        // Arrange: файл старого формата без счетчика ссылок
+        Path file = uploadDir.resolve("products/legacy.jpg");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "legacy photo");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(60)));
+
+        // Act + Assert: удаление только ставит файл в очередь
+        fileStorageService.deleteFile("products/legacy.jpg");
+        assertEquals(1, fileDeletionRepository.count());
+        assertTrue(Files.exists(file));
+
+        // Act + Assert: фоновый разбор очереди удаляет файл и запись
+        fileCleanupService.drainDeletionQueue();
+        assertFalse(Files.exists(file));
+        assertEquals(0, fileDeletionRepository.count());
+    }
+
+    @Test
+    void commitStaged_ShouldPublishFilesOnlyAfterCommit() {
+        // Arrange: оба фото уже во временной папке
+        List<FileStorageService.StagedFile> staged = fileStorageService.stageAll(
+                List.of(photo("a.jpg", "staged one"), photo("b.png", "staged two")), "products");
+        assertEquals(2, staged.size());
+        assertTrue(staged.get(1).path().endsWith(".png"));
+        staged.forEach(file -> assertTrue(Files.exists(file.tmp())));
+
+        // Act
+        staged.forEach(fileStorageService::commitStaged);
+
+        // Assert: до коммита файлов на месте нет, после - есть, временные удалены
+        Path target = uploadDir.resolve(staged.get(0).path());
+        assertFalse(Files.exists(target));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        assertTrue(Files.exists(target));
+        staged.forEach(file -> assertFalse(Files.exists(file.tmp())));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void commitStaged_ShouldCountEveryReference_WhenSameFileIsCommittedConcurrently() throws Exception {
+        // Arrange: одно и то же фото загружено 8 раз, записи о файле еще нет
+        int uploads = 8;
+        List<FileStorageService.StagedFile> staged = fileStorageService.stageAll(
+                IntStream.range(0, uploads).<MultipartFile>mapToObj(i -> photo("a.jpg", "concurrent photo")).toList(),
+                "products");
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+        // Act: все публикации стартуют одновременно, каждая в своей транзакции
+        ExecutorService pool = Executors.newFixedThreadPool(uploads);
+        for (FileStorageService.StagedFile file : staged) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    fileStorageService.commitStaged(file);
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        // Assert: ни одной ошибки дубликата ключа, каждая загрузка засчитана
+        assertTrue(errors.isEmpty(), () -> "Неожиданные ошибки: " + errors);
+        assertEquals(uploads, fileBlobRepository.findById(staged.get(0).path()).orElseThrow().getRefCount());
+
+        // Тест работает вне транзакции - закоммиченную запись убираем сами
+        fileBlobRepository.deleteById(staged.get(0).path());
+    }
+}
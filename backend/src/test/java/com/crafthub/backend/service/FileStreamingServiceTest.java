@@ -0,0 +1,94 @@
+package com.crafthub.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStreamingServiceTest {
+
+    private static final String ETAG = "\"abc\"";
+
+    private final FileStreamingService fileStreamingService = new FileStreamingService();
+
+    @TempDir
+    Path dir;
+
+    private Path png() throws IOException {
+        byte[] content = new byte[100];
+        content[0] = (byte) 0x89;
+        content[1] = 'P';
+        content[2] = 'N';
+        content[3] = 'G';
+        for (int i = 4; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        return Files.write(dir.resolve("image.bin"), content);
+    }
+
+    @Test
+    void stream_ShouldServeRequestedRange() throws IOException {
+        // Arrange
+        Path file = png();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/image.bin");
+        request.addHeader("Range", "bytes=10-19");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        fileStreamingService.stream(file, ETAG, FileStreamingService.CACHE_IMMUTABLE, request, response);
+
+        // Assert
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader("Content-Range"));
+        assertEquals("image/png", response.getContentType());
+        byte[] body = response.getContentAsByteArray();
+        assertEquals(10, body.length);
+        assertEquals(10, body[0]);
+    }
+
+    @Test
+    void stream_ShouldAnswerNotModifiedForMatchingEtag() throws IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/image.bin");
+        request.addHeader("If-None-Match", ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        fileStreamingService.stream(png(), ETAG, FileStreamingService.CACHE_IMMUTABLE, request, response);
+
+        // Assert
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(FileStreamingService.CACHE_IMMUTABLE, response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void stream_ShouldServeUnrecognizedContentAsAttachment() throws IOException {
+        // Arrange: страница со скриптом под расширением .html
+        Path file = Files.writeString(dir.resolve("page.html"), "<html><script>alert(document.cookie)</script></html>");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/products/page.html");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        fileStreamingService.stream(file, ETAG, FileStreamingService.CACHE_IMMUTABLE, request, response);
+
+        // Assert: не text/html, браузер скачает файл, а не откроет его
+        assertEquals(200, response.getStatus());
+        assertEquals("application/octet-stream", response.getContentType());
+        assertEquals("attachment", response.getHeader("Content-Disposition"));
+        assertEquals("nosniff", response.getHeader("X-Content-Type-Options"));
+    }
+
+    @Test
+    void parseRange_ShouldRejectRangesOutsideFile() {
+        assertNull(FileStreamingService.parseRange("bytes=100-", 100));
+        assertArrayEquals(new long[]{90, 100}, FileStreamingService.parseRange("bytes=-10", 100));
+        assertEquals(0, FileStreamingService.parseRange("bytes=0-1,5-6", 100).length);
+    }
+}
@@ -0,0 +1,146 @@
+package com.crafthub.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ImageProcessingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] encode(String format, int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+        return out.toByteArray();
+    }
+
+    // APP1 с EXIF (ориентация 6 - поворот на 90°) и "секретом" вместо GPS сразу после SOI
+    private static byte[] withExif(byte[] jpeg) {
+        byte[] secret = "GPS 55.7558 37.6173".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer exif = ByteBuffer.allocate(6 + 26 + secret.length);
+        exif.put(new byte[]{'E', 'x', 'i', 'f', 0, 0});
+        exif.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+        exif.putShort((short) 1);
+        exif.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) 6).putShort((short) 0);
+        exif.putInt(0);
+        exif.put(secret);
+
+        ByteBuffer result = ByteBuffer.allocate(jpeg.length + 4 + exif.capacity());
+        result.put(jpeg, 0, 2);
+        result.putShort((short) 0xFFE1).putShort((short) (exif.capacity() + 2)).put(exif.array());
+        result.put(jpeg, 2, jpeg.length - 2);
+        return result.array();
+    }
+
+    @Test
+    void stripJpeg_ShouldDropExifButKeepOrientation() throws Exception {
+        // Arrange
+        byte[] source = withExif(encode("jpg", 40, 20));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        boolean changed = ImageProcessingService.stripJpeg(new ByteArrayInputStream(source), out);
+
+        // Assert
+        byte[] stripped = out.toByteArray();
+        String text = new String(stripped, StandardCharsets.ISO_8859_1);
+        assertTrue(changed);
+        assertFalse(text.contains("GPS"));
+        int app1 = text.indexOf("Exif");
+        assertEquals(6, ImageProcessingService.exifOrientation(Arrays.copyOfRange(stripped, app1, app1 + 32)));
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(stripped));
+        assertEquals(40, image.getWidth());
+    }
+
+    // WebP 1x1 (VP8L) с заголовком VP8X и чанком EXIF, в котором "секрет" вместо GPS
+    private static byte[] webpWithExif() {
+        byte[] vp8l = Arrays.copyOfRange(Base64.getDecoder().decode("UklGRhoAAABXRUJQVlA4TA0AAAAvAAAAEAcQERGIiP4HAA=="), 12, 34);
+        byte[] secret = "GPS 55.7558 37.6173".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer webp = ByteBuffer.allocate(12 + 18 + vp8l.length + 8 + secret.length + 1).order(ByteOrder.LITTLE_ENDIAN);
+        webp.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(webp.capacity() - 8).put("WEBP".getBytes(StandardCharsets.US_ASCII));
+        webp.put("VP8X".getBytes(StandardCharsets.US_ASCII)).putInt(10).put((byte) 0x08).put(new byte[9]);
+        webp.put(vp8l);
+        webp.put("EXIF".getBytes(StandardCharsets.US_ASCII)).putInt(secret.length).put(secret).put((byte) 0);
+        return webp.array();
+    }
+
+    @Test
+    void stripWebp_ShouldDropExifChunkAndFlag() throws Exception {
+        // Arrange
+        byte[] source = webpWithExif();
+        assertEquals(1, ImageIO.read(new ByteArrayInputStream(source)).getWidth());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        boolean changed = ImageProcessingService.stripWebp(new ByteArrayInputStream(source), out);
+
+        // Assert: секрета нет, флаг EXIF снят, размер RIFF пересчитан, картинка читается
+        byte[] stripped = out.toByteArray();
+        ByteBuffer riff = ByteBuffer.wrap(stripped).order(ByteOrder.LITTLE_ENDIAN);
+        assertTrue(changed);
+        assertFalse(new String(stripped, StandardCharsets.ISO_8859_1).contains("GPS"));
+        assertEquals(0, stripped[20] & 0x08);
+        assertEquals(stripped.length - 8, riff.getInt(4));
+        assertEquals(1, ImageIO.read(new ByteArrayInputStream(stripped)).getWidth());
+    }
+
+    @Test
+    void process_ShouldRejectImagesAbovePixelLimitAndNonImages() throws Exception {
+        // Arrange: лимит 1000 пикселей на картинку
+        ImageProcessingService service = new ImageProcessingService(mock(FileStorageService.class),
+                1, 1, Duration.ofSeconds(10), Duration.ofSeconds(5), 1000, 10_000, 1000);
+        Path big = Files.write(tempDir.resolve("big.tmp"), encode("png", 100, 100));
+        Path text = Files.writeString(tempDir.resolve("text.tmp"), "not an image");
+        try {
+            // Act + Assert
+            IllegalArgumentException tooBig = assertThrows(IllegalArgumentException.class, () -> service.process(
+                    List.of(new FileStorageService.StagedFile(big, "products/big.png", Files.size(big))), false));
+            assertEquals("Изображение слишком большое: 100x100", tooBig.getMessage());
+            assertThrows(IllegalArgumentException.class, () -> service.process(
+                    List.of(new FileStorageService.StagedFile(text, "products/a.jpg", Files.size(text))), false));
+            assertEquals(0, service.getStats().succeededCount());
+            assertEquals(2, service.getStats().failedCount());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void process_ShouldTakeExtensionFromDecodedFormat() throws Exception {
+        // Arrange: GIF и PDF под именами, которые браузер открыл бы как страницу
+        ImageProcessingService service = new ImageProcessingService(mock(FileStorageService.class),
+                1, 1, Duration.ofSeconds(10), Duration.ofSeconds(5), 10_000, 10_000, 10_000);
+        Path gif = Files.write(tempDir.resolve("gif.tmp"), encode("gif", 10, 10));
+        Path pdf = Files.writeString(tempDir.resolve("pdf.tmp"), "%PDF-1.4 scan");
+        try {
+            // Act
+            List<FileStorageService.StagedFile> result = service.process(List.of(
+                    new FileStorageService.StagedFile(gif, "products/ab/cd/abcd.html", Files.size(gif)),
+                    new FileStorageService.StagedFile(pdf, "documents/ab/cd/abcd.svg", Files.size(pdf))), true);
+
+            // Assert
+            assertEquals("products/ab/cd/abcd.gif", result.get(0).path());
+            assertEquals("documents/ab/cd/abcd.pdf", result.get(1).path());
+            assertEquals(gif, result.get(0).tmp());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
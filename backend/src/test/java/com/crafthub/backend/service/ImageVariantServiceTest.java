@@ -0,0 +1,145 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.model.ImageVariant;
+import com.crafthub.backend.repository.ImageVariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageVariantServiceTest {
+
+    @Mock private ImageVariantRepository imageVariantRepository;
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        imageVariantService = new ImageVariantService(imageVariantRepository, uploadDir.toString(), 0.8f, 1, 10, 40_000_000);
+    }
+
+    private void writePng(String relativePath, int width, int height) throws IOException {
+        Path file = uploadDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", file.toFile());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generate_ShouldWriteAllSmallerVariants() throws IOException {
+        // Arrange
+        writePng("products/photo.png", 2000, 1000);
+
+        // Act
+        imageVariantService.generate("products/photo.png");
+
+        // Assert
+        ArgumentCaptor<List<ImageVariant>> captor = ArgumentCaptor.forClass(List.class);
+        verify(imageVariantRepository).saveAll(captor.capture());
+        assertEquals(List.of(1080, 480, 160), captor.getValue().stream().map(ImageVariant::getWidth).toList());
+
+        BufferedImage thumbnail = ImageIO.read(uploadDir.resolve("variants/160/products/photo.png.jpg").toFile());
+        assertEquals(160, thumbnail.getWidth());
+        assertEquals(80, thumbnail.getHeight());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generate_ShouldNotUpscaleSmallImages() throws IOException {
+        // Arrange
+        writePng("products/small.png", 300, 300);
+
+        // Act
+        imageVariantService.generate("products/small.png");
+
+        // Assert
+        ArgumentCaptor<List<ImageVariant>> captor = ArgumentCaptor.forClass(List.class);
+        verify(imageVariantRepository).saveAll(captor.capture());
+        assertEquals(List.of(160), captor.getValue().stream().map(ImageVariant::getWidth).toList());
+        assertEquals(480, ImageVariantService.pickWidth(300));
+        assertFalse(Files.exists(uploadDir.resolve("variants/480/products/small.png.jpg")));
+    }
+
+    // JPEG 400x200 (слева красный, справа синий) с EXIF Orientation = 6: в браузере он стоит вертикально
+    private void writeRotatedJpeg(String relativePath) throws IOException {
+        BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 200, 200);
+        g.setColor(Color.BLUE);
+        g.fillRect(200, 0, 200, 200);
+        g.dispose();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", jpeg);
+        byte[] source = jpeg.toByteArray();
+
+        ByteBuffer exif = ByteBuffer.allocate(6 + 26);
+        exif.put(new byte[]{'E', 'x', 'i', 'f', 0, 0});
+        exif.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+        exif.putShort((short) 1);
+        exif.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) 6).putShort((short) 0);
+        exif.putInt(0);
+        ByteBuffer result = ByteBuffer.allocate(source.length + 4 + exif.capacity());
+        result.put(source, 0, 2);
+        result.putShort((short) 0xFFE1).putShort((short) (exif.capacity() + 2)).put(exif.array());
+        result.put(source, 2, source.length - 2);
+
+        Path file = uploadDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, result.array());
+    }
+
+    @Test
+    void generate_ShouldApplyExifOrientation() throws IOException {
+        // Arrange
+        writeRotatedJpeg("products/phone.jpg");
+
+        // Act
+        imageVariantService.generate("products/phone.jpg");
+
+        // Assert: вариант повернут на 90° по часовой - левая (красная) половина стала верхней
+        BufferedImage thumbnail = ImageIO.read(uploadDir.resolve("variants/160/products/phone.jpg.jpg").toFile());
+        assertEquals(160, thumbnail.getWidth());
+        assertEquals(320, thumbnail.getHeight());
+        Color top = new Color(thumbnail.getRGB(80, 40));
+        Color bottom = new Color(thumbnail.getRGB(80, 280));
+        assertTrue(top.getRed() > 200 && top.getBlue() < 60, top.toString());
+        assertTrue(bottom.getBlue() > 200 && bottom.getRed() < 60, bottom.toString());
+    }
+
+    @Test
+    void generate_ShouldSkipImagesAbovePixelLimit() throws IOException {
+        // Arrange: лимит 1000 пикселей, картинка 2000x1000
+        ImageVariantService limited = new ImageVariantService(imageVariantRepository, uploadDir.toString(), 0.8f, 1, 10, 1000);
+        writePng("products/huge.png", 2000, 1000);
+
+        // Act
+        limited.generate("products/huge.png");
+
+        // Assert: ничего не декодировано и не записано - клиент получит оригинал
+        verify(imageVariantRepository, never()).saveAll(anyList());
+        assertFalse(Files.exists(uploadDir.resolve("variants/160/products/huge.png.jpg")));
+        limited.shutdown();
+    }
+}
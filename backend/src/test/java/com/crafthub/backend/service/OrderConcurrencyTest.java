@@ -0,0 +1,217 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.request.OrderRequest;
+import com.crafthub.backend.model.*;
+import com.crafthub.backend.repository.CategoryRepository;
+import com.crafthub.backend.repository.OrderRepository;
+import com.crafthub.backend.repository.ProductCardRepository;
+import com.crafthub.backend.repository.ProductRepository;
+import com.crafthub.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочная проверка списания остатков: 200 покупателей одновременно берут товар с остатком 50,
+ * а модерация меняет статус товара, пока идут заказы. Тест не оборачивается в транзакцию - каждый заказ
+ * коммитится по-настоящему, H2 блокирует строки, как MySQL. Перепродажа (остаток ниже нуля, заказов больше
+ * остатка или остаток, "воскрешенный" записью устаревшей сущности) недопустима.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderService.class, ProductService.class, ProductCardService.class, StockReservationService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:order-concurrency;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=20"
+})
+class OrderConcurrencyTest {
+
+    private static final int BUYERS = 200;
+    private static final int STOCK = 50;
+
+    @Autowired private OrderService orderService;
+    @Autowired private ProductService productService;
+    @Autowired private ProductCardService productCardService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductCardRepository productCardRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @MockitoBean private CartService cartService;
+    @MockitoBean private NotificationService notificationService;
+    @MockitoBean private FileStorageService fileStorageService;
+    @MockitoBean private FacetService facetService;
+    @MockitoBean private ProductCacheService productCacheService;
+    @MockitoBean private PriceHistoryService priceHistoryService;
+
+    @Test
+    void createOrder_ShouldNeverOversell_When200BuyersCompete() throws Exception {
+        // Arrange
+        Product product = createProduct("race", STOCK);
+        List<String> emails = createBuyers("race", BUYERS);
+        long ordersBefore = orderRepository.count();
+
+        // Act: все покупатели стартуют одновременно
+        Checkouts checkouts = checkout(emails, product, () -> { });
+
+        // Assert
+        assertTrue(checkouts.errors().isEmpty(), () -> "Неожиданные ошибки: " + checkouts.errors());
+        assertEquals(STOCK, checkouts.placed());
+        assertEquals(BUYERS - STOCK, checkouts.soldOut());
+        assertEquals(0, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+        assertEquals(0, productCardRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        assertEquals(STOCK, orderRepository.count() - ordersBefore);
+    }
+
+    @Test
+    void approveProduct_ShouldKeepStockSoldAfterProductWasLoaded() throws Exception {
+        // Arrange
+        Product product = createProduct("approve", 10);
+        String buyer = createBuyers("approve", 1).get(0);
+
+        // Act: модератор загрузил товар (остаток 10), покупатель в это время оформил заказ в своей транзакции
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(10, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+            try {
+                Checkouts checkouts = checkout(List.of(buyer), product, () -> { });
+                assertEquals(1, checkouts.placed());
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            productService.approveProduct(product.getId());
+        });
+
+        // Assert: запись статуса не вернула проданную единицу ни в товар, ни в карточку
+        assertEquals(9, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+        ProductCard card = productCardRepository.findById(product.getId()).orElseThrow();
+        assertEquals(9, card.getStockQuantity());
+        assertEquals(ProductStatus.ACTIVE, card.getStatus());
+    }
+
+    @Test
+    void moderation_ShouldNotResurrectStock_WhileBuyersCheckOut() throws Exception {
+        // Arrange
+        Product product = createProduct("moderation", STOCK);
+        List<String> emails = createBuyers("moderation", STOCK * 2);
+        AtomicBoolean done = new AtomicBoolean();
+        Queue<Throwable> moderationErrors = new ConcurrentLinkedQueue<>();
+
+        // Act: модератор без пауз снимает и возвращает товар, пока покупатели разбирают остаток
+        Thread moderator = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    productService.suspendProduct(product.getId(), "Проверка");
+                    productService.approveProduct(product.getId());
+                }
+            } catch (Throwable e) {
+                moderationErrors.add(e);
+            }
+        });
+        moderator.start();
+        Checkouts checkouts = checkout(emails, product, () -> done.set(true));
+        moderator.join();
+
+        // Assert
+        assertTrue(checkouts.errors().isEmpty(), () -> "Неожиданные ошибки: " + checkouts.errors());
+        assertTrue(moderationErrors.isEmpty(), () -> "Ошибки модерации: " + moderationErrors);
+        assertEquals(STOCK, checkouts.placed());
+        assertEquals(0, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+        assertEquals(0, productCardRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    private record Checkouts(int placed, int soldOut, Queue<Throwable> errors) {
+    }
+
+    // Каждый покупатель оформляет заказ на 1 шт в своем потоке; все стартуют одновременно
+    private Checkouts checkout(List<String> emails, Product product, Runnable onFinish) throws InterruptedException {
+        OrderRequest request = new OrderRequest("Minsk",
+                List.of(new OrderRequest.OrderItemRequest(product.getId(), 1)));
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+        ExecutorService buyers = Executors.newFixedThreadPool(emails.size());
+        for (String email : emails) {
+            buyers.execute(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(email, null, List.of()));
+                try {
+                    start.await();
+                    orderService.createOrder(request);
+                    placed.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    soldOut.incrementAndGet();
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        }
+        start.countDown();
+        buyers.shutdown();
+        assertTrue(buyers.awaitTermination(2, TimeUnit.MINUTES));
+        onFinish.run();
+        return new Checkouts(placed.get(), soldOut.get(), errors);
+    }
+
+    private Product createProduct(String prefix, int stock) {
+        Category category = categoryRepository.save(Category.builder()
+                .name("TEST_" + prefix.toUpperCase()).displayName("Тест").build());
+        User seller = userRepository.save(User.builder()
+                .email(prefix + "-seller@test.com").password("pwd").fullName("Мастер")
+                .phoneNumber("+375" + prefix).role(Role.ROLE_SELLER).build());
+        Product product = productRepository.save(Product.builder()
+                .name("Кружка").description("Описание").price(BigDecimal.TEN)
+                .stockQuantity(stock).status(ProductStatus.ACTIVE).category(category).seller(seller)
+                .images(new ArrayList<>())
+                .build());
+        productCardService.refresh(product);
+        return product;
+    }
+
+    private List<String> createBuyers(String prefix, int count) {
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String email = prefix + "-buyer" + i + "@test.com";
+            userRepository.save(User.builder()
+                    .email(email).password("pwd").fullName("Покупатель " + i)
+                    .phoneNumber("+" + prefix + i).role(Role.ROLE_USER).build());
+            emails.add(email);
+        }
+        return emails;
+    }
+}
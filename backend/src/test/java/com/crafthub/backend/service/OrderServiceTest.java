@@ -10,9 +10,11 @@ import com.crafthub.backend.repository.ReviewRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -34,6 +36,9 @@ class OrderServiceTest {
     @Mock private CartService cartService;
     @Mock private NotificationService notificationService;
     @Mock private ReviewRepository reviewRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private ProductCardService productCardService;
+    @Mock private StockReservationService stockReservationService;
 
     @InjectMocks
     private OrderService orderService;
@@ -71,6 +76,7 @@ class OrderServiceTest {
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(buyer));
         when(productRepository.findById(10L)).thenReturn(Optional.of(product));
+        when(productRepository.decrementStock(10L, 2)).thenReturn(1);
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> {
             Order o = i.getArgument(0);
             o.setId(777L);
@@ -84,9 +90,11 @@ class OrderServiceTest {
         // Assert
         assertEquals(1, responses.size());
         assertEquals(new BigDecimal("200.00"), responses.get(0).totalAmount()); // 100 * 2 = 200
-        assertEquals(8, product.getStockQuantity()); // Было 10, купили 2, стало 8
 
-        verify(productRepository).save(product); // Проверяем, что товар обновился в БД
+        // Брони не было - остаток списан условным UPDATE, карточка обновлена
+        verify(productRepository).decrementStock(10L, 2);
+        verify(productCardService).refreshStock(10L);
+        verify(productRepository, never()).save(any(Product.class));
         verify(notificationService).createNotification(eq(seller), anyString(), eq(NotificationType.ORDER));
     }
 
@@ -98,6 +106,7 @@ class OrderServiceTest {
 
         Product product = Product.builder().id(10L).stockQuantity(1).build(); // На складе 1 шт
         when(productRepository.findById(10L)).thenReturn(Optional.of(product));
+        when(productRepository.decrementStock(10L, 5)).thenReturn(0);
 
         OrderRequest.OrderItemRequest itemReq = new OrderRequest.OrderItemRequest(10L, 5); // Хотим купить 5
         OrderRequest request = new OrderRequest("Addr", List.of(itemReq));
@@ -105,4 +114,79 @@ class OrderServiceTest {
         // Act & Assert
         assertThrows(IllegalStateException.class, () -> orderService.createOrder(request));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createOrder_ShouldThrowException_WhenStockTakenByConcurrentOrder() {
+        // Arrange: при чтении товара хватало, но параллельный заказ успел списать остаток
+        mockSecurityContext("buyer@test.com");
+        when(userRepository.findByEmail(any())).thenReturn(Optional.of(new User()));
+
+        Product product = Product.builder().id(10L).name("Cup").stockQuantity(1).build();
+        when(productRepository.findById(10L)).thenReturn(Optional.of(product));
+        when(productRepository.decrementStock(10L, 1)).thenReturn(0);
+
+        OrderRequest request = new OrderRequest("Addr", List.of(new OrderRequest.OrderItemRequest(10L, 1)));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(request));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(productCardService, never()).refreshStock(anyLong());
+    }
+
+    @Test
+    void createOrder_ShouldUseCartReservation_AndDecrementOnlyTheRest() {
+        // Arrange: в корзине забронировано 2 шт, заказывают 3
+        String email = "buyer@test.com";
+        mockSecurityContext(email);
+
+        User buyer = User.builder().id(1L).email(email).build();
+        User seller = User.builder().id(2L).fullName("Seller").build();
+        Product product = Product.builder().id(10L).name("Cup").price(BigDecimal.TEN).stockQuantity(1).seller(seller).build();
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(buyer));
+        when(productRepository.findById(10L)).thenReturn(Optional.of(product));
+        when(stockReservationService.consume(1L, 10L, 3)).thenReturn(2);
+        when(productRepository.decrementStock(10L, 1)).thenReturn(1);
+        when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArgument(0));
+
+        OrderRequest request = new OrderRequest("Addr", List.of(new OrderRequest.OrderItemRequest(10L, 3)));
+
+        // Act
+        orderService.createOrder(request);
+
+        // Assert: со склада списана только недостающая 1 шт
+        verify(productRepository).decrementStock(10L, 1);
+        verify(productCardService).refreshStock(10L);
+    }
+
+    @Test
+    void createOrder_ShouldReleaseCartOnlyHoldsInProductIdOrder() {
+        // Arrange: заказывают товар 20, а в корзине еще забронированы товары 10 и 30
+        String email = "buyer@test.com";
+        mockSecurityContext(email);
+
+        User buyer = User.builder().id(1L).email(email).build();
+        User seller = User.builder().id(2L).fullName("Seller").build();
+        Product product = Product.builder().id(20L).name("Cup").price(BigDecimal.TEN).stockQuantity(5).seller(seller).build();
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(buyer));
+        when(productRepository.findById(20L)).thenReturn(Optional.of(product));
+        when(stockReservationService.findReservedProductIds(1L)).thenReturn(List.of(10L, 20L, 30L));
+        when(stockReservationService.consume(1L, 20L, 1)).thenReturn(1);
+        when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArgument(0));
+
+        OrderRequest request = new OrderRequest("Addr", List.of(new OrderRequest.OrderItemRequest(20L, 1)));
+
+        // Act
+        orderService.createOrder(request);
+
+        // Assert: брони сняты в том же проходе по id, что и списание, и до очистки корзины
+        InOrder inOrder = inOrder(stockReservationService, cartService);
+        inOrder.verify(stockReservationService).release(1L, 10L);
+        inOrder.verify(stockReservationService).consume(1L, 20L, 1);
+        inOrder.verify(stockReservationService).release(1L, 30L);
+        inOrder.verify(cartService).clearCart(any());
+        verify(stockReservationService, never()).release(1L, 20L);
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+    }
+}
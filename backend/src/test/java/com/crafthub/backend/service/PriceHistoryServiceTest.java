@@ -0,0 +1,84 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.stats.PriceChange;
+import com.crafthub.backend.dto.stats.PricePoint;
+import com.crafthub.backend.repository.ProductPriceHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryServiceTest {
+
+    @Mock private ProductPriceHistoryRepository priceHistoryRepository;
+
+    @InjectMocks
+    private PriceHistoryService priceHistoryService;
+
+    @Test
+    void getDailySeries_ShouldCollapseChangesIntoDailyMinMaxLast() {
+        // Arrange
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate today = LocalDate.now();
+        when(priceHistoryRepository.findChanges(eq(1L), any(), any())).thenReturn(List.of(
+                new PriceChange(yesterday.atTime(9, 0), new BigDecimal("20.00")),
+                new PriceChange(yesterday.atTime(12, 0), new BigDecimal("15.00")),
+                new PriceChange(yesterday.atTime(18, 0), new BigDecimal("18.00")),
+                new PriceChange(today.atTime(10, 0), new BigDecimal("12.00"))));
+
+        // Act
+        List<PricePoint> series = priceHistoryService.getDailySeries(1L, 7);
+
+        // Assert
+        assertEquals(List.of(
+                new PricePoint(yesterday, new BigDecimal("15.00"), new BigDecimal("20.00"), new BigDecimal("18.00")),
+                new PricePoint(today, new BigDecimal("12.00"), new BigDecimal("12.00"), new BigDecimal("12.00"))),
+                series);
+    }
+
+    @Test
+    void getDailySeries_ShouldScanRequestedRangeOnly() {
+        // Arrange
+        LocalDateTime from = LocalDate.now().minusDays(29).atStartOfDay();
+        LocalDateTime to = LocalDate.now().plusDays(1).atStartOfDay();
+        when(priceHistoryRepository.findChanges(1L, from, to)).thenReturn(List.of());
+
+        // Act
+        List<PricePoint> series = priceHistoryService.getDailySeries(1L, 30);
+
+        // Assert
+        assertTrue(series.isEmpty());
+    }
+
+    @Test
+    void getDailySeries_ShouldSeedWithPriceInEffectBeforePeriod() {
+        // Arrange: цена последний раз менялась за год до периода
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(6);
+        when(priceHistoryRepository.findLatestBefore(eq(1L), eq(from.atStartOfDay()), any())).thenReturn(List.of(
+                new PriceChange(today.minusYears(1).atTime(9, 0), new BigDecimal("25.00"))));
+        when(priceHistoryRepository.findChanges(eq(1L), any(), any())).thenReturn(List.of());
+
+        // Act
+        List<PricePoint> series = priceHistoryService.getDailySeries(1L, 7);
+
+        // Assert: цена на начало периода, продленная до сегодняшнего дня
+        BigDecimal price = new BigDecimal("25.00");
+        assertEquals(List.of(
+                new PricePoint(from, price, price, price),
+                new PricePoint(today, price, price, price)),
+                series);
+    }
+}
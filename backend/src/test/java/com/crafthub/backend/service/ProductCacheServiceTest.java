@@ -0,0 +1,85 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.event.StockChangedEvent;
+import com.crafthub.backend.index.ProductSnapshot;
+import com.crafthub.backend.model.ProductStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheServiceTest {
+
+    private final ProductCacheService productCacheService = new ProductCacheService(100, Duration.ofMinutes(10));
+
+    private static ProductResponse response(Long id, Integer stock) {
+        return new ProductResponse(id, "Кружка", null, BigDecimal.TEN, stock, 0, null, "ACTIVE",
+                null, 1L, null, null, 0.0, 0, List.of());
+    }
+
+    @Test
+    void get_ShouldLoadOnceForConcurrentMisses() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+
+        // Act
+        List<Future<ProductResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return productCacheService.get(1L, id -> {
+                    loads.incrementAndGet();
+                    sleep();
+                    return response(id, 5);
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<ProductResponse> result : results) {
+            assertEquals(1L, result.get().id());
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(1, productCacheService.getStats().loadCount());
+    }
+
+    @Test
+    void events_ShouldInvalidateOnlyChangedProduct() {
+        // Arrange
+        productCacheService.get(1L, id -> response(id, 5));
+        productCacheService.get(2L, id -> response(id, 5));
+
+        // Act
+        productCacheService.onStockChanged(new StockChangedEvent(1L, 0));
+        productCacheService.onProductChanged(new ProductChangedEvent(new ProductSnapshot(2L, "Кружка", null,
+                1L, null, 1L, null, BigDecimal.TEN, 0.0, 5, ProductStatus.REJECTED)));
+
+        // Assert
+        assertEquals(0, productCacheService.get(1L, id -> response(id, 0)).stockQuantity());
+        assertEquals(7, productCacheService.get(2L, id -> response(id, 7)).stockQuantity());
+        assertEquals(4, productCacheService.getStats().missCount());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
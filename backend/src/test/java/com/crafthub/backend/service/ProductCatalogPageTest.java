@@ -0,0 +1,177 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.request.CatalogCursor;
+import com.crafthub.backend.dto.request.CatalogFilter;
+import com.crafthub.backend.dto.request.CatalogSort;
+import com.crafthub.backend.dto.response.CatalogPageResponse;
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.exception.GlobalExceptionHandler;
+import com.crafthub.backend.model.*;
+import com.crafthub.backend.repository.CategoryRepository;
+import com.crafthub.backend.repository.ProductCardRepository;
+import com.crafthub.backend.repository.ProductRepository;
+import com.crafthub.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset-пагинация каталога на настоящей БД: обход всех страниц по курсору для каждой сортировки.
+ * У многих товаров совпадают дата, цена и рейтинг - порядок внутри такой группы держится только на id.
+ * Схема создается Hibernate на H2: миграции Flyway написаны под MySQL.
+ */
+@DataJpaTest
+@Import({ProductService.class, ProductCardService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ProductCatalogPageTest {
+
+    private static final int PRODUCTS = 50;
+    private static final int PAGE_SIZE = 7;
+    private static final CatalogFilter NO_FILTER = new CatalogFilter(null, null, null, null, null);
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductCardService productCardService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductCardRepository productCardRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+
+    @MockitoBean private FileStorageService fileStorageService;
+    @MockitoBean private NotificationService notificationService;
+    @MockitoBean private FacetService facetService;
+    @MockitoBean private ProductCacheService productCacheService;
+    @MockitoBean private PriceHistoryService priceHistoryService;
+    @MockitoBean private StockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(Category.builder().name("TEST").displayName("Тест").build());
+        User seller = userRepository.save(User.builder()
+                .email("seller@test.com").password("pwd").fullName("Мастер")
+                .phoneNumber("+375290000000").role(Role.ROLE_SELLER).build());
+
+        LocalDateTime base = LocalDateTime.of(2026, 3, 1, 12, 0);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .name("Товар " + i).description("Описание").price(BigDecimal.TEN)
+                    .stockQuantity(5).status(ProductStatus.ACTIVE).category(category).seller(seller)
+                    .images(new ArrayList<>())
+                    .build());
+            productCardService.refresh(product);
+            // Всего 3 даты, 5 цен и 4 рейтинга на 50 товаров - каждая страница режет группы одинаковых ключей
+            entityManager.flush();
+            entityManager.createNativeQuery("UPDATE product_cards SET created_at = ?, price = ?, average_rating = ? " +
+                            "WHERE product_id = ?")
+                    .setParameter(1, base.plusMinutes(i % 3))
+                    .setParameter(2, BigDecimal.valueOf(1000 + (i % 5) * 250, 2))
+                    .setParameter(3, (i % 4) * 1.5)
+                    .setParameter(4, product.getId())
+                    .executeUpdate();
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getCatalogPage_ShouldWalkAllPagesWithoutDuplicatesOrGaps() {
+        for (CatalogSort sort : List.of(CatalogSort.NEWEST, CatalogSort.PRICE_ASC, CatalogSort.PRICE_DESC, CatalogSort.RATING)) {
+            // Arrange: ожидаемый порядок - ключ сортировки, затем id, в одном направлении
+            List<Long> expected = expectedOrder(sort);
+
+            // Act: идем по nextCursor до конца
+            List<Long> walked = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                CatalogPageResponse page = productService.getCatalogPage(NO_FILTER, sort, cursor, PAGE_SIZE);
+                page.items().stream().map(ProductResponse::id).forEach(walked::add);
+                assertEquals(page.nextCursor() != null, page.hasMore(), sort.name());
+                cursor = page.nextCursor();
+                pages++;
+            } while (cursor != null && pages <= PRODUCTS);
+
+            // Assert
+            assertEquals(PRODUCTS, new HashSet<>(walked).size(), sort + ": повторы на стыке страниц");
+            assertEquals(expected, walked, sort.name());
+            assertEquals((PRODUCTS + PAGE_SIZE - 1) / PAGE_SIZE, pages, sort.name());
+        }
+    }
+
+    @Test
+    void catalogCursor_ShouldRoundTripForEverySort() {
+        ProductCard card = productCardRepository.findAll().get(7);
+        for (CatalogSort sort : CatalogSort.values()) {
+            // Act
+            CatalogCursor cursor = CatalogCursor.after(sort, card);
+            CatalogCursor decoded = CatalogCursor.decode(cursor.encode(), sort);
+
+            // Assert
+            assertEquals(cursor, decoded, sort.name());
+        }
+    }
+
+    @Test
+    void getCatalogPage_ShouldRejectTamperedCursorWithBadRequest() {
+        // Arrange: мусор, курсор другой сортировки, подмененные ключ и id
+        String priceCursor = CatalogCursor.after(CatalogSort.PRICE_ASC, productCardRepository.findAll().get(0)).encode();
+        List<String> tampered = List.of(
+                "не-base64!",
+                encode("garbage"),
+                encode("UNKNOWN|1|1"),
+                priceCursor,
+                encode("NEWEST|вчера|1"),
+                encode("NEWEST|2026-03-01T12:00|abc"),
+                encode("NEWEST|2026-03-01T12:00"));
+
+        for (String cursor : tampered) {
+            // Act
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> productService.getCatalogPage(NO_FILTER, CatalogSort.NEWEST, cursor, PAGE_SIZE), cursor);
+
+            // Assert: обработчик отвечает 400 с понятным сообщением
+            ResponseEntity<Map<String, String>> response = new GlobalExceptionHandler().handleIllegalArgumentException(e);
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            assertEquals("Некорректный курсор страницы", response.getBody().get("message"));
+        }
+    }
+
+    private List<Long> expectedOrder(CatalogSort sort) {
+        Comparator<ProductCard> order = switch (sort) {
+            case NEWEST, OLDEST -> Comparator.comparing(ProductCard::getCreatedAt);
+            case PRICE_ASC, PRICE_DESC -> Comparator.comparing(ProductCard::getPrice);
+            case RATING -> Comparator.comparing(ProductCard::getAverageRating);
+        };
+        order = order.thenComparing(ProductCard::getProductId);
+        if (sort.isDescending()) {
+            order = order.reversed();
+        }
+        return productCardRepository.findAll().stream().sorted(order).map(ProductCard::getProductId).toList();
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
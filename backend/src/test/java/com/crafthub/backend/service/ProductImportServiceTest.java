@@ -0,0 +1,189 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.ImportReport;
+import com.crafthub.backend.model.*;
+import com.crafthub.backend.repository.CategoryRepository;
+import com.crafthub.backend.repository.ProductCardRepository;
+import com.crafthub.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Импорт проверяется на H2: строки вставляются JDBC-батчами в products и product_cards.
+ * Контекст пересоздается после каждого теста - сервис кеширует справочник категорий.
+ */
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import({ProductImportService.class, FileStorageService.class, ImageProcessingService.class, LocalValidatorFactoryBean.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "product.import.batch-size=2",
+        "product.import.max-file-size=4KB"
+})
+class ProductImportServiceTest {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadPath(DynamicPropertyRegistry registry) {
+        registry.add("upload.path", uploadDir::toString);
+    }
+
+    @Autowired private ProductImportService productImportService;
+    @Autowired private ProductCardRepository productCardRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private UserRepository userRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder().name("CERAMICS").displayName("Керамика").build());
+        userRepository.save(User.builder()
+                .email("seller@test.com").password("pwd").fullName("Мастер")
+                .phoneNumber("+375290000000").role(Role.ROLE_SELLER).build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("seller@test.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private ImportReport importFile(String name, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return productImportService.importProducts(new ByteArrayInputStream(bytes), bytes.length, name);
+    }
+
+    @Test
+    void importCsv_ShouldInsertValidRowsAndReportInvalid() {
+        // Arrange
+        String csv = """
+                name;description;price;stock_quantity;category
+                Кружка;\"Ручная работа; глазурь \"\"капля\"\"\";12,50;3;Керамика
+                Ваза;;20;1;ceramics
+                ;Без названия;5;1;Керамика
+                Тарелка;;-1;1;Керамика
+                Миска;;7;1;Стекло
+                Блюдо;"Две
+                строки";15;2;%d
+                """.formatted(category.getId());
+
+        // Act
+        ImportReport report = importFile("products.csv", csv);
+
+        // Assert
+        assertEquals(6, report.totalRows());
+        assertEquals(3, report.imported());
+        assertEquals(List.of(4L, 5L, 6L), report.errors().stream().map(ImportReport.RowError::line).toList());
+        assertEquals("Категория не найдена: Стекло", report.errors().get(2).message());
+
+        List<ProductCard> cards = productCardRepository.findAllByStatusNotOrderByCreatedAtDesc(ProductStatus.DELETED);
+        assertEquals(3, cards.size());
+        assertTrue(cards.stream().allMatch(c -> c.getStatus() == ProductStatus.PENDING && "Мастер".equals(c.getSellerName())));
+        ProductCard mug = cards.stream().filter(c -> c.getName().equals("Кружка")).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("12.50").compareTo(mug.getPrice()));
+        assertEquals("Ручная работа; глазурь \"капля\"", mug.getDescription());
+        assertTrue(cards.stream().anyMatch(c -> "Две\nстроки".equals(c.getDescription())));
+    }
+
+    @Test
+    void importNdjson_ShouldReportBadJsonAndBadImageLinks() {
+        // Arrange
+        String ndjson = """
+                {"name":"Кружка","price":10,"stockQuantity":1,"category":"CERAMICS"}
+                {"name":"Ваза","price":
+                {"name":"Блюдо","price":10,"stockQuantity":1,"category":"CERAMICS","images":["ftp://example.com/a.jpg"]}
+                """;
+
+        // Act
+        ImportReport report = importFile("products.ndjson", ndjson);
+
+        // Assert
+        assertEquals(3, report.totalRows());
+        assertEquals(1, report.imported());
+        assertTrue(report.errors().get(0).message().startsWith("Некорректный JSON"));
+        assertEquals("Картинки загружаются только по http(s): ftp://example.com/a.jpg", report.errors().get(1).message());
+    }
+
+    @Test
+    void importNdjson_ShouldNotFetchPrivateAddressesAndCheckMainImageIndex() {
+        // Arrange: ссылки на loopback и метаданные облака, индекс главной картинки за пределами списка
+        String ndjson = """
+                {"name":"Кружка","price":10,"stockQuantity":1,"category":"CERAMICS","images":["http://127.0.0.1:8080/a.jpg"]}
+                {"name":"Ваза","price":10,"stockQuantity":1,"category":"CERAMICS","images":["http://169.254.169.254/latest/meta-data"]}
+                {"name":"Блюдо","price":10,"stockQuantity":1,"category":"CERAMICS","images":["http://[::ffff:10.0.0.1]/a.jpg"]}
+                {"name":"Миска","price":10,"stockQuantity":1,"category":"CERAMICS","images":["https://example.com/a.jpg"],"mainImageIndex":1}
+                """;
+
+        // Act
+        ImportReport report = importFile("products.ndjson", ndjson);
+
+        // Assert
+        assertEquals(0, report.imported());
+        assertEquals(4, report.errors().size());
+        Map<Long, String> messages = report.errors().stream()
+                .collect(Collectors.toMap(ImportReport.RowError::line, ImportReport.RowError::message));
+        for (long line = 1; line <= 3; line++) {
+            assertTrue(messages.get(line).contains("не является публичным"), messages.get(line));
+        }
+        assertEquals("Индекс главной картинки вне списка картинок: 1", messages.get(4L));
+    }
+
+    @Test
+    void importProducts_ShouldEnforceImportSizeLimit() {
+        // Arrange: лимит в тесте 4 КБ; файл около 6 КБ - одна пачка из 2 строк помещается до обрыва
+        StringBuilder csv = new StringBuilder("name;price;stock_quantity;category\n");
+        for (int i = 0; csv.length() < 6 * 1024; i++) {
+            csv.append("Кружка ").append(i).append(";10;1;CERAMICS\n");
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        // Act + Assert: заявленный размер больше лимита - файл не читается вовсе
+        IllegalArgumentException declared = assertThrows(IllegalArgumentException.class, () ->
+                productImportService.importProducts(new ByteArrayInputStream(bytes), bytes.length, "products.csv"));
+        assertEquals("Файл импорта больше 4 КБ", declared.getMessage());
+        assertTrue(productCardRepository.findAllByStatusNotOrderByCreatedAtDesc(ProductStatus.DELETED).isEmpty());
+
+        // Act + Assert: размер не заявлен - чтение обрывается на лимите
+        assertThrows(IllegalArgumentException.class, () ->
+                productImportService.importProducts(new ByteArrayInputStream(bytes), -1, "products.csv"));
+    }
+
+    @Test
+    void isPublicAddress_ShouldRejectInternalRanges() throws Exception {
+        for (String address : List.of("127.0.0.1", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254",
+                "0.0.0.0", "100.64.0.1", "::1", "fe80::1", "fd00::1", "::ffff:192.168.0.1", "64:ff9b::a00:1",
+                "2002:7f00:1::")) {
+            assertFalse(ProductImportService.isPublicAddress(InetAddress.getByName(address)), address);
+        }
+        assertTrue(ProductImportService.isPublicAddress(InetAddress.getByName("93.184.216.34")));
+        assertTrue(ProductImportService.isPublicAddress(InetAddress.getByName("2606:4700::1111")));
+    }
+}
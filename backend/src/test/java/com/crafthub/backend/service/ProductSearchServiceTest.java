@@ -0,0 +1,90 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.index.ProductSnapshot;
+import com.crafthub.backend.model.ProductCard;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductCardRepository;
+import com.crafthub.backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchServiceTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private ProductCardRepository productCardRepository;
+
+    @InjectMocks
+    private ProductSearchService productSearchService;
+
+    private static ProductSnapshot snapshot(long id, String name, String category, ProductStatus status) {
+        return new ProductSnapshot(id, name, "Ручная работа", 1L, category, 1L, "Мастер",
+                BigDecimal.TEN, 0.0, 1, status);
+    }
+
+    // Индекс возвращает id, а карточки дочитываются из репозитория - отдаем их как есть
+    private void mockLoading() {
+        when(productCardRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> ProductCard.builder().productId(id).status(ProductStatus.ACTIVE).build()).toList();
+        });
+    }
+
+    @Test
+    void search_ShouldMatchWordForms() {
+        // Arrange
+        mockLoading();
+        productSearchService.onProductChanged(new ProductChangedEvent(
+                snapshot(1L, "Керамическая кружка", "Керамика", ProductStatus.ACTIVE)));
+        productSearchService.onProductChanged(new ProductChangedEvent(
+                snapshot(2L, "Деревянный стол", "Мебель", ProductStatus.ACTIVE)));
+
+        // Act
+        List<ProductResponse> result = productSearchService.search("кружки", 10);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).id());
+    }
+
+    @Test
+    void search_ShouldMatchPrefixOfLastWord() {
+        // Arrange
+        mockLoading();
+        productSearchService.onProductChanged(new ProductChangedEvent(
+                snapshot(1L, "Льняная скатерть", "Текстиль", ProductStatus.ACTIVE)));
+
+        // Act
+        List<ProductResponse> result = productSearchService.search("скат", 10);
+
+        // Assert
+        assertEquals(List.of(1L), result.stream().map(ProductResponse::id).toList());
+    }
+
+    @Test
+    void onProductChanged_ShouldRemoveInactiveProduct() {
+        // Arrange
+        productSearchService.onProductChanged(new ProductChangedEvent(
+                snapshot(1L, "Свеча из воска", "Свечи", ProductStatus.ACTIVE)));
+
+        // Act
+        productSearchService.onProductChanged(new ProductChangedEvent(
+                snapshot(1L, "Свеча из воска", "Свечи", ProductStatus.DELETED)));
+
+        // Assert
+        assertTrue(productSearchService.search("свеча", 10).isEmpty());
+        verify(productCardRepository, never()).findAllById(anyList());
+    }
+}
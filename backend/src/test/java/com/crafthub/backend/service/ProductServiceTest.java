@@ -3,7 +3,11 @@ package com.crafthub.backend.service;
 import com.crafthub.backend.dto.request.ProductRequest;
 import com.crafthub.backend.dto.response.ProductResponse;
 import com.crafthub.backend.model.*;
+import com.crafthub.backend.dto.response.BulkModerationResponse;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.index.ProductSnapshot;
 import com.crafthub.backend.repository.CategoryRepository;
+import com.crafthub.backend.repository.ProductCardRepository;
 import com.crafthub.backend.repository.ProductRepository;
 import com.crafthub.backend.repository.UserRepository;
 import org.junit.jupiter.api.AfterEach;
@@ -13,16 +17,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +42,11 @@ class ProductServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private FileStorageService fileStorageService;
     @Mock private NotificationService notificationService; // Нужно, если есть уведомления
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private ProductCardService productCardService;
+    @Mock private ProductCardRepository productCardRepository;
+    @Mock private PriceHistoryService priceHistoryService;
+    @Mock private StockReservationService stockReservationService;
 
     @InjectMocks
     private ProductService productService;
@@ -81,6 +95,7 @@ class ProductServiceTest {
         assertNotNull(response);
         assertEquals("Table", response.name());
         verify(productRepository).save(any(Product.class));
+        verify(priceHistoryService).record(100L, BigDecimal.TEN);
     }
 
     @Test
@@ -98,7 +113,7 @@ class ProductServiceTest {
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> productService.deleteProduct(50L));
-        verify(productRepository, never()).delete(any());
+        verify(productRepository, never()).delete(any(Product.class));
     }
 
     @Test
@@ -114,4 +129,42 @@ class ProductServiceTest {
         assertEquals(ProductStatus.ACTIVE, product.getStatus());
         verify(productRepository).save(product);
     }
-}
\ No newline at end of file
+
+    @Test
+    void approveProducts_ShouldUpdateOnceAndNotifyEachSellerOnce() {
+        // Arrange
+        List<ProductSnapshot> pending = List.of(
+                new ProductSnapshot(1L, "Ваза", "", 1L, "Керамика", 7L, "Анна", BigDecimal.TEN, 0.0, 1, ProductStatus.PENDING),
+                new ProductSnapshot(2L, "Кружка", "", 1L, "Керамика", 7L, "Анна", BigDecimal.TEN, 0.0, 1, ProductStatus.PENDING),
+                new ProductSnapshot(3L, "Стул", "", 2L, "Мебель", 8L, "Иван", BigDecimal.TEN, 0.0, 1, ProductStatus.PENDING));
+        when(productRepository.findSnapshotsByIdInAndStatusIn(anyCollection(), anyCollection())).thenReturn(pending);
+        when(productRepository.updateStatus(List.of(1L, 2L, 3L), Set.of(ProductStatus.PENDING), ProductStatus.ACTIVE, null))
+                .thenReturn(3);
+
+        // Act
+        BulkModerationResponse response = productService.approveProducts(List.of(1L, 2L, 3L, 99L));
+
+        // Assert
+        assertEquals(3, response.updated());
+        assertEquals(List.of(99L), response.skipped());
+        verify(productCardRepository).updateStatus(List.of(1L, 2L, 3L), ProductStatus.ACTIVE);
+        verify(notificationService).createNotifications(Map.of(
+                7L, "Ваши товары (2) успешно прошли модерацию: 'Ваза', 'Кружка'",
+                8L, "Ваш товар 'Стул' успешно прошел модерацию!"), NotificationType.PRODUCT);
+        verify(eventPublisher, times(3)).publishEvent(any(ProductChangedEvent.class));
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void rejectProducts_ShouldRollBack_WhenProductChangedConcurrently() {
+        // Arrange
+        ProductSnapshot product = new ProductSnapshot(1L, "Ваза", "", 1L, "Керамика", 7L, "Анна",
+                BigDecimal.TEN, 0.0, 1, ProductStatus.PENDING);
+        when(productRepository.findSnapshotsByIdInAndStatusIn(anyCollection(), anyCollection())).thenReturn(List.of(product));
+        when(productRepository.updateStatus(anyCollection(), anyCollection(), any(), any())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> productService.rejectProducts(List.of(1L), "Нет фото"));
+        verifyNoInteractions(notificationService);
+    }
+}
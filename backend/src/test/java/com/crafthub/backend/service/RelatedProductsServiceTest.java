@@ -0,0 +1,76 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.event.OrderCancelledEvent;
+import com.crafthub.backend.event.OrderPlacedEvent;
+import com.crafthub.backend.model.ProductCard;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductCardRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RelatedProductsServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ProductCardRepository productCardRepository;
+
+    @InjectMocks
+    private RelatedProductsService relatedProductsService;
+
+    private static OrderPlacedEvent order(long orderId, Long... productIds) {
+        return new OrderPlacedEvent(orderId, 1L, Arrays.stream(productIds)
+                .map(id -> new OrderPlacedEvent.Item(id, 1))
+                .toList());
+    }
+
+    private void mockCards() {
+        when(productCardRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> ProductCard.builder().productId(id).status(ProductStatus.ACTIVE).build()).toList();
+        });
+    }
+
+    @Test
+    void getRelated_ShouldOrderByCoPurchaseCount() {
+        // Arrange
+        mockCards();
+        relatedProductsService.onOrderPlaced(order(1, 1L, 2L, 3L));
+        relatedProductsService.onOrderPlaced(order(2, 1L, 3L));
+        relatedProductsService.onOrderPlaced(order(3, 3L, 4L));
+
+        // Act
+        List<ProductResponse> result = relatedProductsService.getRelated(1L, 5);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), result.stream().map(ProductResponse::id).toList());
+    }
+
+    @Test
+    void onOrderCancelled_ShouldRemovePairs() {
+        // Arrange
+        OrderPlacedEvent placed = order(1, 1L, 2L);
+        relatedProductsService.onOrderPlaced(placed);
+
+        // Act
+        relatedProductsService.onOrderCancelled(new OrderCancelledEvent(1L, placed.items()));
+        relatedProductsService.onOrderCancelled(new OrderCancelledEvent(1L, placed.items())); // повторная отмена не уводит в минус
+        relatedProductsService.onOrderPlaced(order(2, 1L, 2L));
+
+        // Assert
+        mockCards();
+        assertEquals(List.of(2L), relatedProductsService.getRelated(1L, 5).stream().map(ProductResponse::id).toList());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
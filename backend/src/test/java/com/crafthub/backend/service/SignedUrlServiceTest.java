@@ -0,0 +1,57 @@
+package com.crafthub.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedUrlServiceTest {
+
+    private final SignedUrlService signedUrlService = new SignedUrlService("test-secret", "jwt-secret", Duration.ofMinutes(10));
+
+    @Test
+    void sign_ShouldProduceUrlThatVerifiesOnlyForSamePath() {
+        // Act
+        UriComponents url = UriComponentsBuilder.fromUriString(signedUrlService.sign("documents/ab/cd/scan.pdf")).build();
+        long expires = Long.parseLong(url.getQueryParams().getFirst("expires"));
+        String signature = url.getQueryParams().getFirst("signature");
+
+        // Assert
+        assertEquals("/api/verification/files/documents/ab/cd/scan.pdf", url.getPath());
+        assertEquals(0, expires % 60);
+        assertTrue(expires >= Instant.now().getEpochSecond() + 600);
+        assertTrue(signedUrlService.verify("documents/ab/cd/scan.pdf", expires, signature));
+        assertFalse(signedUrlService.verify("documents/ab/cd/other.pdf", expires, signature));
+        assertFalse(signedUrlService.verify("documents/ab/cd/scan.pdf", expires + 60, signature));
+    }
+
+    @Test
+    void verify_ShouldRejectExpiredLinks() {
+        // Arrange: ссылка с истекшим сроком, подписанная тем же ключом
+        SignedUrlService expired = new SignedUrlService("test-secret", "jwt-secret", Duration.ofMinutes(-10));
+        UriComponents url = UriComponentsBuilder.fromUriString(expired.sign("documents/scan.jpg")).build();
+
+        // Act + Assert
+        assertFalse(signedUrlService.verify("documents/scan.jpg",
+                Long.parseLong(url.getQueryParams().getFirst("expires")), url.getQueryParams().getFirst("signature")));
+    }
+
+    @Test
+    void sign_ShouldUseKeyDerivedFromJwtSecret_WhenNoDedicatedSecret() {
+        // Arrange: отдельный ключ не задан
+        SignedUrlService derived = new SignedUrlService("", "jwt-secret", Duration.ofMinutes(10));
+        SignedUrlService jwtKeyed = new SignedUrlService("jwt-secret", "other", Duration.ofMinutes(10));
+        UriComponents url = UriComponentsBuilder.fromUriString(derived.sign("documents/scan.jpg")).build();
+        long expires = Long.parseLong(url.getQueryParams().getFirst("expires"));
+        String signature = url.getQueryParams().getFirst("signature");
+
+        // Act + Assert: подпись проверяется производным ключом, но не самим ключом JWT
+        assertTrue(new SignedUrlService(null, "jwt-secret", Duration.ofMinutes(10))
+                .verify("documents/scan.jpg", expires, signature));
+        assertFalse(jwtKeyed.verify("documents/scan.jpg", expires, signature));
+    }
+}
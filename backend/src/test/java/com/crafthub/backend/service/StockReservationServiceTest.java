@@ -0,0 +1,176 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.request.ProductRequest;
+import com.crafthub.backend.model.*;
+import com.crafthub.backend.repository.CategoryRepository;
+import com.crafthub.backend.repository.ProductCardRepository;
+import com.crafthub.backend.repository.ProductRepository;
+import com.crafthub.backend.repository.StockReservationRepository;
+import com.crafthub.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Брони остатков на настоящей БД: каждый вызов сервиса коммитится, поэтому очередь сроков
+ * заполняется так же, как в приложении. Срок брони нулевой - бронь истекает сразу после установки.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({StockReservationService.class, ProductCardService.class, ProductService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:stock-reservations;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "cart.reservation.ttl=0s"
+})
+class StockReservationServiceTest {
+
+    private static final int STOCK = 10;
+
+    @Autowired private StockReservationService stockReservationService;
+    @Autowired private ProductCardService productCardService;
+    @Autowired private StockReservationRepository reservationRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductCardRepository productCardRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProductService productService;
+
+    @MockitoBean private FileStorageService fileStorageService;
+    @MockitoBean private NotificationService notificationService;
+    @MockitoBean private FacetService facetService;
+    @MockitoBean private ProductCacheService productCacheService;
+    @MockitoBean private PriceHistoryService priceHistoryService;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void releaseExpired_ShouldReturnHeldStock() {
+        // Arrange: бронь на 3 шт, затем покупатель уменьшил количество в корзине до 1
+        Product product = createProduct("reaper");
+        stockReservationService.reserve(100L, product.getId(), 3);
+        assertEquals(STOCK - 3, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+        stockReservationService.reserve(100L, product.getId(), 1);
+        assertEquals(STOCK - 1, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+
+        // Act
+        stockReservationService.releaseExpired();
+
+        // Assert: остаток вернулся на склад и в карточку, запись журнала удалена
+        assertEquals(STOCK, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+        assertEquals(STOCK, productCardRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        assertTrue(reservationRepository.findAllByUserIdOrderByProductIdAsc(100L).isEmpty());
+    }
+
+    @Test
+    void consume_ShouldTurnReservationIntoDecrement() {
+        // Arrange: бронь на 3 шт уже истекла, но чистка до нее не дошла - товар все еще удержан
+        Product product = createProduct("consume");
+        stockReservationService.reserve(200L, product.getId(), 3);
+
+        // Act: заказывают 2 шт из забронированных 3
+        int held = stockReservationService.consume(200L, product.getId(), 2);
+        stockReservationService.releaseExpired();
+
+        // Assert: 2 шт ушли в заказ, лишняя вернулась на склад, чистка ничего не вернула повторно
+        assertEquals(2, held);
+        assertEquals(STOCK - 2, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+        assertTrue(reservationRepository.findAllByUserIdOrderByProductIdAsc(200L).isEmpty());
+    }
+
+    @Test
+    void reserve_ShouldThrow_WhenStockIsNotEnough() {
+        // Arrange
+        Product product = createProduct("shortage");
+
+        // Act & Assert: ни остаток, ни журнал не меняются
+        assertThrows(IllegalStateException.class,
+                () -> stockReservationService.reserve(300L, product.getId(), STOCK + 1));
+        assertEquals(STOCK, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+        assertTrue(reservationRepository.findAllByUserIdOrderByProductIdAsc(300L).isEmpty());
+    }
+
+    @Test
+    void updateProduct_ShouldNotMixSellerStockWithCartHolds() {
+        // Arrange: 3 шт в корзине покупателя; в форме продавца остаток на складе - свободные плюс удержанные
+        Product product = createProduct("seller-edit");
+        stockReservationService.reserve(400L, product.getId(), 3);
+        ProductCard card = productCardRepository.findById(product.getId()).orElseThrow();
+        assertEquals(STOCK, card.getStockQuantity() + card.getReservedQuantity());
+
+        // Act: продавец выставляет 20 шт, затем бронь снимается
+        loginAs(product);
+        productService.updateProduct(product.getId(), new ProductRequest("Кружка", "Описание", BigDecimal.TEN,
+                20, product.getCategory().getId(), null, 0), List.of());
+        assertEquals(17, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+        stockReservationService.release(400L, product.getId());
+
+        // Assert: на складе ровно 20, а не 23
+        assertEquals(20, productRepository.findStockLevelById(product.getId()).getStockQuantity());
+        assertEquals(20, productRepository.findStockLevelById(product.getId()).getAvailableQuantity());
+        assertEquals(20, productCardRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void deleteProduct_ShouldNotGetStockBackFromCartHolds() {
+        // Arrange
+        Product product = createProduct("delete");
+        stockReservationService.reserve(500L, product.getId(), 3);
+
+        // Act: товар удален, затем покупатель убирает его из корзины, а чистка снимает истекшие брони
+        loginAs(product);
+        productService.deleteProduct(product.getId());
+        stockReservationService.release(500L, product.getId());
+        stockReservationService.releaseExpired();
+
+        // Assert
+        ProductRepository.StockLevel level = productRepository.findStockLevelById(product.getId());
+        assertEquals(0, level.getStockQuantity());
+        assertEquals(0, level.getReservedQuantity());
+        assertEquals(0, productCardRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        assertTrue(reservationRepository.findAllByUserIdOrderByProductIdAsc(500L).isEmpty());
+    }
+
+    private void loginAs(Product product) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(product.getSeller().getEmail(), null, List.of()));
+    }
+
+    private Product createProduct(String suffix) {
+        Category category = categoryRepository.save(Category.builder()
+                .name("TEST_" + suffix.toUpperCase()).displayName("Тест").build());
+        User seller = userRepository.save(User.builder()
+                .email("seller-" + suffix + "@test.com").password("pwd").fullName("Мастер")
+                .phoneNumber("+375" + Math.abs(suffix.hashCode() % 1_000_000_000)).role(Role.ROLE_SELLER).build());
+        Product product = productRepository.save(Product.builder()
+                .name("Кружка").description("Описание").price(BigDecimal.TEN)
+                .stockQuantity(STOCK).status(ProductStatus.ACTIVE).category(category).seller(seller)
+                .images(new ArrayList<>())
+                .build());
+        productCardService.refresh(product);
+        return product;
+    }
+}
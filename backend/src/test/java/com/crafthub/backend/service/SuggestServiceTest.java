@@ -0,0 +1,113 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.SuggestionResponse;
+import com.crafthub.backend.event.OrderPlacedEvent;
+import com.crafthub.backend.event.ProductChangedEvent;
+import com.crafthub.backend.index.ProductSnapshot;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestServiceTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private SuggestService suggestService;
+
+    private static ProductSnapshot product(long id, String name, ProductStatus status) {
+        return new ProductSnapshot(id, name, "", 1L, "Керамика", 7L, "Ёлкина Анна",
+                BigDecimal.TEN, 0.0, 5, status);
+    }
+
+    private static List<String> texts(List<SuggestionResponse> suggestions) {
+        return suggestions.stream().map(SuggestionResponse::text).toList();
+    }
+
+    @Test
+    void suggest_ShouldMatchAnyWordAndOrderBySales() {
+        // Arrange
+        suggestService.onProductChanged(new ProductChangedEvent(product(1L, "Набор кружек «Лесная сказка»", ProductStatus.ACTIVE)));
+        suggestService.onProductChanged(new ProductChangedEvent(product(2L, "Кружка с оленем", ProductStatus.ACTIVE)));
+        suggestService.onOrderPlaced(new OrderPlacedEvent(10L, 3L, List.of(new OrderPlacedEvent.Item(1L, 4))));
+        suggestService.rebuildIfDirty();
+
+        // Act
+        List<SuggestionResponse> result = suggestService.suggest("КРУЖ", 5);
+
+        // Assert
+        assertEquals(List.of("Набор кружек «Лесная сказка»", "Кружка с оленем"), texts(result));
+    }
+
+    @Test
+    void suggest_ShouldIncludeCategoriesAndSellers() {
+        // Arrange
+        suggestService.onProductChanged(new ProductChangedEvent(product(1L, "Ваза", ProductStatus.ACTIVE)));
+        suggestService.rebuildIfDirty();
+
+        // Act
+        List<SuggestionResponse> categories = suggestService.suggest("кер", 5);
+        List<SuggestionResponse> sellers = suggestService.suggest("елкина", 5);
+
+        // Assert
+        assertEquals(List.of(new SuggestionResponse(SuggestService.CATEGORY, 1L, "Керамика")), categories);
+        assertEquals(List.of(new SuggestionResponse(SuggestService.SELLER, 7L, "Ёлкина Анна")), sellers);
+    }
+
+    @Test
+    void suggest_ShouldDropProductAfterStatusChange() {
+        // Arrange
+        suggestService.onProductChanged(new ProductChangedEvent(product(1L, "Ваза", ProductStatus.ACTIVE)));
+        suggestService.rebuildIfDirty();
+        suggestService.onProductChanged(new ProductChangedEvent(product(1L, "Ваза", ProductStatus.REJECTED)));
+
+        // Act
+        List<SuggestionResponse> beforeRebuild = suggestService.suggest("ваз", 5);
+        suggestService.rebuildIfDirty();
+        List<SuggestionResponse> afterRebuild = suggestService.suggest("ваз", 5);
+
+        // Assert
+        assertEquals(1, beforeRebuild.size());
+        assertTrue(afterRebuild.isEmpty());
+        assertTrue(suggestService.suggest("кер", 5).isEmpty());
+    }
+
+    @Test
+    void rebuildIfDirty_ShouldBatchSalesAndSkipStockChanges() {
+        // Arrange: веса пересобираются не чаще раза в минуту
+        ReflectionTestUtils.setField(suggestService, "reweightInterval", Duration.ofMinutes(1));
+        suggestService.onProductChanged(new ProductChangedEvent(product(1L, "Кружка синяя", ProductStatus.ACTIVE)));
+        suggestService.onProductChanged(new ProductChangedEvent(product(2L, "Кружка зеленая", ProductStatus.ACTIVE)));
+        suggestService.rebuildIfDirty();
+
+        // Act: продажа и изменение остатка
+        suggestService.onOrderPlaced(new OrderPlacedEvent(10L, 3L, List.of(new OrderPlacedEvent.Item(1L, 4))));
+        suggestService.onProductChanged(new ProductChangedEvent(new ProductSnapshot(2L, "Кружка зеленая", "", 1L,
+                "Керамика", 7L, "Ёлкина Анна", BigDecimal.TEN, 0.0, 0, ProductStatus.ACTIVE)));
+        suggestService.rebuildIfDirty();
+
+        // Assert: дерево прежнее - продажи ждут интервала, остаток в подсказки не попадает
+        assertEquals(List.of("Кружка зеленая", "Кружка синяя"), texts(suggestService.suggest("круж", 5)));
+
+        // Act: новый товар пересобирает дерево сразу, вместе с накопленными продажами
+        suggestService.onProductChanged(new ProductChangedEvent(product(3L, "Кружка белая", ProductStatus.ACTIVE)));
+        suggestService.rebuildIfDirty();
+
+        // Assert
+        assertEquals(List.of("Кружка синяя", "Кружка белая", "Кружка зеленая"), texts(suggestService.suggest("круж", 5)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.dto.response.ProductResponse;
+import com.crafthub.backend.event.OrderPlacedEvent;
+import com.crafthub.backend.event.ProductViewedEvent;
+import com.crafthub.backend.index.TrendingScores;
+import com.crafthub.backend.model.ProductCard;
+import com.crafthub.backend.model.ProductStatus;
+import com.crafthub.backend.repository.ProductCardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingServiceTest {
+
+    @Mock private ProductCardRepository productCardRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private TrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        trendingService = new TrendingService(productCardRepository, jdbcTemplate, Duration.ofHours(6));
+    }
+
+    @Test
+    void getTrending_ShouldRankSalesAboveViews() {
+        // Arrange
+        when(productCardRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> ProductCard.builder().productId(id).status(ProductStatus.ACTIVE).build()).toList();
+        });
+        for (int i = 0; i < 5; i++) {
+            trendingService.onProductViewed(new ProductViewedEvent(1L));
+        }
+        trendingService.onOrderPlaced(new OrderPlacedEvent(100L, 7L, List.of(new OrderPlacedEvent.Item(2L, 1))));
+
+        // Act
+        trendingService.refreshTop();
+        List<ProductResponse> result = trendingService.getTrending(10);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), result.stream().map(ProductResponse::id).toList());
+    }
+
+    @Test
+    void scores_ShouldHalveAfterHalfLife() {
+        // Arrange
+        long start = 0;
+        long halfLife = Duration.ofHours(6).toMillis();
+        TrendingScores scores = new TrendingScores(Duration.ofHours(6), start);
+        scores.add(1L, 10, start);
+        scores.add(2L, 6, start + halfLife); // свежие 6 очков важнее, чем 10 полдня назад
+
+        // Act
+        List<TrendingScores.Ranked> top = scores.top(2, start + halfLife);
+
+        // Assert
+        assertEquals(2L, top.get(0).productId());
+        assertEquals(5.0, top.get(1).score(), 1e-9);
+        assertEquals(5.0, scores.rescale(start + halfLife, 0.01).get(1L), 1e-9);
+    }
+}
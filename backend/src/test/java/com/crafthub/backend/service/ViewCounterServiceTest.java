@@ -0,0 +1,77 @@
+package com.crafthub.backend.service;
+
+import com.crafthub.backend.event.ProductViewedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewCounterServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ViewCounterService viewCounterService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldWriteOneBatchWithAllConcurrentViews() throws Exception {
+        // Arrange
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            pool.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    viewCounterService.onProductViewed(new ProductViewedEvent(1L + j % 2));
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Act
+        viewCounterService.flush();
+        viewCounterService.flush(); // новых просмотров нет - второй сброс ничего не пишет
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertTrue(batch.getValue().stream().allMatch(row -> (Long) row[2] == 4000L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldKeepViewsWhenWriteFails() {
+        // Arrange
+        viewCounterService.onProductViewed(new ProductViewedEvent(1L));
+        viewCounterService.onProductViewed(new ProductViewedEvent(1L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("БД недоступна"))
+                .thenReturn(new int[]{1});
+
+        // Act
+        viewCounterService.flush();
+        viewCounterService.onProductViewed(new ProductViewedEvent(1L));
+        viewCounterService.flush();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batch.capture());
+        assertEquals(3L, batch.getAllValues().get(1).get(0)[2]);
+    }
+}
@@ -61,7 +61,7 @@ export const ProductCard: React.FC<ProductCardProps> = ({product}) => {
 
             <div className="relative h-52 overflow-hidden bg-slate-50">
                 <img
-                    src={`http://localhost:8080/uploads/${mainImage}`}
+                    src={`http://localhost:8080/uploads/${mainImage}?size=480`}
                     alt={product.name}
                     className="w-full h-full object-cover transition-transform duration-700 group-hover:scale-110"
                     onError={(e) => {
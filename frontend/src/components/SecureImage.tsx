@@ -1,8 +1,7 @@
-import {useEffect, useState} from 'react';
-import apiClient from '../api';
-
 /**
- * Компонент для загрузки изображений через API (нужен для защищенных документов админа)
+ * Картинка закрытого документа (скан для верификации).
+ * src - подписанная короткоживущая ссылка от бэкенда: браузер грузит ее напрямую, без токена,
+ * поэтому сканы идут параллельно и кешируются, пока ссылка действует.
  */
 
 interface SecureImageProps {
@@ -11,36 +10,6 @@ interface SecureImageProps {
     alt?: string;
 }
 
-export const SecureImage = ({src, className, alt}: SecureImageProps) => {
-    const [imageSrc, setImageSrc] = useState<string>('');
-
-    useEffect(() => {
-        const fetchImage = async () => {
-            try {
-                const response = await apiClient.get(`/verification/files/${src}`, {
-                    responseType: 'blob',
-                });
-
-                const url = URL.createObjectURL(response.data);
-                setImageSrc(url);
-            } catch (error) {
-                console.error('Ошибка загрузки защищенного изображения', error);
-            }
-        };
-
-        if (src) fetchImage();
-
-        return () => {
-            if (imageSrc) URL.revokeObjectURL(imageSrc);
-        };
-    }, [src]);
-
-    if (!imageSrc) return (
-        <div
-            className={`${className} bg-gray-200 animate-pulse flex items-center justify-center text-xs text-gray-400`}>
-            Загрузка...
-        </div>
-    );
-
-    return <img src={imageSrc} className={className} alt={alt}/>;
-};
\ No newline at end of file
+export const SecureImage = ({src, className, alt}: SecureImageProps) => (
+    <img src={`http://localhost:8080${src}`} className={className} alt={alt} loading="lazy"/>
+);
@@ -29,6 +29,7 @@ interface ProductImage {
 interface VerificationDocument {
     id: number;
     fileUrl: string;
+    signedUrl: string;
 }
 
 interface SellerRequest {
@@ -411,11 +412,11 @@ export const AdminPage = () => {
                                                     key={doc.id}
                                                     className="aspect-square bg-slate-50 rounded-2xl overflow-hidden border-2 border-slate-100 cursor-zoom-in group relative"
                                                     onClick={() => {
-                                                        setSelectedImage(doc.fileUrl);
+                                                        setSelectedImage(doc.signedUrl);
                                                         setScale(1);
                                                     }}
                                                 >
-                                                    <SecureImage src={doc.fileUrl}
+                                                    <SecureImage src={doc.signedUrl}
                                                                  className="w-full h-full object-cover group-hover:scale-110 transition-transform duration-300"/>
                                                     <div
                                                         className="absolute inset-0 bg-black/0 group-hover:bg-black/10 transition-colors"/>
@@ -446,7 +447,7 @@ export const AdminPage = () => {
                                 <div
                                     className="lg:w-1/3 h-72 rounded-4xl overflow-hidden bg-slate-50 border border-slate-100">
                                     <img
-                                        src={`http://localhost:8080/uploads/${prod.images.find(img => img.isMain)?.imageUrl || prod.images[0]?.imageUrl}`}
+                                        src={`http://localhost:8080/uploads/${prod.images.find(img => img.isMain)?.imageUrl || prod.images[0]?.imageUrl}?size=480`}
                                         className="w-full h-full object-cover" alt=""/>
                                 </div>
                                 <div className="lg:w-2/3 flex flex-col justify-between">
@@ -610,7 +611,7 @@ export const AdminPage = () => {
                                 <Link to={`/product/${prod.id}`} className="flex items-start gap-4 mb-4 cursor-pointer">
                                     <div className="w-20 h-20 rounded-2xl overflow-hidden bg-slate-50 shrink-0">
                                         <img
-                                            src={`http://localhost:8080/uploads/${prod.images.find(img => img.isMain)?.imageUrl || prod.images[0]?.imageUrl}`}
+                                            src={`http://localhost:8080/uploads/${prod.images.find(img => img.isMain)?.imageUrl || prod.images[0]?.imageUrl}?size=480`}
                                             className="w-full h-full object-cover group-hover:scale-110 transition-transform duration-500"
                                             alt=""/>
                                     </div>
@@ -3,7 +3,7 @@ import apiClient from '../api';
 import {
     LineChart, Line, XAxis, YAxis, CartesianGrid, Tooltip, ResponsiveContainer,
 } from 'recharts';
-import {TrendingUp, ShoppingBag, DollarSign, Award, ArrowLeft, Save} from 'lucide-react';
+import {TrendingUp, ShoppingBag, DollarSign, Award, ArrowLeft, Save, Eye} from 'lucide-react';
 import {useNavigate} from 'react-router-dom';
 import toast from "react-hot-toast";
 
@@ -27,6 +27,8 @@ interface SellerStats {
     averageRating: number;
     salesHistory: ChartPoint[];
     topProducts: TopProduct[];
+    totalViews: number;
+    conversionRate: number;
 }
 
 export const AnalyticsPage = () => {
@@ -91,7 +93,7 @@ export const AnalyticsPage = () => {
             </div>
 
             {/* КАРТОЧКИ KPI */}
-            <div className="grid grid-cols-1 md:grid-cols-3 gap-6 mb-10">
+            <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-4 gap-6 mb-10">
                 <div
                     className="bg-white p-8 rounded-[2.5rem] shadow-sm border border-slate-100 relative overflow-hidden">
                     <div className="absolute top-0 right-0 w-24 h-24 bg-indigo-50 rounded-bl-[5rem] -mr-6 -mt-6"/>
@@ -110,6 +112,15 @@ export const AnalyticsPage = () => {
                         className="text-sm font-bold">сделок</span></h3>
                 </div>
 
+                <div
+                    className="bg-white p-8 rounded-[2.5rem] shadow-sm border border-slate-100 relative overflow-hidden">
+                    <div className="absolute top-0 right-0 w-24 h-24 bg-amber-50 rounded-bl-[5rem] -mr-6 -mt-6"/>
+                    <Eye className="text-amber-500 mb-4 relative z-10" size={32}/>
+                    <p className="text-slate-400 text-xs font-black uppercase tracking-widest mb-1">Просмотры</p>
+                    <h3 className="text-3xl font-black text-slate-900">{stats.totalViews} <span
+                        className="text-sm font-bold">конверсия {stats.conversionRate.toFixed(2)}%</span></h3>
+                </div>
+
                 <div className="bg-slate-900 p-8 rounded-[2.5rem] shadow-xl shadow-indigo-100 relative overflow-hidden">
                     <TrendingUp className="text-indigo-400 mb-4" size={32}/>
                     <p className="text-slate-500 text-xs font-black uppercase tracking-widest mb-1">Эффективность</p>
@@ -141,12 +141,17 @@ export const CartPage = () => {
                     {items.map((item) => (
                         <div key={item.productId}
                              className="flex items-center bg-white p-4 rounded-2xl shadow-sm border border-gray-100 group">
-                            <img src={`http://localhost:8080/uploads/${item.imageUrl}`}
+                            <img src={`http://localhost:8080/uploads/${item.imageUrl}?size=160`}
                                  className="w-24 h-24 object-cover rounded-xl" alt=""/>
 
                             <div className="ml-6 flex-grow">
                                 <h4 className="font-bold text-lg text-gray-800">{item.productName}</h4>
                                 <p className="text-indigo-600 font-black">{item.price} BYN</p>
+                                {item.reservedUntil && (
+                                    <p className="text-[10px] text-slate-400 font-bold uppercase tracking-widest">
+                                        Забронировано до {new Date(item.reservedUntil).toLocaleTimeString([], {hour: '2-digit', minute: '2-digit'})}
+                                    </p>
+                                )}
 
                                 {/* Регулятор количества */}
                                 <div className="flex items-center space-x-4">
@@ -231,7 +231,7 @@ export const ChatPage = () => {
                                 <Link to={`/product/${productDetails.id}`}
                                       className="flex items-center bg-white p-2 rounded-2xl border border-slate-200 hover:border-indigo-300 transition-all shadow-sm max-w-[250px] group shrink-0 ml-4">
                                     <div className="h-10 w-10 rounded-xl overflow-hidden shrink-0 bg-slate-100">
-                                        <img src={`http://localhost:8080/uploads/${mainImage}`}
+                                        <img src={`http://localhost:8080/uploads/${mainImage}?size=160`}
                                              className="w-full h-full object-cover group-hover:scale-110 transition-all"
                                              alt="" onError={(e) => {
                                             e.currentTarget.src = 'https://placehold.co/100x100?text=No+Img';
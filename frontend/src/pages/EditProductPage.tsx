@@ -24,6 +24,7 @@ interface ProductDetail {
     description: string;
     price: number;
     stockQuantity: number;
+    reservedQuantity: number;
     youtubeVideoId: string | null;
     categoryDisplayName: string;
     images: ProductImage[];
@@ -66,7 +67,8 @@ export const EditProductPage = () => {
                     name: p.name,
                     description: p.description,
                     price: p.price.toString(),
-                    stockQuantity: p.stockQuantity.toString(),
+                    // Продавец правит остаток на складе: свободный плюс удержанный в корзинах
+                    stockQuantity: (p.stockQuantity + (p.reservedQuantity ?? 0)).toString(),
                     categoryId: currentCatId,
                     youtubeUrl: p.youtubeVideoId ? `https://www.youtube.com/watch?v=${p.youtubeVideoId}` : ''
                 });
@@ -234,7 +236,7 @@ export const EditProductPage = () => {
                             <label
                                 className="aspect-square rounded-2xl border-2 border-dashed border-slate-200 flex flex-col items-center justify-center cursor-pointer hover:bg-slate-50 transition-all">
                                 <input type="file" multiple className="hidden" onChange={handleFileChange}
-                                       accept="image/*"/>
+                                       accept="image/jpeg,image/png,image/webp,image/gif"/>
                                 <Camera size={24} className="text-slate-400"/>
                                 <span className="text-[10px] font-bold mt-2 text-slate-400 uppercase">Заменить</span>
                             </label>
@@ -33,6 +33,7 @@ export const HomePage = () => {
     const [loading, setLoading] = useState(true);
 
     const [searchQuery, setSearchQuery] = useState('');
+    const [suggestions, setSuggestions] = useState<string[]>([]);
     const [selectedCategory, setSelectedCategory] = useState<string>('ALL');
 
     const [isCategoryModalOpen, setIsCategoryModalOpen] = useState(false);
@@ -55,6 +56,20 @@ export const HomePage = () => {
         void fetchData();
     }, []);
 
+    // Подсказки при вводе (с небольшой задержкой, чтобы не дергать сервер на каждый символ)
+    useEffect(() => {
+        if (searchQuery.trim().length < 2) {
+            setSuggestions([]);
+            return;
+        }
+        const timer = setTimeout(() => {
+            apiClient.get('/products/suggest', {params: {q: searchQuery}})
+                .then(res => setSuggestions(res.data.map((s: { text: string }) => s.text)))
+                .catch(() => setSuggestions([]));
+        }, 150);
+        return () => clearTimeout(timer);
+    }, [searchQuery]);
+
     const filteredProducts = products.filter(product => {
         const matchesSearch = product.name.toLowerCase().includes(searchQuery.toLowerCase());
         const matchesCategory = selectedCategory === 'ALL' || product.categoryDisplayName === categories.find(c => c.name === selectedCategory)?.displayName;
@@ -83,7 +98,11 @@ export const HomePage = () => {
                         className="w-full px-6 py-4 rounded-2xl border-none shadow-lg ring-1 ring-gray-200 focus:ring-2 focus:ring-indigo-500 outline-none text-lg transition-all"
                         value={searchQuery}
                         onChange={(e) => setSearchQuery(e.target.value)}
+                        list="search-suggestions"
                     />
+                    <datalist id="search-suggestions">
+                        {suggestions.map(text => <option key={text} value={text}/>)}
+                    </datalist>
                 </div>
             </div>
 
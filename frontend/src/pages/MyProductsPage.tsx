@@ -1,4 +1,4 @@
-import {useEffect, useState} from 'react';
+import {useCallback, useEffect, useState} from 'react';
 import {Link} from 'react-router-dom';
 import apiClient from '../api';
 import {Clock, CheckCircle, XCircle, X, Trash2} from 'lucide-react';
@@ -23,21 +23,61 @@ interface Product {
     images: ProductImage[];
 }
 
+type StatusTab = 'ALL' | 'ACTIVE' | 'PENDING' | 'REJECTED';
+
+const TABS: { key: StatusTab, label: string }[] = [
+    {key: 'ALL', label: 'Все'},
+    {key: 'ACTIVE', label: 'Опубликованы'},
+    {key: 'PENDING', label: 'На проверке'},
+    {key: 'REJECTED', label: 'Отклонены'},
+];
+
+const PAGE_SIZE = 24;
+
 export const MyProductsPage = () => {
     const [products, setProducts] = useState<Product[]>([]);
     const [loading, setLoading] = useState(true);
 
+    // Вкладка, страница и счетчики по статусам приходят одним запросом
+    const [tab, setTab] = useState<StatusTab>('ALL');
+    const [page, setPage] = useState(0);
+    const [totalPages, setTotalPages] = useState(0);
+    const [statusCounts, setStatusCounts] = useState<Record<string, number>>({});
+
     const [deleteModal, setDeleteModal] = useState<{isOpen: boolean, id: number | null}>({
         isOpen: false,
         id: null
     });
 
-    useEffect(() => {
-        apiClient.get('/products/my')
-            .then(res => setProducts(res.data))
+    const loadPage = useCallback(() => {
+        apiClient.get('/products/my/page', {
+            params: {status: tab === 'ALL' ? undefined : tab, page, size: PAGE_SIZE}
+        })
+            .then(res => {
+                // После удаления последнего товара на странице возвращаемся на предыдущую
+                if (res.data.page.items.length === 0 && page > 0) {
+                    setPage(page - 1);
+                    return;
+                }
+                setProducts(res.data.page.items);
+                setTotalPages(res.data.page.totalPages);
+                setStatusCounts(res.data.statusCounts);
+            })
             .catch(err => console.error(err))
             .finally(() => setLoading(false));
-    }, []);
+    }, [tab, page]);
+
+    useEffect(() => {
+        loadPage();
+    }, [loadPage]);
+
+    const totalCount = Object.values(statusCounts).reduce((sum, count) => sum + count, 0);
+    const tabCount = (key: StatusTab) => key === 'ALL' ? totalCount : (statusCounts[key] ?? 0);
+
+    const selectTab = (key: StatusTab) => {
+        setTab(key);
+        setPage(0);
+    };
 
     const getStatusBadge = (status: string) => {
         switch (status) {
@@ -81,7 +121,7 @@ export const MyProductsPage = () => {
 
         try {
             await apiClient.delete(`/products/${deleteModal.id}`);
-            setProducts(prev => prev.filter(p => p.id !== deleteModal.id));
+            loadPage();
             toast.success('Товар успешно удален');
             closeDeleteModal();
             // eslint-disable-next-line @typescript-eslint/no-unused-vars
@@ -104,9 +144,27 @@ export const MyProductsPage = () => {
                 </Link>
             </div>
 
+            <div className="flex flex-wrap gap-3 mb-8">
+                {TABS.map(t => (
+                    <button
+                        key={t.key}
+                        onClick={() => selectTab(t.key)}
+                        className={`px-5 py-2 rounded-full font-semibold text-sm transition-all ${
+                            tab === t.key
+                                ? 'bg-indigo-600 text-white shadow-md shadow-indigo-200'
+                                : 'bg-white text-gray-600 border border-gray-200 hover:border-indigo-300'
+                        }`}
+                    >
+                        {t.label} <span className="opacity-70">({tabCount(t.key)})</span>
+                    </button>
+                ))}
+            </div>
+
             {products.length === 0 ? (
                 <div className="text-center py-20 bg-white rounded-xl border-2 border-dashed">
-                    <p className="text-slate-400 font-medium text-lg">У вас пока нет добавленных товаров.</p>
+                    <p className="text-slate-400 font-medium text-lg">
+                        {totalCount === 0 ? 'У вас пока нет добавленных товаров.' : 'В этом разделе пока нет товаров.'}
+                    </p>
                 </div>
             ) : (
                 <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-3 gap-8">
@@ -118,7 +176,7 @@ export const MyProductsPage = () => {
                                  className="bg-white rounded-[2rem] shadow-sm border border-slate-100 overflow-hidden flex flex-col group transition-all hover:shadow-xl hover:shadow-slate-200/50">
                                 <div className="relative h-56 bg-slate-50 overflow-hidden">
                                     <img
-                                        src={`http://localhost:8080/uploads/${mainImage}`}
+                                        src={`http://localhost:8080/uploads/${mainImage}?size=480`}
                                         alt={product.name}
                                         className="h-full w-full object-cover transition-transform duration-500 group-hover:scale-105"
                                         onError={(e) => {
@@ -168,6 +226,25 @@ export const MyProductsPage = () => {
                     })}
                 </div>
             )}
+            {totalPages > 1 && (
+                <div className="flex justify-center items-center gap-4 mt-10">
+                    <button
+                        onClick={() => setPage(p => p - 1)}
+                        disabled={page === 0}
+                        className="px-5 py-2 rounded-xl bg-slate-100 text-slate-600 font-bold text-sm disabled:opacity-40 hover:bg-slate-200 transition-all"
+                    >
+                        Назад
+                    </button>
+                    <span className="text-sm font-semibold text-slate-500">Страница {page + 1} из {totalPages}</span>
+                    <button
+                        onClick={() => setPage(p => p + 1)}
+                        disabled={page + 1 >= totalPages}
+                        className="px-5 py-2 rounded-xl bg-slate-100 text-slate-600 font-bold text-sm disabled:opacity-40 hover:bg-slate-200 transition-all"
+                    >
+                        Вперед
+                    </button>
+                </div>
+            )}
             {deleteModal.isOpen && (
                 <div className="fixed inset-0 z-[150] flex items-center justify-center bg-slate-900/80 backdrop-blur-sm p-4 animate-in fade-in duration-200">
                     <div className="bg-white rounded-[2.5rem] p-10 max-w-sm w-full shadow-2xl relative animate-in zoom-in duration-300">
@@ -145,7 +145,7 @@ export const ProductDetailsPage = () => {
                 <div className="space-y-4">
                     <div className="aspect-square w-full rounded-4xl overflow-hidden bg-white shadow-xl border border-slate-100">
                         <img
-                            src={`http://localhost:8080/uploads/${activeImage}`}
+                            src={`http://localhost:8080/uploads/${activeImage}?size=1080`}
                             className="w-full h-full object-cover"
                             alt={product.name}
                             onError={(e) => {
@@ -161,7 +161,7 @@ export const ProductDetailsPage = () => {
                                 onClick={() => setActiveImage(img.imageUrl)}
                                 className={`w-20 h-20 rounded-xl overflow-hidden border-2 transition-all shrink-0 ${activeImage === img.imageUrl ? 'border-indigo-600 scale-105 shadow-md' : 'border-transparent opacity-70 hover:opacity-100'}`}
                             >
-                                <img src={`http://localhost:8080/uploads/${img.imageUrl}`} className="w-full h-full object-cover" alt=""/>
+                                <img src={`http://localhost:8080/uploads/${img.imageUrl}?size=160`} className="w-full h-full object-cover" alt=""/>
                             </button>
                         ))}
                     </div>
@@ -174,7 +174,7 @@ export const ProfilePage = () => {
                                 <label
                                     className="absolute -bottom-2 -right-2 bg-slate-900 text-white p-2.5 rounded-2xl cursor-pointer hover:bg-indigo-600 transition-all border-4 border-white">
                                     <Camera size={18}/>
-                                    <input type="file" className="hidden" accept="image/*" onChange={handleAvatarUpload}/>
+                                    <input type="file" className="hidden" accept="image/jpeg,image/png,image/webp,image/gif" onChange={handleAvatarUpload}/>
                                 </label>
                             )}
                         </div>
@@ -307,7 +307,7 @@ export const VerificationPage = () => {
 
                             {selectedFiles.length < 5 && (
                                 <label className="aspect-square rounded-2xl border-2 border-dashed border-slate-200 flex flex-col items-center justify-center cursor-pointer hover:bg-slate-50 hover:border-indigo-300 transition-all text-slate-400 hover:text-indigo-500">
-                                    <input type="file" multiple className="hidden" onChange={handleFileChange} accept="image/*,.pdf" />
+                                    <input type="file" multiple className="hidden" onChange={handleFileChange} accept="image/jpeg,image/png,image/webp,image/gif,.pdf" />
                                     <Camera size={24} />
                                     <span className="text-[10px] font-bold mt-2 uppercase text-center px-2">Добавить скан/фото</span>
                                 </label>
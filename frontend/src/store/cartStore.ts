@@ -12,6 +12,7 @@ interface CartItem {
     quantity: number;
     imageUrl: string;
     stockQuantity: number;
+    reservedUntil: string | null; // до какого времени товар удерживается за покупателем
 }
 
 interface CartState {